@@ -33,20 +33,52 @@ FOREIGN KEY (creator_uuid) REFERENCES users(uuid);
 CREATE TABLE groups(
     guid INTEGER PRIMARY KEY NOT NULL,
     name VARCHAR(20) NOT NULL,
-    members INTEGER[] NOT NULL,
-    expenses INTEGER[]
+    description TEXT,
+    expenses INTEGER[],
+    version INTEGER NOT NULL DEFAULT 1
 );
 
+CREATE TABLE group_members(
+    guid INTEGER NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    position INTEGER NOT NULL,
+    PRIMARY KEY (guid, email)
+);
 
-CREATE SEQUENCE users_seq increment 1 start 1;
-CREATE SEQUENCE expenses_seq increment 1 start 1000;
-CREATE SEQUENCE groups_seq increment 1 start 1;
+ALTER TABLE group_members ADD CONSTRAINT group_members_foreign_key
+FOREIGN KEY (guid) REFERENCES groups(guid) ON DELETE CASCADE;
 
 
-CREATE TABLE budget(
+-- Each NEXTVAL reserves a block of 50 UIDs for SequenceUIDAllocator, whose BLOCK_SIZE must match the increment;
+-- it checks this the first time it uses each sequence.
+CREATE SEQUENCE users_seq increment 50 start 1;
+CREATE SEQUENCE expenses_seq increment 50 start 1000;
+CREATE SEQUENCE groups_seq increment 50 start 1;
+CREATE SEQUENCE budget_seq increment 50 start 1;
+CREATE SEQUENCE items_seq increment 50 start 1;
 
+
+CREATE TABLE budget(
+    buid INTEGER PRIMARY KEY NOT NULL,
+    guid INTEGER,
+    name VARCHAR(40) NOT NULL,
+    max_spend NUMERIC(20, 2) NOT NULL,
+    version INTEGER NOT NULL DEFAULT 1
 );
 
+ALTER TABLE budget ADD CONSTRAINT budget_foreign_key
+FOREIGN KEY (guid) REFERENCES groups(guid) ON DELETE CASCADE;
+
 CREATE TABLE items(
+    iuid INTEGER PRIMARY KEY NOT NULL,
+    buid INTEGER,
+    name VARCHAR(40) NOT NULL,
+    cost NUMERIC(20, 2) NOT NULL,
+    quantity INTEGER NOT NULL
+);
+
+ALTER TABLE items ADD CONSTRAINT items_foreign_key
+FOREIGN KEY (buid) REFERENCES budget(buid) ON DELETE CASCADE;
 
-);
\ No newline at end of file
+CREATE INDEX budget_guid_index ON budget(guid);
+CREATE INDEX items_buid_index ON items(buid);
@@ -5,12 +5,35 @@ import com.example.compound.data.*;
 import com.example.compound.repositories.BudgetRepository;
 import com.example.compound.repositories.GroupRepository;
 import com.example.compound.repositories.ItemRepository;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+
+import java.io.IOException;
+import java.nio.file.Path;
 
 public class Main {
-    public static void main(String[] args) {
-        Data data = new Data();
-        data.initializeData();
+    /**
+     * Run the CLI. If a directory is given, the data is kept in it between runs (see DurableData); otherwise the data
+     * is kept in memory, indexed so that logging in and finding groups do not slow down as users are added (see
+     * IndexedData), and lost on exit.
+     * @param args the directory in which to keep the data, if any
+     * @throws IOException if the data in the given directory cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            IndexedData data = new IndexedData();
+            data.initializeData();
+            run(data);
+            return;
+        }
+        try (DurableData data = DurableData.open(Path.of(args[0]))) {
+            if (data.isEmpty()) {
+                data.initializeData();
+            }
+            run(data);
+        }
+    }
 
+    private static void run(RepositoryGateway data) {
         View view = new View();
         Controller controller = new Controller(new BudgetRepository(), new GroupRepository(), new ItemRepository(),
                 data);
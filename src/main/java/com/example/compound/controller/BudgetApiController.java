@@ -0,0 +1,263 @@
+package com.example.compound.controller;
+
+import com.example.compound.metrics.CallMetrics;
+import com.example.compound.repositories.BudgetRepository;
+import com.example.compound.repositories.GroupRepository;
+import com.example.compound.repositories.ItemRepository;
+import com.example.compound.use_cases.BudgetManager;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
+import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.GroupTransferData;
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The REST API for the budgets of a group, which exposes the operations of BudgetManager other than
+ * addExpensesToGroup. The expenses it makes from a budget's items have no creator, which the expenses table requires,
+ * and GroupRepository does not store a group's expenses, so they could not be saved.
+ *
+ * Every response to a GET carries an ETag made from the budget's version, which changes whenever the budget or any of
+ * its items is saved. A client that sends that ETag back in If-None-Match is answered 304 Not Modified after reading
+ * only the version from the budget's row, so clients polling an unchanged budget cost neither a read of its items nor
+ * their serialisation.
+ */
+@RestController
+@RequestMapping("/api/groups/{guid}/budgets")
+public class BudgetApiController {
+    private final BudgetManager budgetManager;
+
+    @Autowired
+    public BudgetApiController(BudgetRepository budgetRepository, GroupRepository groupRepository,
+                               ItemRepository itemRepository) {
+        @SuppressWarnings("unchecked")
+        VersionedRepositoryGateway<GroupTransferData> groups =
+                CallMetrics.gateway(VersionedRepositoryGateway.class, groupRepository);
+        @SuppressWarnings("unchecked")
+        RepositoryGatewayI<ItemTransferData> items = CallMetrics.gateway(RepositoryGatewayI.class, itemRepository);
+        this.budgetManager = CallMetrics.manager(new BudgetManager(
+                CallMetrics.gateway(BudgetRepositoryGateway.class, budgetRepository), groups, items));
+    }
+
+    /**
+     * API POST path to create a budget in the group.
+     * @param guid    the GUID of the group
+     * @param request the body of the request, with the budget's "name" and spending limit, "maxSpend"
+     * @return 201 Created with the BUID of the new budget under "buid", or 404 if there is no such group
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> create(@PathVariable String guid,
+                                                      @RequestBody Map<String, Object> request) {
+        String name = string(request, "name");
+        double maxSpend = nonNegative(request, "maxSpend");
+        String BUID = budgetManager.createBudget(guid, name, maxSpend);
+        if (BUID == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No group " + guid);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("buid", BUID);
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    /**
+     * API GET path to read a budget with its items.
+     * @param guid    the GUID of the group
+     * @param buid    the BUID of the budget
+     * @param request the request, whose If-None-Match header is checked against the budget's ETag
+     * @return the budget's "buid", "name", spending limit "maxSpend", "totalCost", "version" and "items", or 304 if the
+     *         client already has this version, or 404 if there is no such budget in the group
+     */
+    @GetMapping("/{buid}")
+    public ResponseEntity<Map<String, Object>> get(@PathVariable String guid, @PathVariable String buid,
+                                                   WebRequest request) {
+        return conditionalGet(guid, buid, request, budget -> {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("buid", budget.getBUID());
+            body.put("name", budget.getName());
+            body.put("maxSpend", budget.getMaxSpend());
+            body.put("totalCost", budget.getTotalCost());
+            body.put("version", budget.getVersion());
+            body.put("items", items(budget));
+            return body;
+        });
+    }
+
+    /**
+     * API GET path to list the items in a budget, in order of IUID.
+     * @param guid    the GUID of the group
+     * @param buid    the BUID of the budget
+     * @param request the request, whose If-None-Match header is checked against the budget's ETag
+     * @return the items, or 304 if the client already has this version of the budget, or 404 if there is no such
+     *         budget in the group
+     */
+    @GetMapping("/{buid}/items")
+    public ResponseEntity<List<ItemTransferData>> items(@PathVariable String guid, @PathVariable String buid,
+                                                        WebRequest request) {
+        return conditionalGet(guid, buid, request, BudgetApiController::items);
+    }
+
+    /**
+     * API POST path to add an item to a budget.
+     * @param guid    the GUID of the group
+     * @param buid    the BUID of the budget
+     * @param request the body of the request, with the item's "name", "cost" and "quantity"
+     * @return 201 Created with the IUID of the new item under "iuid", 404 if there is no such budget in the group, or
+     *         409 if the budget does not allow the item, as when it would go over the spending limit
+     */
+    @PostMapping("/{buid}/items")
+    public ResponseEntity<Map<String, Object>> addItem(@PathVariable String guid, @PathVariable String buid,
+                                                       @RequestBody Map<String, Object> request) {
+        String name = string(request, "name");
+        double cost = nonNegative(request, "cost");
+        int quantity = quantity(request);
+        requireBudget(guid, buid);
+        String IUID = budgetManager.addItem(buid, name, cost, quantity);
+        if (IUID == null) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The budget does not allow the item " + name);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("iuid", IUID);
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    /**
+     * API PATCH path to change the quantity of an item in a budget.
+     * @param guid    the GUID of the group
+     * @param buid    the BUID of the budget
+     * @param iuid    the IUID of the item
+     * @param request the body of the request, with the new "quantity"
+     * @return 204 No Content, 404 if there is no such item in the budget, or 409 if the budget does not allow the new
+     *         quantity
+     */
+    @PatchMapping("/{buid}/items/{iuid}")
+    public ResponseEntity<Void> changeItem(@PathVariable String guid, @PathVariable String buid,
+                                           @PathVariable String iuid, @RequestBody Map<String, Object> request) {
+        int quantity = quantity(request);
+        requireItem(guid, buid, iuid);
+        if (!budgetManager.changeItemQuantity(iuid, quantity)) {
+            throw new ResponseStatusException(HttpStatus.CONFLICT, "The budget does not allow a quantity of " +
+                    quantity);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * API DELETE path to remove an item from a budget.
+     * @param guid the GUID of the group
+     * @param buid the BUID of the budget
+     * @param iuid the IUID of the item
+     * @return 204 No Content, or 404 if there is no such item in the budget
+     */
+    @DeleteMapping("/{buid}/items/{iuid}")
+    public ResponseEntity<Void> removeItem(@PathVariable String guid, @PathVariable String buid,
+                                           @PathVariable String iuid) {
+        requireItem(guid, buid, iuid);
+        if (!budgetManager.removeItem(iuid)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No item " + iuid);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * API PUT path to set the spending limit of a budget.
+     * @param guid    the GUID of the group
+     * @param buid    the BUID of the budget
+     * @param request the body of the request, with the new limit under "maxSpend"
+     * @return 204 No Content, or 404 if there is no such budget in the group
+     */
+    @PutMapping("/{buid}/max-spend")
+    public ResponseEntity<Void> setMaxSpend(@PathVariable String guid, @PathVariable String buid,
+                                            @RequestBody Map<String, Object> request) {
+        double maxSpend = nonNegative(request, "maxSpend");
+        requireBudget(guid, buid);
+        if (!budgetManager.setMaxSpend(buid, maxSpend)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No budget " + buid);
+        }
+        return ResponseEntity.noContent().build();
+    }
+
+    /*
+     * Answer a GET of the budget with the given BUID in the group with the given GUID with the body made from the
+     * budget by the given function, unless the request's If-None-Match matches the budget's current version, in which
+     * case only the version is read and the response is 304 Not Modified.
+     */
+    private <T> ResponseEntity<T> conditionalGet(String guid, String buid, WebRequest request,
+                                                 Function<BudgetTransferData, T> body) {
+        Integer version = budgetManager.getVersion(guid, buid);
+        if (version == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No budget " + buid + " in group " + guid);
+        }
+        if (request.checkNotModified(eTag(version))) {
+            return null;
+        }
+        BudgetTransferData budget = budgetManager.getBudget(buid);
+        if (budget == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No budget " + buid + " in group " + guid);
+        }
+        // Tagged with the version actually read, which is newer than the one checked if the budget has just changed
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(eTag(budget.getVersion()))
+                .body(body.apply(budget));
+    }
+
+    private static String eTag(int version) {
+        return "\"" + version + "\"";
+    }
+
+    private void requireBudget(String guid, String buid) {
+        if (budgetManager.getVersion(guid, buid) == null) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No budget " + buid + " in group " + guid);
+        }
+    }
+
+    private void requireItem(String guid, String buid, String iuid) {
+        if (!budgetManager.hasItem(guid, buid, iuid)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No item " + iuid + " in budget " + buid);
+        }
+    }
+
+    private static List<ItemTransferData> items(BudgetTransferData budget) {
+        List<ItemTransferData> items = new ArrayList<>(budget.getBudget().values());
+        items.sort(Comparator.comparing((ItemTransferData item) -> Integer.parseInt(item.getIUID())));
+        return items;
+    }
+
+    private static String string(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof String) || ((String) value).isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be a non-empty string");
+        }
+        return (String) value;
+    }
+
+    private static double nonNegative(Map<String, Object> request, String field) {
+        Object value = request.get(field);
+        if (!(value instanceof Number) || ((Number) value).doubleValue() < 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, field + " must be a non-negative number");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static int quantity(Map<String, Object> request) {
+        Object value = request.get("quantity");
+        if (!(value instanceof Integer) || (Integer) value < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "quantity must be a positive integer");
+        }
+        return (Integer) value;
+    }
+}
@@ -1,11 +1,13 @@
 package com.example.compound.controller;
 
 import com.example.compound.entities.Group;
+import com.example.compound.metrics.CallMetrics;
 import com.example.compound.use_cases.BudgetManager;
 import com.example.compound.use_cases.ExpenseManager;
 import com.example.compound.use_cases.CurrentBudgetManager;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
 import com.example.compound.use_cases.gateways.RepositoryGatewayI;
-import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
 //import com.example.compound.use_cases.gateways.RepositoryGateway;
@@ -34,15 +36,15 @@ public class BudgetController {
     };
 
     public BudgetController(String GUID,
-                            RepositoryGatewayI<BudgetTransferData> budgetRepository,
-                            RepositoryGatewayI<GroupTransferData> groupRepository,
+                            BudgetRepositoryGateway budgetRepository,
+                            VersionedRepositoryGateway<GroupTransferData> groupRepository,
                             RepositoryGatewayI<ItemTransferData> itemRepository,
 //                            RepositoryGateway repositoryGateway,
                             ExpenseManager expenseManager) {
         this.GUID = GUID;
         this.currentBudgetManager = new CurrentBudgetManager(budgetRepository);
 //        this.currentBudgetManager = new CurrentBudgetManager(repositoryGateway);
-        this.budgetManager = new BudgetManager(budgetRepository, groupRepository, itemRepository);
+        this.budgetManager = CallMetrics.manager(new BudgetManager(budgetRepository, groupRepository, itemRepository));
 //        this.budgetManager = new BudgetManager(repositoryGateway);
         this.expenseManager = expenseManager;
     }
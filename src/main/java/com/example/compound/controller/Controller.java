@@ -4,9 +4,9 @@ import java.util.*;
 
 import com.example.compound.entities.User;
 import com.example.compound.entities.Person;
+import com.example.compound.metrics.CallMetrics;
 import com.example.compound.use_cases.*;
 import com.example.compound.use_cases.gateways.*;
-import com.example.compound.use_cases.transfer_data.BudgetTransferData;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
 
@@ -16,8 +16,8 @@ import com.example.compound.use_cases.transfer_data.ItemTransferData;
 public class Controller {
     private static boolean isLoggedIn = Boolean.FALSE;
     public static final String appName = "Money Manager";
-    private final RepositoryGatewayI<BudgetTransferData> budgetRepository;
-    private final RepositoryGatewayI<GroupTransferData> groupRepository;
+    private final BudgetRepositoryGateway budgetRepository;
+    private final VersionedRepositoryGateway<GroupTransferData> groupRepository;
     private final RepositoryGatewayI<ItemTransferData> itemRepository;
     public final RepositoryGateway repositoryGateway;
     public final GroupManager groupManager;
@@ -25,17 +25,19 @@ public class Controller {
     public final ExpenseManager expenseManager;
     public final CurrentUserManager currentUserManager;
 
-    public Controller(RepositoryGatewayI<BudgetTransferData> budgetRepository,
-                      RepositoryGatewayI<GroupTransferData> groupRepository,
+    @SuppressWarnings("unchecked") // The gateway interfaces are generic, so their classes are raw
+    public Controller(BudgetRepositoryGateway budgetRepository,
+                      VersionedRepositoryGateway<GroupTransferData> groupRepository,
                       RepositoryGatewayI<ItemTransferData> itemRepository,
                       RepositoryGateway repositoryGateway) {
-        this.budgetRepository = budgetRepository; // TODO: instantiate gateways here or inject dependencies?
-        this.groupRepository = groupRepository;
-        this.itemRepository = itemRepository;
+        // TODO: instantiate gateways here or inject dependencies?
+        this.budgetRepository = CallMetrics.gateway(BudgetRepositoryGateway.class, budgetRepository);
+        this.groupRepository = CallMetrics.gateway(VersionedRepositoryGateway.class, groupRepository);
+        this.itemRepository = CallMetrics.gateway(RepositoryGatewayI.class, itemRepository);
         this.repositoryGateway = repositoryGateway;
-        this.groupManager = new GroupManager(this.repositoryGateway);
-        this.userManager = new UserManager(this.repositoryGateway);
-        this.expenseManager = new ExpenseManager(this.repositoryGateway);
+        this.groupManager = CallMetrics.manager(new GroupManager(this.repositoryGateway));
+        this.userManager = CallMetrics.manager(new UserManager(this.repositoryGateway));
+        this.expenseManager = CallMetrics.manager(new ExpenseManager(this.repositoryGateway));
         this.currentUserManager = new CurrentUserManager(this.repositoryGateway);
     }
 
@@ -72,8 +74,9 @@ public class Controller {
                 // Login
                 String email = inOut.requestInput("your Email");
                 // set the current user
-                if (userManager.getUser(email) != null) {
-                    this.currentUserManager.setCurrentUser(userManager.getUser(email));
+                User user = userManager.getUser(email);
+                if (user != null) {
+                    this.currentUserManager.setCurrentUser(user);
                     authenticateUser(this.currentUserManager.getCurrentUser() );
                     inOut.sendOutput("Welcome back, " + this.currentUserManager.getCurrentUser() .getName() + "!");
                     dashboard(inOut);
@@ -241,11 +244,11 @@ public class Controller {
         double amount = requestDouble(inOut, "amount borrowed/lent: (0.00)");
         boolean userBorrow = inOut.requestInput("whether you borrowed (b) or paid (p)").equals("b");
         if (userBorrow){
-            u.updateBalance(amount);
+            expenseManager.recordShare(u, amount);
             borrowedSoFar.put(currentUserManager.getCurrentUser(), amount);
         }
         else{
-            u.updateBalance(-amount);
+            expenseManager.recordShare(u, -amount);
             lentSoFar.put(currentUserManager.getCurrentUser(), amount);
         }
 
@@ -289,17 +292,15 @@ public class Controller {
         double amountUsed = requestDouble(inOut, "the amount borrowed/lent: (0.00)");
 
         // If we find the user in the database then update bal
-        if (userManager.getUser(email) != null) {
-            User user = userManager.getUser(email);
-            assert user != null;
-
+        User user = userManager.getUser(email);
+        if (user != null) {
             if (borrowed){
                 borrowedSoFar.put(user, amountUsed);
             }
             else {
                 lentSoFar.put(user, amountUsed);
             }
-            user.updateBalance(amountUsed);
+            expenseManager.recordShare(user, amountUsed);
         }
         // Otherwise, create a stand in person.
         else {
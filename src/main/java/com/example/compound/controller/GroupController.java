@@ -1,9 +1,11 @@
 package com.example.compound.controller;
 
+import com.example.compound.metrics.CallMetrics;
 import com.example.compound.use_cases.*;
 import com.example.compound.use_cases.gateways.RepositoryGateway;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
 import com.example.compound.use_cases.gateways.RepositoryGatewayI;
-import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
 
@@ -14,21 +16,21 @@ public class GroupController {
     private final CurrentGroupManager currentGroupManager;
     private final GroupManager groupManager;
     private final CurrentUserManager currentUserManager;
-    private final RepositoryGatewayI<BudgetTransferData> budgetRepository;
-    private final RepositoryGatewayI<GroupTransferData> groupRepository;
+    private final BudgetRepositoryGateway budgetRepository;
+    private final VersionedRepositoryGateway<GroupTransferData> groupRepository;
     private final RepositoryGatewayI<ItemTransferData> itemRepository;
     private final ExpenseManager expenseManager;
 
     public GroupController(RepositoryGateway repositoryGateway,
-                           RepositoryGatewayI<BudgetTransferData> budgetRepository,
-                           RepositoryGatewayI<GroupTransferData> groupRepository,
+                           BudgetRepositoryGateway budgetRepository,
+                           VersionedRepositoryGateway<GroupTransferData> groupRepository,
                            RepositoryGatewayI<ItemTransferData> itemRepository,
                            CurrentUserManager currentUserManager, ExpenseManager expenseManager) {
         this.budgetRepository = budgetRepository; // TODO: instantiate gateways here or inject dependencies?
         this.groupRepository = groupRepository;
         this.itemRepository = itemRepository;
         this.currentGroupManager = new CurrentGroupManager(repositoryGateway);
-        this.groupManager = new GroupManager(repositoryGateway);
+        this.groupManager = CallMetrics.manager(new GroupManager(repositoryGateway));
         this.currentUserManager = currentUserManager;
         this.expenseManager = expenseManager;
     }
@@ -115,7 +117,7 @@ public class GroupController {
             case 2 -> {
                 List<String> people = addRemovePeople(inOut, "add");
                 for (String p: people) {
-                    GroupManager.addMember(currentGroupManager.getCurrentGroup(), p);
+                    this.groupManager.addMember(currentGroupManager.getCurrentGroup(), p);
                 }
             } // Add people to the group
             case 3 -> {
@@ -132,7 +134,7 @@ public class GroupController {
                 }
                 for (String p: people) {
                     try {
-                        GroupManager.removeMember(currentGroupManager.getCurrentGroup(), p);
+                        this.groupManager.removeMember(currentGroupManager.getCurrentGroup(), p);
                     } catch (Exception ignored) {
                     }
                 }
@@ -140,7 +142,7 @@ public class GroupController {
             case 4 -> inOut.sendOutput(this.groupManager.showGroupMembers(currentGroupManager.getCurrentGroupUID()));
                         //View GroupMembers
             case 5 -> //TODO: Need to update the balance of the current user.
-                    GroupManager.removeMember(currentGroupManager.getCurrentGroup(),
+                    this.groupManager.removeMember(currentGroupManager.getCurrentGroup(),
                             currentUserManager.getCurrentUser().getEmail()); //Leave Group
             case 6 -> //TODO: Need to update the balance of all the users in the group.
                     this.groupManager.removeGroup(currentGroupManager.getCurrentGroupUID()); //Delete Group
@@ -0,0 +1,206 @@
+package com.example.compound.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.PropertyResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs the blocking work of requests, such as queries, off the servlet container's threads. A controller returns the
+ * CompletableFuture given by submit, and Spring MVC releases the request's thread until the future completes, so that
+ * the number of clients that can be served at once is not limited by the size of the servlet thread pool.
+ *
+ * The work is run on virtual threads if the JDK has them, and otherwise on a pool of compound.async.threads threads.
+ * Each endpoint runs at most compound.async.concurrency calls at once, and keeps at most compound.async.queue-capacity
+ * more waiting, without holding a thread for them; any more are rejected with 503 Service Unavailable, so that a slow
+ * database pushes back on clients rather than piling up requests. Both can be set for a single endpoint with
+ * compound.async.endpoint.NAME.concurrency and compound.async.endpoint.NAME.queue-capacity. Rejections are counted in
+ * compound.requests.rejected, tagged with the endpoint.
+ *
+ * If compound.async.enabled is false, calls are run on the request's thread, as if there were no executor, and no
+ * limits apply.
+ */
+@Component
+public class RequestExecutor implements DisposableBean {
+    public static final int DEFAULT_THREADS = 64;
+    public static final int DEFAULT_CONCURRENCY = 32;
+    public static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    private final boolean async;
+    private final int concurrency;
+    private final int queueCapacity;
+    private final PropertyResolver properties;
+    private final MeterRegistry registry;
+    private final ExecutorService executor;
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+    /*
+     * The calls to one endpoint that are running or waiting to run.
+     */
+    private final class Endpoint {
+        final String name;
+        final int concurrency;
+        final int queueCapacity;
+        final Counter rejections;
+        private int running; // Guarded by this
+        private final ArrayDeque<Runnable> waiting = new ArrayDeque<>(); // Guarded by this
+
+        Endpoint(String name, int concurrency, int queueCapacity) {
+            this.name = name;
+            this.concurrency = concurrency;
+            this.queueCapacity = queueCapacity;
+            this.rejections = Counter.builder("compound.requests.rejected").tag("endpoint", name).register(registry);
+        }
+
+        void admit(Runnable call) {
+            synchronized (this) {
+                if (running >= concurrency) {
+                    if (waiting.size() >= queueCapacity) {
+                        rejections.increment();
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                                "Too many requests to " + name + "; try again later");
+                    }
+                    waiting.add(call);
+                    return;
+                }
+                running++;
+            }
+            start(call);
+        }
+
+        void finished() {
+            Runnable next;
+            synchronized (this) {
+                next = waiting.poll();
+                if (next == null) {
+                    running--;
+                    return;
+                }
+            }
+            start(next);
+        }
+    }
+
+    @Autowired
+    public RequestExecutor(Environment environment) {
+        this(environment, Metrics.globalRegistry);
+    }
+
+    /**
+     * Construct an executor configured by the given properties.
+     * @param properties the properties, of which those under compound.async are read
+     * @param registry   the registry in which to count rejected calls
+     */
+    public RequestExecutor(PropertyResolver properties, MeterRegistry registry) {
+        this.async = properties.getProperty("compound.async.enabled", Boolean.class, true);
+        this.concurrency = positive(properties, "compound.async.concurrency", DEFAULT_CONCURRENCY);
+        this.queueCapacity = properties.getProperty("compound.async.queue-capacity", Integer.class,
+                DEFAULT_QUEUE_CAPACITY);
+        this.properties = properties;
+        this.registry = registry;
+        this.executor = async ? newExecutor(positive(properties, "compound.async.threads", DEFAULT_THREADS)) : null;
+    }
+
+    /**
+     * Run the given call for the given endpoint, once fewer than the endpoint's limit of calls are running.
+     * @param endpoint the name of the endpoint
+     * @param call     the call, which may block
+     * @param <T>      the type of the call's result
+     * @return a future of the result of the call, which is completed exceptionally if the call throws
+     * @throws ResponseStatusException with status 503 if the endpoint already has as many calls waiting as it may
+     */
+    public <T> CompletableFuture<T> submit(String endpoint, Supplier<T> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (!async) {
+            try {
+                result.complete(call.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+        Endpoint limits = endpoints.computeIfAbsent(endpoint, this::newEndpoint);
+        limits.admit(() -> {
+            try {
+                result.complete(call.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                limits.finished();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Return whether calls are run off the request's thread.
+     * @return whether calls are run off the request's thread
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private Endpoint newEndpoint(String name) {
+        String prefix = "compound.async.endpoint." + name;
+        return new Endpoint(name, positive(properties, prefix + ".concurrency", concurrency),
+                properties.getProperty(prefix + ".queue-capacity", Integer.class, queueCapacity));
+    }
+
+    private void start(Runnable call) {
+        try {
+            executor.execute(call);
+        } catch (RejectedExecutionException e) {
+            // The executor has been shut down, as when the application is stopping
+            call.run();
+        }
+    }
+
+    private static int positive(PropertyResolver properties, String key, int defaultValue) {
+        int value = properties.getProperty(key, Integer.class, defaultValue);
+        if (value < 1) {
+            throw new IllegalArgumentException(key + " must be positive but was " + value);
+        }
+        return value;
+    }
+
+    /*
+     * Return an executor that runs each task on a new virtual thread if the JDK has them, and otherwise a pool of the
+     * given number of daemon threads.
+     */
+    private static ExecutorService newExecutor(int threads) {
+        try {
+            // Looked up by name, since this is compiled for a release that does not have virtual threads
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, task -> {
+                Thread thread = new Thread(task, "compound-request-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+}
@@ -1,21 +1,33 @@
 package com.example.compound.controller;
 
 //import com.example.compound.api.UserInteractor;
-import com.example.compound.data.Data;
+import com.example.compound.data.ConcurrentData;
 import com.example.compound.entities.User;
 import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.metrics.CallMetrics;
 import com.example.compound.repositories.UserRepository;
-import com.example.compound.repositories.UserRepositoryImpl;
 import com.example.compound.use_cases.ExpenseManager;
 import com.example.compound.use_cases.GroupManager;
 import com.example.compound.use_cases.gateways.RepositoryGateway;
 import com.example.compound.use_cases.UserManager;
+import com.example.compound.use_cases.transfer_data.UserRegistration;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.atomic.AtomicLong;
 
 @RestController
@@ -25,31 +37,102 @@ public class UserController {
     @Autowired
     UserRepository repository;
 
+    @Autowired
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    // Runs the repository calls of the endpoints off the request threads
+    private final RequestExecutor requests;
+
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final int EXPORT_FETCH_SIZE = 500;
+    public static final int MAX_BULK_SIZE = 10000;
     private static final String template = "Hello, %s!";
     private final AtomicLong counter = new AtomicLong();
 
     // TODO: Move to constructor?
-    public final RepositoryGateway repositoryGateway = new Data(); // TODO: Take in as a constructor parameter?
+    // Shared by every request thread, so it must be safe to use concurrently
+    // TODO: Take in as a constructor parameter?
+    public final RepositoryGateway repositoryGateway = new ConcurrentData();
 //        this.repositoryGateway = repositoryGateway;
-    public GroupManager groupManager = new GroupManager(this.repositoryGateway);
-    public final UserManager userManager = new UserManager(this.repositoryGateway);
-    public ExpenseManager expenseManager = new ExpenseManager(this.repositoryGateway);
+    public GroupManager groupManager = CallMetrics.manager(new GroupManager(this.repositoryGateway));
+    public final UserManager userManager = CallMetrics.manager(new UserManager(this.repositoryGateway));
+    public ExpenseManager expenseManager = CallMetrics.manager(new ExpenseManager(this.repositoryGateway));
 
+    /**
+     * API GET path to list users in order of UUID, a page at a time. Each page is found by its position in the index on
+     * uuid, so a page takes the same time to read however far into the table it is.
+     * @param limit  the most users to return, from 1 to MAX_PAGE_SIZE
+     * @param cursor the cursor returned with the previous page, or none for the first page
+     * @return a future of the users, without their passwords, under "users", and the cursor of the next page under
+     *         "next", which is null if there are no more users
+     */
     @GetMapping("/users")
-    List<Map<String, Object>> all() {
-        return new ArrayList<>();
-//        return repository.listAllUsers();
+    public CompletableFuture<Map<String, Object>> all(@RequestParam(value = "limit", defaultValue = "100") int limit,
+                                   @RequestParam(value = "cursor", required = false) String cursor) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "limit must be from 1 to " + MAX_PAGE_SIZE);
+        }
+        int afterUUID = cursor == null ? Integer.MIN_VALUE : parseCursor(cursor);
+        return requests.submit("users.page", () -> {
+            // Read one more user than is returned to find out whether there is a next page
+            List<UserTransferData> users = repository.findPage(afterUUID, limit + 1);
+            String next = null;
+            if (users.size() > limit) {
+                users = users.subList(0, limit);
+                next = Integer.toString(users.get(limit - 1).getUUID());
+            }
+            Map<String, Object> page = new LinkedHashMap<>();
+            page.put("users", users);
+            page.put("next", next);
+            return page;
+        });
     }
 
-    public UserController() {
-        this.repository = new UserRepositoryImpl();
+    private static int parseCursor(String cursor) {
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /**
+     * API GET path to export every user, without their passwords, in order of UUID as newline-delimited JSON. The users
+     * are written as they are read from the database, EXPORT_FETCH_SIZE rows at a time, so exporting the whole table
+     * does not hold it in memory.
+     * @return the users, one JSON object per line
+     */
+    @GetMapping(value = "/users/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody export() {
+        return out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.setRootValueSeparator(null);
+            try {
+                repository.forEachUser(EXPORT_FETCH_SIZE, user -> {
+                    try {
+                        generator.writeObject(user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            generator.flush();
+        };
+    }
+
+    @Autowired
+    public UserController(RequestExecutor requests) {
+        this.requests = requests;
     }
 
     @GetMapping("/users/id/{id}")
-    public User getUserByUuid(@PathVariable int id) {
+    public CompletableFuture<User> getUserByUuid(@PathVariable int id) {
 
 //        try {
-            return repository.findById(id);
+            return requests.submit("users.id", () -> repository.findById(id));
 //        } catch (Exception ignored) { }
 
 //        return new User(id, "Test", "", "", 0.00, "s");
@@ -81,16 +164,60 @@ public class UserController {
      * @return 1 iff user was successfully created, 0 otherwise.
      */
     @PostMapping("/create-new-user")
-    public int createUser(@RequestBody Map<String, Object> request) {
+    public CompletableFuture<Integer> createUser(@RequestBody Map<String, Object> request) {
         String name = (String) request.get("name");
         String email = (String) request.get("email");
         String username = (String) request.get("username");
         String password = (String) request.get("password");
-        try {
-            repository.create(name, email, username, password);
+        return requests.submit("users.create", () -> {
+            try {
+                repository.create(name, email, username, password);
+
+            } catch (Exception ignored) { }
+
+            return 0;
+        });
+    }
 
-        } catch (Exception ignored) { }
+    /**
+     * API POST path to create many users at once. The users are inserted in batches, so creating a thousand users takes
+     * a few round trips to the database rather than a thousand.
+     * @param request the users to create, each with the same fields as for create-new-user; at most MAX_BULK_SIZE
+     * @return a future of, under "results", for each user in the order given, the UUID of the user if it was created
+     *         or the reason it was not, and under "created", the number of users created
+     */
+    @PostMapping("/users/bulk")
+    public CompletableFuture<Map<String, Object>> createUsers(@RequestBody List<Map<String, Object>> request) {
+        if (request.isEmpty() || request.size() > MAX_BULK_SIZE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Between 1 and " + MAX_BULK_SIZE + " users must be given");
+        }
+        List<UserRegistration> users = new ArrayList<>(request.size());
+        for (Map<String, Object> user : request) {
+            users.add(new UserRegistration(field(user, "name"), field(user, "email"), field(user, "username"),
+                    field(user, "password")));
+        }
+        return requests.submit("users.bulk", () -> {
+            int created = repository.createAll(users);
+            List<Map<String, Object>> results = new ArrayList<>(users.size());
+            for (UserRegistration user : users) {
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("uuid", user.getUUID());
+                result.put("error", user.getError());
+                results.add(result);
+            }
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("results", results);
+            response.put("created", created);
+            return response;
+        });
+    }
 
-        return 0;
+    /*
+     * Return the given field of a user in a request body, or null if it is missing or is not a string.
+     */
+    private static String field(Map<String, Object> user, String name) {
+        Object value = user == null ? null : user.get(name);
+        return value instanceof String ? (String) value : null;
     }
 }
@@ -0,0 +1,47 @@
+package com.example.compound.data;
+
+import com.example.compound.use_cases.gateways.UIDAllocator;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * A UIDAllocator for the in-memory repositories, which hands out the UIDs of each kind of entity from an atomic
+ * counter starting at 0. Reserved UIDs are contiguous.
+ */
+public class AtomicUIDAllocator implements UIDAllocator {
+    // The next UID of each kind of entity, indexed by the kind's ordinal
+    private final AtomicIntegerArray counters = new AtomicIntegerArray(Kind.values().length);
+
+    @Override
+    public int next(Kind kind) {
+        return counters.getAndIncrement(kind.ordinal());
+    }
+
+    @Override
+    public int[] reserve(Kind kind, int count) {
+        int first = counters.getAndAdd(kind.ordinal(), count);
+        int[] UIDs = new int[count];
+        for (int i = 0; i < count; i++) {
+            UIDs[i] = first + i;
+        }
+        return UIDs;
+    }
+
+    /**
+     * Return the UID of the given kind that will be handed out next.
+     * @param kind the kind of entity
+     * @return the next UID of the given kind
+     */
+    public int peek(Kind kind) {
+        return counters.get(kind.ordinal());
+    }
+
+    /**
+     * Make sure that the given UID, which was not handed out by this allocator, is never handed out by it.
+     * @param kind the kind of entity
+     * @param UID  a UID that is already in use
+     */
+    public void markUsed(Kind kind, int UID) {
+        counters.accumulateAndGet(kind.ordinal(), UID + 1, Math::max);
+    }
+}
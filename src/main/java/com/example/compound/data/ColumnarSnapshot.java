@@ -0,0 +1,427 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A read-only, memory-mapped export of the users, budgets with their items, and expenses of a repository, stored as
+ * columns rather than as one record per entity, for reports and other tools that read some of a repository's data
+ * without loading the repository.
+ *
+ * It is not a way to restore a repository, and nothing in the application reads it back: groups, the repository's
+ * own items, and the shares of the people who paid and borrowed for each expense are not exported. DurableData's
+ * snapshots, which hold everything, are what a repository is restored from.
+ *
+ * Opening an export maps the file and reads its fixed-size header, so it takes the same time however many entities
+ * the export holds. Amounts, quantities and UIDs are read straight from the mapped columns; a BudgetTransferData and
+ * its ItemTransferData are only built when the budget is asked for. Every distinct string (names, emails, titles and
+ * UIDs) is stored once in a string table, and is decoded the first time it is read and then reused. UIDs and emails
+ * are found by binary search of index columns that list the entities in order of those strings.
+ *
+ * The file starts with a header of HEADER_SIZE bytes holding the magic number, the format VERSION, the number of
+ * strings, users, budgets, items and expenses, and the length of the string data. The columns follow in the order in
+ * which Layout lists them, long columns first so that they are aligned, and the position of each column follows from
+ * the counts in the header. An export is limited to 2GB, the most that can be mapped into one buffer.
+ */
+public final class ColumnarSnapshot {
+    public static final int VERSION = 1;
+
+    private static final int MAGIC = 0x434d5043;
+    private static final int HEADER_SIZE = 40;
+    private static final int NONE = -1; // The string ID of null
+    private static final Comparator<String> ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    private final ByteBuffer buffer;
+    private final Layout layout;
+    private final int userCount;
+    private final int budgetCount;
+    private final int itemCount;
+    private final int expenseCount;
+    private final Map<Integer, String> strings = new ConcurrentHashMap<>();
+
+    /*
+     * The positions of the columns of a snapshot with the given numbers of strings and entities.
+     */
+    private static final class Layout {
+        private long end = HEADER_SIZE;
+        final int userBalance, budgetMaxSpend, itemCost, expenseAmount;
+        final int stringOffsets, userUUID, userName, userEmail, userByEmail;
+        final int budgetBUID, budgetName, budgetFirstItem, budgetItemCount, budgetByBUID;
+        final int itemIUID, itemName, itemQuantity;
+        final int expenseEUID, expenseTitle, expenseByEUID;
+        final int stringData;
+        final int size;
+
+        Layout(int strings, int users, int budgets, int items, int expenses, long stringLength) throws IOException {
+            userBalance = column(8, users);
+            budgetMaxSpend = column(8, budgets);
+            itemCost = column(8, items);
+            expenseAmount = column(8, expenses);
+            stringOffsets = column(4, strings + 1);
+            userUUID = column(4, users);
+            userName = column(4, users);
+            userEmail = column(4, users);
+            userByEmail = column(4, users);
+            budgetBUID = column(4, budgets);
+            budgetName = column(4, budgets);
+            budgetFirstItem = column(4, budgets);
+            budgetItemCount = column(4, budgets);
+            budgetByBUID = column(4, budgets);
+            itemIUID = column(4, items);
+            itemName = column(4, items);
+            itemQuantity = column(4, items);
+            expenseEUID = column(4, expenses);
+            expenseTitle = column(4, expenses);
+            expenseByEUID = column(4, expenses);
+            stringData = column(1, 0);
+            end += stringLength;
+            if (end > Integer.MAX_VALUE) {
+                throw new IOException("A columnar snapshot cannot be larger than 2GB");
+            }
+            size = (int) end;
+        }
+
+        private int column(int width, int count) {
+            int start = (int) end;
+            end += (long) width * count;
+            return start;
+        }
+    }
+
+    private ColumnarSnapshot(ByteBuffer buffer) throws IOException {
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a columnar snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported columnar snapshot version " + buffer.getInt(4));
+        }
+        this.buffer = buffer;
+        this.userCount = buffer.getInt(12);
+        this.budgetCount = buffer.getInt(16);
+        this.itemCount = buffer.getInt(20);
+        this.expenseCount = buffer.getInt(24);
+        this.layout = new Layout(buffer.getInt(8), userCount, budgetCount, itemCount, expenseCount,
+                buffer.getLong(32));
+        if (layout.size != buffer.capacity()) {
+            throw new IOException("Columnar snapshot is " + buffer.capacity() + " bytes but should be " + layout.size);
+        }
+    }
+
+    /**
+     * Map the snapshot in the given file.
+     * @param file the file
+     * @return the snapshot
+     * @throws IOException if the file cannot be read or is not a snapshot of this VERSION
+     */
+    public static ColumnarSnapshot open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return new ColumnarSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write a snapshot of the users, budgets and expenses in the given repository to the given file, replacing it only
+     * once the new snapshot is complete.
+     * @param file the file
+     * @param data the repository
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path file, RepositoryGateway data) throws IOException {
+        List<User> users = data.getUsers();
+        List<Budget> budgets = data.getBudgets();
+        List<Expense> expenses = data.getExpenses();
+        List<Item> items = new ArrayList<>();
+        for (Budget budget : budgets) {
+            items.addAll(budget.viewItems().values());
+        }
+
+        // Give each distinct string an ID, in the order in which the strings are first seen
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> encoded = new ArrayList<>();
+        long[] stringLength = new long[1];
+        StringIds id = s -> {
+            if (s == null) {
+                return NONE;
+            }
+            return ids.computeIfAbsent(s, k -> {
+                byte[] bytes = k.getBytes(StandardCharsets.UTF_8);
+                encoded.add(bytes);
+                stringLength[0] += bytes.length;
+                return encoded.size() - 1;
+            });
+        };
+        int[] userNames = new int[users.size()];
+        int[] userEmails = new int[users.size()];
+        for (int i = 0; i < users.size(); i++) {
+            userNames[i] = id.of(users.get(i).getName());
+            userEmails[i] = id.of(users.get(i).getEmail());
+        }
+        int[] budgetBUIDs = new int[budgets.size()];
+        int[] budgetNames = new int[budgets.size()];
+        for (int i = 0; i < budgets.size(); i++) {
+            budgetBUIDs[i] = id.of(budgets.get(i).getBUID());
+            budgetNames[i] = id.of(budgets.get(i).getName());
+        }
+        int[] itemIUIDs = new int[items.size()];
+        int[] itemNames = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            itemIUIDs[i] = id.of(items.get(i).getIUID());
+            itemNames[i] = id.of(items.get(i).getName());
+        }
+        int[] expenseEUIDs = new int[expenses.size()];
+        int[] expenseTitles = new int[expenses.size()];
+        for (int i = 0; i < expenses.size(); i++) {
+            expenseEUIDs[i] = id.of(expenses.get(i).getEUID());
+            expenseTitles[i] = id.of(expenses.get(i).getTitle());
+        }
+
+        Layout layout = new Layout(encoded.size(), users.size(), budgets.size(), items.size(), expenses.size(),
+                stringLength[0]);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.size);
+            out.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, encoded.size()).putInt(12, users.size())
+                    .putInt(16, budgets.size()).putInt(20, items.size()).putInt(24, expenses.size())
+                    .putLong(32, stringLength[0]);
+
+            int offset = 0;
+            for (int i = 0; i < encoded.size(); i++) {
+                out.putInt(layout.stringOffsets + 4 * i, offset);
+                out.put(layout.stringData + offset, encoded.get(i));
+                offset += encoded.get(i).length;
+            }
+            out.putInt(layout.stringOffsets + 4 * encoded.size(), offset);
+
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                out.putLong(layout.userBalance + 8 * i, user.getBalanceInCents());
+                out.putInt(layout.userUUID + 4 * i, user.getUUID());
+                out.putInt(layout.userName + 4 * i, userNames[i]);
+                out.putInt(layout.userEmail + 4 * i, userEmails[i]);
+            }
+            putIndex(out, layout.userByEmail, users, User::getEmail);
+
+            int firstItem = 0;
+            for (int i = 0; i < budgets.size(); i++) {
+                Budget budget = budgets.get(i);
+                int count = budget.viewItems().size();
+                out.putLong(layout.budgetMaxSpend + 8 * i, budget.getMaxSpendInCents());
+                out.putInt(layout.budgetBUID + 4 * i, budgetBUIDs[i]);
+                out.putInt(layout.budgetName + 4 * i, budgetNames[i]);
+                out.putInt(layout.budgetFirstItem + 4 * i, firstItem);
+                out.putInt(layout.budgetItemCount + 4 * i, count);
+                firstItem += count;
+            }
+            putIndex(out, layout.budgetByBUID, budgets, Budget::getBUID);
+
+            for (int i = 0; i < items.size(); i++) {
+                Item item = items.get(i);
+                out.putLong(layout.itemCost + 8 * i, item.getCostInCents());
+                out.putInt(layout.itemIUID + 4 * i, itemIUIDs[i]);
+                out.putInt(layout.itemName + 4 * i, itemNames[i]);
+                out.putInt(layout.itemQuantity + 4 * i, item.getQuantity());
+            }
+
+            for (int i = 0; i < expenses.size(); i++) {
+                out.putLong(layout.expenseAmount + 8 * i, expenses.get(i).getAmountInCents());
+                out.putInt(layout.expenseEUID + 4 * i, expenseEUIDs[i]);
+                out.putInt(layout.expenseTitle + 4 * i, expenseTitles[i]);
+            }
+            putIndex(out, layout.expenseByEUID, expenses, Expense::getEUID);
+            out.force();
+        }
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private interface StringIds {
+        int of(String s);
+    }
+
+    /*
+     * Write the positions of the given entities in order of the given key.
+     */
+    private static <T> void putIndex(ByteBuffer out, int column, List<T> entities,
+                                     java.util.function.Function<T, String> key) {
+        Integer[] order = new Integer[entities.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (i, j) -> ORDER.compare(key.apply(entities.get(i)), key.apply(entities.get(j))));
+        for (int i = 0; i < order.length; i++) {
+            out.putInt(column + 4 * i, order[i]);
+        }
+    }
+
+    /*
+     * Return the position of an entity whose key is the given string, using an index column written by putIndex, or
+     * -1 if there is none.
+     */
+    private int find(int index, int keys, int count, String key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = buffer.getInt(index + 4 * middle);
+            int comparison = ORDER.compare(string(buffer.getInt(keys + 4 * position)), key);
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private String string(int id) {
+        if (id == NONE) {
+            return null;
+        }
+        return strings.computeIfAbsent(id, this::decode);
+    }
+
+    private String decode(int id) {
+        int start = buffer.getInt(layout.stringOffsets + 4 * id);
+        int end = buffer.getInt(layout.stringOffsets + 4 * (id + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(layout.stringData + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int getUserCount() {
+        return userCount;
+    }
+
+    public int getUserUUID(int user) {
+        return buffer.getInt(layout.userUUID + 4 * Objects.checkIndex(user, userCount));
+    }
+
+    public String getUserName(int user) {
+        return string(buffer.getInt(layout.userName + 4 * Objects.checkIndex(user, userCount)));
+    }
+
+    public String getUserEmail(int user) {
+        return string(buffer.getInt(layout.userEmail + 4 * Objects.checkIndex(user, userCount)));
+    }
+
+    public long getUserBalanceInCents(int user) {
+        return buffer.getLong(layout.userBalance + 8 * Objects.checkIndex(user, userCount));
+    }
+
+    /**
+     * Return the position of the user with the given email.
+     * @param email the email of the user
+     * @return the position of the user, or -1 if there is no such user
+     */
+    public int findUserByEmail(String email) {
+        return find(layout.userByEmail, layout.userEmail, userCount, email);
+    }
+
+    public int getBudgetCount() {
+        return budgetCount;
+    }
+
+    public String getBudgetBUID(int budget) {
+        return string(buffer.getInt(layout.budgetBUID + 4 * Objects.checkIndex(budget, budgetCount)));
+    }
+
+    public long getBudgetMaxSpendInCents(int budget) {
+        return buffer.getLong(layout.budgetMaxSpend + 8 * Objects.checkIndex(budget, budgetCount));
+    }
+
+    /**
+     * Return the total cost of the items in the budget at the given position, read from the item columns without
+     * building any items.
+     * @param budget the position of the budget
+     * @return the total cost of the budget's items in cents
+     */
+    public long getBudgetTotalCostInCents(int budget) {
+        int first = buffer.getInt(layout.budgetFirstItem + 4 * Objects.checkIndex(budget, budgetCount));
+        int count = buffer.getInt(layout.budgetItemCount + 4 * budget);
+        long total = 0;
+        for (int item = first; item < first + count; item++) {
+            total += buffer.getLong(layout.itemCost + 8 * item) * buffer.getInt(layout.itemQuantity + 4 * item);
+        }
+        return total;
+    }
+
+    /**
+     * Return the data of the budget at the given position, with its items, built from the snapshot's columns.
+     * @param budget the position of the budget
+     * @return a new BudgetTransferData
+     */
+    public BudgetTransferData getBudget(int budget) {
+        String BUID = getBudgetBUID(budget);
+        BudgetTransferData data = new BudgetTransferData(BUID, string(buffer.getInt(layout.budgetName + 4 * budget)),
+                Money.ofCents(getBudgetMaxSpendInCents(budget)));
+        int first = buffer.getInt(layout.budgetFirstItem + 4 * budget);
+        int count = buffer.getInt(layout.budgetItemCount + 4 * budget);
+        Map<String, ItemTransferData> items = new HashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+        for (int i = first; i < first + count; i++) {
+            ItemTransferData item = new ItemTransferData(string(buffer.getInt(layout.itemIUID + 4 * i)),
+                    string(buffer.getInt(layout.itemName + 4 * i)),
+                    Money.ofCents(buffer.getLong(layout.itemCost + 8 * i)),
+                    buffer.getInt(layout.itemQuantity + 4 * i));
+            item.setBUID(BUID);
+            items.put(item.getIUID(), item);
+        }
+        data.setBudget(items);
+        return data;
+    }
+
+    /**
+     * Return the data of the budget with the given BUID.
+     * @param BUID the BUID of the budget
+     * @return a new BudgetTransferData, or null if there is no budget with the given BUID
+     */
+    public BudgetTransferData findBudget(String BUID) {
+        int budget = find(layout.budgetByBUID, layout.budgetBUID, budgetCount, BUID);
+        return budget < 0 ? null : getBudget(budget);
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getExpenseCount() {
+        return expenseCount;
+    }
+
+    public String getExpenseEUID(int expense) {
+        return string(buffer.getInt(layout.expenseEUID + 4 * Objects.checkIndex(expense, expenseCount)));
+    }
+
+    public String getExpenseTitle(int expense) {
+        return string(buffer.getInt(layout.expenseTitle + 4 * Objects.checkIndex(expense, expenseCount)));
+    }
+
+    public long getExpenseAmountInCents(int expense) {
+        return buffer.getLong(layout.expenseAmount + 8 * Objects.checkIndex(expense, expenseCount));
+    }
+
+    /**
+     * Return the position of the expense with the given EUID.
+     * @param EUID the EUID of the expense
+     * @return the position of the expense, or -1 if there is no such expense
+     */
+    public int findExpense(String EUID) {
+        return find(layout.expenseByEUID, layout.expenseEUID, expenseCount, EUID);
+    }
+}
@@ -0,0 +1,385 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/*
+An in-memory repository that may be shared by many threads, such as the request threads of the web server. It has the
+same behaviour as IndexedData, which it wraps.
+
+Each kind of entity is guarded by its own read-write lock, so threads working with different kinds of entities never
+wait for each other, and any number of threads may read the same kind of entity at once. Every method of IndexedData
+touches the indexes of only one kind of entity, so each method below takes only one lock. The getX() methods copy the
+entities while holding the read lock, so each listing is a consistent snapshot that later changes do not affect. New
+UIDs are handed out by IndexedData's atomic counters without taking any lock.
+
+Changes made directly to an entity, rather than through this repository, are not guarded by these locks.
+ */
+public class ConcurrentData implements RepositoryGateway {
+    private final IndexedData data = new IndexedData();
+    private final ReadWriteLock users = new ReentrantReadWriteLock();
+    private final ReadWriteLock expenses = new ReentrantReadWriteLock();
+    private final ReadWriteLock groups = new ReentrantReadWriteLock();
+    private final ReadWriteLock budgets = new ReentrantReadWriteLock();
+    private final ReadWriteLock items = new ReentrantReadWriteLock();
+
+    public void initializeData() {
+        Data.addDummyData(this);
+    }
+
+    @Override
+    public void addGroup(Group group) {
+        Lock lock = this.groups.writeLock();
+        lock.lock();
+        try {
+            this.data.addGroup(group);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addExpense(Expense expense) {
+        Lock lock = this.expenses.writeLock();
+        lock.lock();
+        try {
+            this.data.addExpense(expense);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addUser(User user) {
+        Lock lock = this.users.writeLock();
+        lock.lock();
+        try {
+            this.data.addUser(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String addBudget(Budget budget) {
+        Lock lock = this.budgets.writeLock();
+        lock.lock();
+        try {
+            return this.data.addBudget(budget);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String addItem(Item item) {
+        Lock lock = this.items.writeLock();
+        lock.lock();
+        try {
+            return this.data.addItem(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Group> getGroups() {
+        Lock lock = this.groups.readLock();
+        lock.lock();
+        try {
+            return this.data.getGroups();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Expense> getExpenses() {
+        Lock lock = this.expenses.readLock();
+        lock.lock();
+        try {
+            return this.data.getExpenses();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<User> getUsers() {
+        Lock lock = this.users.readLock();
+        lock.lock();
+        try {
+            return this.data.getUsers();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Budget> getBudgets() {
+        Lock lock = this.budgets.readLock();
+        lock.lock();
+        try {
+            return this.data.getBudgets();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Item> getItems() {
+        Lock lock = this.items.readLock();
+        lock.lock();
+        try {
+            return this.data.getItems();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Budget findByBUID(String BUID) {
+        Lock lock = this.budgets.readLock();
+        lock.lock();
+        try {
+            return this.data.findByBUID(BUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Group findByGUID(String GUID) {
+        Lock lock = this.groups.readLock();
+        lock.lock();
+        try {
+            return this.data.findByGUID(GUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Expense findByEUID(String EUID) {
+        Lock lock = this.expenses.readLock();
+        lock.lock();
+        try {
+            return this.data.findByEUID(EUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Expense> findAllByEUIDs(Collection<String> EUIDs) {
+        Lock lock = this.expenses.readLock();
+        lock.lock();
+        try {
+            return this.data.findAllByEUIDs(EUIDs);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public User findByUUID(String UUID) {
+        Lock lock = this.users.readLock();
+        lock.lock();
+        try {
+            return this.data.findByUUID(UUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        Lock lock = this.users.readLock();
+        lock.lock();
+        try {
+            return this.data.findByEmail(email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void changeEmail(User user, String email) {
+        Lock lock = this.users.writeLock();
+        lock.lock();
+        try {
+            this.data.changeEmail(user, email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public List<Group> findGroupsByMember(String email) {
+        Lock lock = this.groups.readLock();
+        lock.lock();
+        try {
+            return this.data.findGroupsByMember(email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void addGroupMember(Group group, String email) {
+        Lock lock = this.groups.writeLock();
+        lock.lock();
+        try {
+            this.data.addGroupMember(group, email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeGroupMember(Group group, String email) {
+        Lock lock = this.groups.writeLock();
+        lock.lock();
+        try {
+            this.data.removeGroupMember(group, email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeGroup(Group group) {
+        Lock lock = this.groups.writeLock();
+        lock.lock();
+        try {
+            this.data.removeGroup(group);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeExpense(Expense expense) {
+        Lock lock = this.expenses.writeLock();
+        lock.lock();
+        try {
+            this.data.removeExpense(expense);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeUser(User user) {
+        Lock lock = this.users.writeLock();
+        lock.lock();
+        try {
+            this.data.removeUser(user);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeBudget(Budget budget) {
+        Lock lock = this.budgets.writeLock();
+        lock.lock();
+        try {
+            this.data.removeBudget(budget);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeBudget(String BUID) {
+        Lock lock = this.budgets.writeLock();
+        lock.lock();
+        try {
+            this.data.removeBudget(BUID);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeItem(Item item) {
+        Lock lock = this.items.writeLock();
+        lock.lock();
+        try {
+            this.data.removeItem(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateGroup(Group group) {
+        Lock lock = this.groups.writeLock();
+        lock.lock();
+        try {
+            this.data.updateGroup(group);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateBudget(Budget budget) {
+        Lock lock = this.budgets.writeLock();
+        lock.lock();
+        try {
+            this.data.updateBudget(budget);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateItem(Item item) {
+        Lock lock = this.items.writeLock();
+        lock.lock();
+        try {
+            this.data.updateItem(item);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int getNewGUID() {
+        return this.data.getNewGUID();
+    }
+
+    @Override
+    public int getNewEUID() {
+        return this.data.getNewEUID();
+    }
+
+    @Override
+    public int getNewUUID() {
+        return this.data.getNewUUID();
+    }
+
+    @Override
+    public int getNewBUID() {
+        return this.data.getNewBUID();
+    }
+
+    @Override
+    public int getNewIUID() {
+        return this.data.getNewIUID();
+    }
+
+    @Override
+    public BalanceLedger getBalanceLedger() {
+        // The ledger synchronizes its own methods
+        return this.data.getBalanceLedger();
+    }
+}
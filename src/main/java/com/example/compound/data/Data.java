@@ -2,6 +2,7 @@ package com.example.compound.data;
 
 import com.example.compound.entities.*;
 import com.example.compound.use_cases.gateways.RepositoryGateway;
+import com.example.compound.use_cases.gateways.UIDAllocator;
 
 import java.util.*;
 
@@ -14,17 +15,24 @@ public class Data implements RepositoryGateway {
     public final List<Group> groups = new ArrayList<>();
     public final List<Budget> budgets = new ArrayList<>();
     public final List<Item> items = new ArrayList<>();
-    private int groupCounter = 0;
-    private int budgetCounter = 0;
-    private int itemCounter = 0;
+    private final AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+    private final BalanceLedger balanceLedger = new BalanceLedger();
 
     public void initializeData() {
+        addDummyData(this);
+    }
+
+    /**
+     * Add the dummy users and groups used by the CLI to the given repository.
+     * @param repositoryGateway the repository to which the dummy data is to be added
+     */
+    static void addDummyData(RepositoryGateway repositoryGateway) {
         // Creating dummy users
-        users.add(new User(0, "Rohan", "rohan.tinna@mail.utoronto.ca", "Rohan", 100.0, "password"));
-        users.add(new User(1, "Johny", "johny@example.com", "Johny", 100.0, "password2"));
+        repositoryGateway.addUser(new User(0, "Rohan", "rohan.tinna@mail.utoronto.ca", "Rohan", 100.0, "password"));
+        repositoryGateway.addUser(new User(1, "Johny", "johny@example.com", "Johny", 100.0, "password2"));
 
         // Creating dummy groups
-        addGroup(
+        repositoryGateway.addGroup(
                 new Group("One Direction", new ArrayList<>() {
                     {
                         add("rohan.tinna@mail.utoronto.ca");
@@ -33,7 +41,7 @@ public class Data implements RepositoryGateway {
                 }, new ArrayList<>(), "")
         ); // Group with 2 users
 
-        addGroup(
+        repositoryGateway.addGroup(
                 new Group("Avengers", new ArrayList<>() {
                     {
                         add("rohan.tinna@mail.utoronto.ca");
@@ -41,7 +49,7 @@ public class Data implements RepositoryGateway {
                 }, new ArrayList<>(), "")
         ); // Group with 1 user
 
-        addGroup(
+        repositoryGateway.addGroup(
                 new Group("Impossible Group", new ArrayList<>(), new ArrayList<>(), "")
         ); // Empty group
     }
@@ -56,9 +64,8 @@ public class Data implements RepositoryGateway {
 
     public void addGroup(Group group) {
         this.groups.add(group);
-        String GUID = Integer.toString(this.groupCounter);
+        String GUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.GROUP));
         group.setGUID(GUID);
-        this.groupCounter++;
     }
 
     public void addExpense(Expense expense) {
@@ -67,22 +74,20 @@ public class Data implements RepositoryGateway {
 
     public void addUser(User user) {
         this.users.add(user);
+        this.uidAllocator.markUsed(UIDAllocator.Kind.USER, user.getUUID());
     }
 
     public String addBudget(Budget budget) {
         this.budgets.add(budget);
-        String BUID = Integer.toString(this.budgetCounter);
+        String BUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.BUDGET));
         budget.setBUID(BUID);
-        this.budgetCounter++;
-        System.out.println(budget.getName());
         return BUID;
     }
 
     public String addItem(Item item) {
         this.items.add(item);
-        String IUID = Integer.toString(this.itemCounter);
+        String IUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.ITEM));
         item.setIUID(IUID);
-        this.itemCounter++;
         return IUID;
     }
 
@@ -165,7 +170,7 @@ public class Data implements RepositoryGateway {
         for (Budget b : budgets) {
             if (b.getBUID().equals(budget.getBUID())) {
                 budgets.remove(b);
-                budgets.add(b);
+                budgets.add(budget);
                 return;
             }
         }
@@ -188,23 +193,28 @@ public class Data implements RepositoryGateway {
     }
 
     public int getNewGUID() {
-        return this.groupCounter;
+        return this.uidAllocator.next(UIDAllocator.Kind.GROUP);
     }
 
     public int getNewEUID() {
-        return expenses.size();
+        return this.uidAllocator.next(UIDAllocator.Kind.EXPENSE);
     }
 
     public int getNewUUID() {
-        return users.size();
+        return this.uidAllocator.next(UIDAllocator.Kind.USER);
     }
 
     public int getNewBUID() {
-        return this.budgetCounter;
+        return this.uidAllocator.next(UIDAllocator.Kind.BUDGET);
     }
 
     public int getNewIUID() {
-        return this.itemCounter;
+        return this.uidAllocator.next(UIDAllocator.Kind.ITEM);
+    }
+
+    @Override
+    public BalanceLedger getBalanceLedger() {
+        return this.balanceLedger;
     }
 
     @Override
@@ -216,4 +226,70 @@ public class Data implements RepositoryGateway {
         }
         return null;
     }
+
+    @Override
+    public Expense findByEUID(String EUID) {
+        for (Expense e : expenses) {
+            if (e.getEUID().equals(EUID)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<Expense> findAllByEUIDs(Collection<String> EUIDs) {
+        // A single pass over the expenses, rather than one for each EUID
+        Set<String> wanted = new HashSet<>(EUIDs);
+        Map<String, Expense> byEUID = new HashMap<>();
+        for (Expense e : expenses) {
+            if (wanted.contains(e.getEUID())) {
+                byEUID.putIfAbsent(e.getEUID(), e);
+            }
+        }
+        List<Expense> found = new ArrayList<>(EUIDs.size());
+        for (String EUID : EUIDs) {
+            Expense e = byEUID.get(EUID);
+            if (e != null) {
+                found.add(e);
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        for (User u : users) {
+            if (u.getEmail().equals(email)) {
+                return u;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void changeEmail(User user, String email) {
+        user.setEmail(email);
+    }
+
+    @Override
+    public List<Group> findGroupsByMember(String email) {
+        List<Group> memberGroups = new ArrayList<>();
+        for (Group g : groups) {
+            if (g.getGroupMembers().contains(email)) {
+                memberGroups.add(g);
+            }
+        }
+        return memberGroups;
+    }
+
+    @Override
+    public void addGroupMember(Group group, String email) {
+        group.getGroupMembers().add(email);
+    }
+
+    @Override
+    public void removeGroupMember(Group group, String email) {
+        group.getGroupMembers().remove(email);
+    }
 }
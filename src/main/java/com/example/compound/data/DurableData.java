@@ -0,0 +1,668 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import com.example.compound.use_cases.gateways.UIDAllocator;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/*
+An in-memory repository that keeps its entities across restarts without a database. It has the same behaviour as
+IndexedData, which it wraps, and reads are served from memory.
+
+Every add, remove and update call, and every change recorded in the balance ledger, is appended to a write-ahead log as
+a compact binary record before the call returns. Records are forced to disk by group commit (see WriteAheadLog), so
+threads writing at once share an fsync. Add, remove and update calls wait for their record to be on disk before they
+return. A change to a balance is appended while the ledger is locked but not waited for then, so the ledger is not held
+for an fsync; it is on disk once the thread that made it calls awaitBalances or makes any other write. Every
+SNAPSHOT_INTERVAL records, and when the repository is closed, every entity is written to a new snapshot and a new, empty
+log is started; opening the repository reads the snapshot and then replays the log written after it, discarding any
+record torn by a crash.
+
+The files in the repository's directory are:
+- snapshot: the entities when the snapshot was taken, and the generation of the log that follows it
+- wal-<generation>: the records written since that snapshot
+
+A snapshot is written to snapshot.tmp and renamed over the old one only once it is on disk, and the log it replaces is
+deleted only after that, so a crash at any point leaves a snapshot and a log that together hold every committed record.
+
+Changes made directly to an entity, rather than through this repository or the balance ledger (for example, adding an
+expense to a Group or a User), are kept by the next snapshot but not logged before then. The history of the balance
+ledger is not kept in snapshots, only the balances it produced.
+ */
+public class DurableData implements RepositoryGateway, Closeable {
+    public static final int SNAPSHOT_INTERVAL = 10_000;
+
+    private static final int SNAPSHOT_MAGIC = 0x434d5053;
+    private static final String SNAPSHOT = "snapshot";
+    private static final String SNAPSHOT_TEMP = "snapshot.tmp";
+    private static final String LOG_PREFIX = "wal-";
+
+    // The kinds of record, each written as the first byte of the record
+    private static final byte ADD_USER = 1;
+    private static final byte ADD_EXPENSE = 2;
+    private static final byte ADD_GROUP = 3;
+    private static final byte ADD_BUDGET = 4;
+    private static final byte ADD_ITEM = 5;
+    private static final byte REMOVE_USER = 6;
+    private static final byte REMOVE_EXPENSE = 7;
+    private static final byte REMOVE_GROUP = 8;
+    private static final byte REMOVE_BUDGET = 9;
+    private static final byte REMOVE_BUDGETS = 10;
+    private static final byte REMOVE_ITEM = 11;
+    private static final byte UPDATE_GROUP = 12;
+    private static final byte UPDATE_BUDGET = 13;
+    private static final byte UPDATE_ITEM = 14;
+    private static final byte CHANGE_EMAIL = 15;
+    private static final byte ADD_GROUP_MEMBER = 16;
+    private static final byte REMOVE_GROUP_MEMBER = 17;
+    private static final byte BALANCE = 18;
+
+    private final Path directory;
+    private final int snapshotInterval;
+    private final IndexedData data = new IndexedData();
+    private final BalanceLedger ledger = data.getBalanceLedger();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // The log and its generation change only when a snapshot is taken, while holding the write lock
+    private WriteAheadLog log;
+    private long generation;
+    private volatile long recordsSinceSnapshot;
+    // The last balance record appended by each thread that has not yet waited for it
+    private final ThreadLocal<Appended> appendedBalance = new ThreadLocal<>();
+
+    /*
+     * A record appended to a log, which is on disk once the log is durable up to its sequence number.
+     */
+    private static final class Appended {
+        final WriteAheadLog log;
+        final long sequence;
+
+        Appended(WriteAheadLog log, long sequence) {
+            this.log = log;
+            this.sequence = sequence;
+        }
+    }
+
+    /*
+     * Writes the body of a record.
+     */
+    private interface RecordWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private DurableData(Path directory, int snapshotInterval) {
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+    }
+
+    /**
+     * Open the repository stored in the given directory, creating the directory if it does not exist.
+     * @param directory the directory
+     * @return the repository, holding every entity committed to it before it was last closed or the program stopped
+     * @throws IOException if the repository cannot be read
+     */
+    public static DurableData open(Path directory) throws IOException {
+        return open(directory, SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Open the repository stored in the given directory, taking a snapshot after the given number of records.
+     * @param directory        the directory
+     * @param snapshotInterval the number of records to log between snapshots
+     * @return the repository
+     * @throws IOException if the repository cannot be read
+     */
+    static DurableData open(Path directory, int snapshotInterval) throws IOException {
+        DurableData durableData = new DurableData(directory, snapshotInterval);
+        durableData.load();
+        return durableData;
+    }
+
+    private void load() throws IOException {
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_TEMP));
+        Path snapshot = directory.resolve(SNAPSHOT);
+        if (Files.exists(snapshot)) {
+            ByteBuffer contents = ByteBuffer.wrap(Files.readAllBytes(snapshot));
+            if (contents.remaining() < 12 || contents.getInt() != SNAPSHOT_MAGIC) {
+                throw new IOException(snapshot + " is not a snapshot");
+            }
+            generation = contents.getLong();
+            for (UIDAllocator.Kind kind : UIDAllocator.Kind.values()) {
+                data.markUsed(kind, contents.getInt() - 1);
+            }
+            WriteAheadLog.readRecords(contents, this::apply);
+            if (contents.hasRemaining()) {
+                throw new IOException(snapshot + " is corrupt");
+            }
+        }
+        recordsSinceSnapshot = WriteAheadLog.replay(logFile(generation), this::apply);
+        try (DirectoryStream<Path> logs = Files.newDirectoryStream(directory, LOG_PREFIX + "*")) {
+            for (Path file : logs) {
+                if (!file.equals(logFile(generation))) {
+                    // A log replaced by a snapshot before a crash
+                    Files.delete(file);
+                }
+            }
+        }
+        log = new WriteAheadLog(logFile(generation));
+        // Only changes made after loading are logged
+        ledger.addListener(this::balanceChanged);
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve(LOG_PREFIX + generation);
+    }
+
+    /*
+     * Apply a record read from a snapshot or the log.
+     */
+    private void apply(ByteBuffer in) {
+        byte kind = in.get();
+        switch (kind) {
+            case ADD_USER -> data.addUser(EntityCodec.readUser(in));
+            case ADD_EXPENSE -> data.restoreExpense(EntityCodec.readExpense(in, data::findByEmail));
+            case ADD_GROUP -> data.restoreGroup(EntityCodec.readGroup(in, data));
+            case ADD_BUDGET -> data.restoreBudget(EntityCodec.readBudget(in));
+            case ADD_ITEM -> data.restoreItem(EntityCodec.readItem(in));
+            case REMOVE_USER -> {
+                int UUID = in.getInt();
+                User user = data.findByEmail(EntityCodec.readString(in));
+                if (user != null && user.getUUID() == UUID) {
+                    data.removeUser(user);
+                }
+            }
+            case REMOVE_EXPENSE -> {
+                Expense expense = data.findByEUID(EntityCodec.readString(in));
+                if (expense != null) {
+                    data.removeExpense(expense);
+                }
+            }
+            case REMOVE_GROUP -> {
+                Group group = data.findByGUID(EntityCodec.readString(in));
+                if (group != null) {
+                    data.removeGroup(group);
+                }
+            }
+            case REMOVE_BUDGET -> {
+                Budget budget = data.findByBUID(EntityCodec.readString(in));
+                if (budget != null) {
+                    data.removeBudget(budget);
+                }
+            }
+            case REMOVE_BUDGETS -> data.removeBudget(EntityCodec.readString(in));
+            case REMOVE_ITEM -> {
+                Item item = data.findByIUID(EntityCodec.readString(in));
+                if (item != null) {
+                    data.removeItem(item);
+                }
+            }
+            case UPDATE_GROUP -> data.updateGroup(EntityCodec.readGroup(in, data));
+            case UPDATE_BUDGET -> data.updateBudget(EntityCodec.readBudget(in));
+            case UPDATE_ITEM -> data.updateItem(EntityCodec.readItem(in));
+            case CHANGE_EMAIL -> {
+                User user = data.findByEmail(EntityCodec.readString(in));
+                String email = EntityCodec.readString(in);
+                if (user != null) {
+                    data.changeEmail(user, email);
+                }
+            }
+            case ADD_GROUP_MEMBER, REMOVE_GROUP_MEMBER -> {
+                Group group = data.findByGUID(EntityCodec.readString(in));
+                String email = EntityCodec.readString(in);
+                if (group != null && kind == ADD_GROUP_MEMBER) {
+                    data.addGroupMember(group, email);
+                } else if (group != null) {
+                    data.removeGroupMember(group, email);
+                }
+            }
+            case BALANCE -> {
+                int UUID = in.getInt();
+                Money amount = Money.ofCents(in.getLong());
+                BalanceEvent.Reason reason = BalanceEvent.Reason.values()[in.get()];
+                String EUID = EntityCodec.readString(in);
+                User user = data.findByUUID(Integer.toString(UUID));
+                if (user != null) {
+                    ledger.record(user, amount, reason, EUID);
+                }
+            }
+            default -> throw new IllegalStateException("Unknown record kind " + kind);
+        }
+    }
+
+    private static byte[] encode(byte kind, RecordWriter body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeByte(kind);
+            body.write(out);
+        } catch (IOException e) {
+            // Writing to a ByteArrayOutputStream does not throw
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /*
+     * Make the given change and log the given record, then wait for the record to be on disk.
+     */
+    private <T> T write(Supplier<T> change, byte kind, RecordWriter body) {
+        T result;
+        Appended appended;
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            result = change.get();
+            appended = append(kind, body);
+        } finally {
+            writeLock.unlock();
+        }
+        // Any balance record this thread appended is before this one, or in a log a snapshot has since replaced
+        appendedBalance.remove();
+        awaitDurable(appended);
+        return result;
+    }
+
+    /*
+     * Append the given record to the log. The caller holds the write lock or the ledger's lock.
+     */
+    private Appended append(byte kind, RecordWriter body) {
+        Appended appended = new Appended(log, log.append(encode(kind, body)));
+        recordsSinceSnapshot++;
+        return appended;
+    }
+
+    /*
+     * Wait for the given record to be on disk, then take a snapshot if one is due.
+     */
+    private void awaitDurable(Appended appended) {
+        try {
+            // A log replaced by a snapshot was flushed first, so this returns at once for it
+            appended.log.awaitDurable(appended.sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (recordsSinceSnapshot >= snapshotInterval) {
+            try {
+                snapshot(true);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void write(Runnable change, byte kind, RecordWriter body) {
+        write(() -> {
+            change.run();
+            return null;
+        }, kind, body);
+    }
+
+    /*
+     * Append a change recorded in the balance ledger to the log. This is called while the ledger is locked, so that a
+     * snapshot, which also locks the ledger, never holds a balance whose change is then logged again after it; the
+     * record is waited for in awaitBalances, once the ledger has been unlocked.
+     */
+    private void balanceChanged(BalanceEvent event) {
+        Lock writeLock = lock.writeLock();
+        writeLock.lock();
+        try {
+            appendedBalance.set(append(BALANCE, out -> {
+                out.writeInt(event.getUUID());
+                out.writeLong(event.getCents());
+                out.writeByte(event.getReason().ordinal());
+                EntityCodec.writeString(out, event.getEUID());
+            }));
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    @Override
+    public void awaitBalances() {
+        Appended appended = appendedBalance.get();
+        if (appended != null) {
+            appendedBalance.remove();
+            awaitDurable(appended);
+        }
+    }
+
+    /**
+     * Write every entity to a new snapshot and start a new, empty log.
+     * @throws IOException if the snapshot cannot be written
+     */
+    public void snapshot() throws IOException {
+        snapshot(false);
+    }
+
+    private void snapshot(boolean onlyIfDue) throws IOException {
+        synchronized (ledger) {
+            Lock writeLock = lock.writeLock();
+            writeLock.lock();
+            try {
+                // Another thread may have taken the snapshot that was due
+                if (onlyIfDue && recordsSinceSnapshot < snapshotInterval) {
+                    return;
+                }
+                log.flush();
+                long next = generation + 1;
+                writeSnapshot(next);
+                WriteAheadLog old = log;
+                log = new WriteAheadLog(logFile(next));
+                old.close();
+                Files.deleteIfExists(logFile(generation));
+                generation = next;
+                recordsSinceSnapshot = 0;
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void writeSnapshot(long nextGeneration) throws IOException {
+        Path temp = directory.resolve(SNAPSHOT_TEMP);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16)) {
+            DataOutputStream header = new DataOutputStream(out);
+            header.writeInt(SNAPSHOT_MAGIC);
+            header.writeLong(nextGeneration);
+            for (UIDAllocator.Kind kind : UIDAllocator.Kind.values()) {
+                header.writeInt(data.peekUID(kind));
+            }
+            ByteArrayOutputStream framed = new ByteArrayOutputStream();
+            // Users come first, since expenses and groups refer to them, and groups last, since they refer to the rest
+            for (User user : data.getUsers()) {
+                writeFramed(out, framed, encode(ADD_USER, o -> EntityCodec.writeUser(o, user)));
+            }
+            for (Expense expense : data.getExpenses()) {
+                writeFramed(out, framed, encode(ADD_EXPENSE, o -> EntityCodec.writeExpense(o, expense)));
+            }
+            for (Budget budget : data.getBudgets()) {
+                writeFramed(out, framed, encode(ADD_BUDGET, o -> EntityCodec.writeBudget(o, budget)));
+            }
+            for (Item item : data.getItems()) {
+                writeFramed(out, framed, encode(ADD_ITEM, o -> EntityCodec.writeItem(o, item)));
+            }
+            for (Group group : data.getGroups()) {
+                writeFramed(out, framed, encode(ADD_GROUP, o -> EntityCodec.writeGroup(o, group)));
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, directory.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+    }
+
+    private static void writeFramed(OutputStream out, ByteArrayOutputStream framed, byte[] record)
+            throws IOException {
+        framed.reset();
+        WriteAheadLog.frame(record, framed);
+        framed.writeTo(out);
+    }
+
+    /*
+     * Make the rename of the snapshot durable. Not every platform can open a directory to force it, in which case the
+     * rename becomes durable when the operating system next writes the directory.
+     */
+    private void forceDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * Take a snapshot and close the log.
+     * @throws IOException if the snapshot cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        snapshot();
+        log.close();
+    }
+
+    public void initializeData() {
+        Data.addDummyData(this);
+    }
+
+    /**
+     * Return whether this repository holds no entities, as when it is opened in a new directory.
+     * @return whether this repository holds no entities
+     */
+    public boolean isEmpty() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return data.getUsers().isEmpty() && data.getExpenses().isEmpty() && data.getGroups().isEmpty()
+                    && data.getBudgets().isEmpty() && data.getItems().isEmpty();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Return the number of times the log has been forced to disk since this repository was opened, not counting
+     * snapshots.
+     * @return the number of times the log has been forced to disk
+     */
+    long getSyncCount() {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return log.getSyncCount();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private <T> T read(Supplier<T> query) {
+        Lock readLock = lock.readLock();
+        readLock.lock();
+        try {
+            return query.get();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    @Override
+    public void addGroup(Group group) {
+        write(() -> data.addGroup(group), ADD_GROUP, out -> EntityCodec.writeGroup(out, group));
+    }
+
+    @Override
+    public void addExpense(Expense expense) {
+        write(() -> data.addExpense(expense), ADD_EXPENSE, out -> EntityCodec.writeExpense(out, expense));
+    }
+
+    @Override
+    public void addUser(User user) {
+        write(() -> data.addUser(user), ADD_USER, out -> EntityCodec.writeUser(out, user));
+    }
+
+    @Override
+    public String addBudget(Budget budget) {
+        return write(() -> data.addBudget(budget), ADD_BUDGET, out -> EntityCodec.writeBudget(out, budget));
+    }
+
+    @Override
+    public String addItem(Item item) {
+        return write(() -> data.addItem(item), ADD_ITEM, out -> EntityCodec.writeItem(out, item));
+    }
+
+    @Override
+    public List<Group> getGroups() {
+        return read(data::getGroups);
+    }
+
+    @Override
+    public List<Expense> getExpenses() {
+        return read(data::getExpenses);
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return read(data::getUsers);
+    }
+
+    @Override
+    public List<Budget> getBudgets() {
+        return read(data::getBudgets);
+    }
+
+    @Override
+    public List<Item> getItems() {
+        return read(data::getItems);
+    }
+
+    @Override
+    public Budget findByBUID(String BUID) {
+        return read(() -> data.findByBUID(BUID));
+    }
+
+    @Override
+    public Group findByGUID(String GUID) {
+        return read(() -> data.findByGUID(GUID));
+    }
+
+    @Override
+    public Expense findByEUID(String EUID) {
+        return read(() -> data.findByEUID(EUID));
+    }
+
+    @Override
+    public List<Expense> findAllByEUIDs(Collection<String> EUIDs) {
+        return read(() -> data.findAllByEUIDs(EUIDs));
+    }
+
+    @Override
+    public void removeGroup(Group group) {
+        write(() -> data.removeGroup(group), REMOVE_GROUP, out -> EntityCodec.writeString(out, group.getGUID()));
+    }
+
+    @Override
+    public void removeExpense(Expense expense) {
+        write(() -> data.removeExpense(expense), REMOVE_EXPENSE,
+                out -> EntityCodec.writeString(out, expense.getEUID()));
+    }
+
+    @Override
+    public void removeUser(User user) {
+        write(() -> data.removeUser(user), REMOVE_USER, out -> {
+            out.writeInt(user.getUUID());
+            EntityCodec.writeString(out, user.getEmail());
+        });
+    }
+
+    @Override
+    public void removeBudget(Budget budget) {
+        write(() -> data.removeBudget(budget), REMOVE_BUDGET, out -> EntityCodec.writeString(out, budget.getBUID()));
+    }
+
+    @Override
+    public void removeItem(Item item) {
+        write(() -> data.removeItem(item), REMOVE_ITEM, out -> EntityCodec.writeString(out, item.getIUID()));
+    }
+
+    @Override
+    public void removeBudget(String BUID) {
+        write(() -> data.removeBudget(BUID), REMOVE_BUDGETS, out -> EntityCodec.writeString(out, BUID));
+    }
+
+    @Override
+    public void updateGroup(Group group) {
+        write(() -> data.updateGroup(group), UPDATE_GROUP, out -> EntityCodec.writeGroup(out, group));
+    }
+
+    @Override
+    public void updateBudget(Budget budget) {
+        write(() -> data.updateBudget(budget), UPDATE_BUDGET, out -> EntityCodec.writeBudget(out, budget));
+    }
+
+    @Override
+    public void updateItem(Item item) {
+        write(() -> data.updateItem(item), UPDATE_ITEM, out -> EntityCodec.writeItem(out, item));
+    }
+
+    @Override
+    public int getNewGUID() {
+        return data.getNewGUID();
+    }
+
+    @Override
+    public int getNewEUID() {
+        return data.getNewEUID();
+    }
+
+    @Override
+    public int getNewUUID() {
+        return data.getNewUUID();
+    }
+
+    @Override
+    public int getNewBUID() {
+        return data.getNewBUID();
+    }
+
+    @Override
+    public int getNewIUID() {
+        return data.getNewIUID();
+    }
+
+    @Override
+    public User findByUUID(String UUID) {
+        return read(() -> data.findByUUID(UUID));
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return read(() -> data.findByEmail(email));
+    }
+
+    @Override
+    public void changeEmail(User user, String email) {
+        String oldEmail = user.getEmail();
+        write(() -> data.changeEmail(user, email), CHANGE_EMAIL, out -> {
+            EntityCodec.writeString(out, oldEmail);
+            EntityCodec.writeString(out, email);
+        });
+    }
+
+    @Override
+    public List<Group> findGroupsByMember(String email) {
+        return read(() -> data.findGroupsByMember(email));
+    }
+
+    @Override
+    public void addGroupMember(Group group, String email) {
+        write(() -> data.addGroupMember(group, email), ADD_GROUP_MEMBER, out -> {
+            EntityCodec.writeString(out, group.getGUID());
+            EntityCodec.writeString(out, email);
+        });
+    }
+
+    @Override
+    public void removeGroupMember(Group group, String email) {
+        write(() -> data.removeGroupMember(group, email), REMOVE_GROUP_MEMBER, out -> {
+            EntityCodec.writeString(out, group.getGUID());
+            EntityCodec.writeString(out, email);
+        });
+    }
+
+    @Override
+    public BalanceLedger getBalanceLedger() {
+        return ledger;
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Writes entities to, and reads them from, the compact binary records used by DurableData. Amounts are written as
+ * longs of cents and strings as a length followed by UTF-8 bytes, with a length of -1 for null.
+ *
+ * Expenses and budgets are written in full wherever they appear, including inside groups. When a group is read, each
+ * of its expenses and budgets is replaced by the repository's entity with the same UID if there is one, so that the
+ * group and the repository share entities as they did before they were written.
+ */
+final class EntityCodec {
+    private EntityCodec() {
+    }
+
+    static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeInt(user.getUUID());
+        writeString(out, user.getName());
+        writeString(out, user.getEmail());
+        writeString(out, user.getUsername());
+        out.writeLong(user.getBalanceInCents());
+        writeString(out, user.getPassword());
+        List<String> expenses = user.getExpenses();
+        out.writeInt(expenses.size());
+        for (String EUID : expenses) {
+            writeString(out, EUID);
+        }
+    }
+
+    static User readUser(ByteBuffer in) {
+        int UUID = in.getInt();
+        String name = readString(in);
+        String email = readString(in);
+        String username = readString(in);
+        Money balance = Money.ofCents(in.getLong());
+        String password = readString(in);
+        User user = new User(UUID, name, email, username, balance, password);
+        int expenses = in.getInt();
+        for (int i = 0; i < expenses; i++) {
+            user.getExpenses().add(readString(in));
+        }
+        return user;
+    }
+
+    static void writeExpense(DataOutputStream out, Expense expense) throws IOException {
+        writeString(out, expense.getEUID());
+        writeString(out, expense.getTitle());
+        out.writeLong(expense.getAmountInCents());
+        writeShares(out, expense.getWhoPaid());
+        writeShares(out, expense.getWhoBorrowed());
+    }
+
+    private static void writeShares(DataOutputStream out, Map<Person, Double> shares) throws IOException {
+        out.writeInt(shares.size());
+        for (Map.Entry<Person, Double> entry : shares.entrySet()) {
+            Person person = entry.getKey();
+            writeString(out, person.getName());
+            writeString(out, person.getEmail());
+            out.writeLong(person.getBalanceInCents());
+            out.writeLong(Money.toCents(entry.getValue()));
+        }
+    }
+
+    /**
+     * Read an expense, without changing anyone's balance.
+     * @param in    the record
+     * @param users a function returning the user with the given email, or null if there is none; people who are not
+     *              users are read as new Persons
+     * @return the expense
+     */
+    static Expense readExpense(ByteBuffer in, Function<String, User> users) {
+        String EUID = readString(in);
+        String title = readString(in);
+        Money amount = Money.ofCents(in.getLong());
+        // A person who both paid and borrowed is read as one Person
+        Map<String, Person> people = new HashMap<>();
+        Map<Person, Money> whoPaid = readShares(in, users, people);
+        Map<Person, Money> whoBorrowed = readShares(in, users, people);
+        return Expense.restore(EUID, title, amount, whoPaid, whoBorrowed);
+    }
+
+    private static Map<Person, Money> readShares(ByteBuffer in, Function<String, User> users,
+                                                 Map<String, Person> people) {
+        int count = in.getInt();
+        Map<Person, Money> shares = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String name = readString(in);
+            String email = readString(in);
+            Money balance = Money.ofCents(in.getLong());
+            Money share = Money.ofCents(in.getLong());
+            Person person = people.get(email);
+            if (person == null) {
+                person = users.apply(email);
+                if (person == null) {
+                    person = new Person(name, balance, email);
+                }
+                people.put(email, person);
+            }
+            shares.put(person, share);
+        }
+        return shares;
+    }
+
+    static void writeItem(DataOutputStream out, Item item) throws IOException {
+        writeString(out, item.getIUID());
+        writeString(out, item.getName());
+        out.writeLong(item.getCostInCents());
+        out.writeInt(item.getQuantity());
+    }
+
+    static Item readItem(ByteBuffer in) {
+        String IUID = readString(in);
+        String name = readString(in);
+        Money cost = Money.ofCents(in.getLong());
+        return new Item(IUID, name, cost, in.getInt());
+    }
+
+    static void writeBudget(DataOutputStream out, Budget budget) throws IOException {
+        writeString(out, budget.getBUID());
+        writeString(out, budget.getName());
+        out.writeLong(budget.getMaxSpendInCents());
+        Map<String, Item> items = budget.viewItems();
+        out.writeInt(items.size());
+        for (Item item : items.values()) {
+            writeItem(out, item);
+        }
+    }
+
+    static Budget readBudget(ByteBuffer in) {
+        String BUID = readString(in);
+        String name = readString(in);
+        Money maxSpend = Money.ofCents(in.getLong());
+        int count = in.getInt();
+        Map<String, Item> items = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            Item item = readItem(in);
+            items.put(item.getIUID(), item);
+        }
+        return new Budget(BUID, name, maxSpend, items);
+    }
+
+    static void writeGroup(DataOutputStream out, Group group) throws IOException {
+        writeString(out, group.getGUID());
+        writeString(out, group.getGroupName());
+        writeString(out, group.getDescription());
+        out.writeInt(group.getGroupMembers().size());
+        for (String email : group.getGroupMembers()) {
+            writeString(out, email);
+        }
+        out.writeInt(group.getExpenseList().size());
+        for (Expense expense : group.getExpenseList()) {
+            writeExpense(out, expense);
+        }
+        out.writeInt(group.getBudgets().size());
+        for (Budget budget : group.getBudgets()) {
+            writeBudget(out, budget);
+        }
+    }
+
+    /**
+     * Read a group, sharing the repository's expenses and budgets where it has them.
+     * @param in   the record
+     * @param data the repository, used to find users, expenses and budgets
+     * @return the group
+     */
+    static Group readGroup(ByteBuffer in, RepositoryGateway data) {
+        String GUID = readString(in);
+        String name = readString(in);
+        String description = readString(in);
+        int memberCount = in.getInt();
+        List<String> members = new ArrayList<>(memberCount);
+        for (int i = 0; i < memberCount; i++) {
+            members.add(readString(in));
+        }
+        int expenseCount = in.getInt();
+        List<Expense> expenses = new ArrayList<>(expenseCount);
+        for (int i = 0; i < expenseCount; i++) {
+            Expense expense = readExpense(in, data::findByEmail);
+            Expense shared = data.findByEUID(expense.getEUID());
+            expenses.add(shared == null ? expense : shared);
+        }
+        Group group = new Group(name, members, expenses, description);
+        group.setGUID(GUID);
+        int budgetCount = in.getInt();
+        for (int i = 0; i < budgetCount; i++) {
+            Budget budget = readBudget(in);
+            Budget shared = data.findByBUID(budget.getBUID());
+            group.addBudget(shared == null ? budget : shared);
+        }
+        return group;
+    }
+}
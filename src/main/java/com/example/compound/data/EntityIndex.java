@@ -0,0 +1,114 @@
+package com.example.compound.data;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * An insertion-ordered collection of entities with a hash index from each entity's UID to the entity.
+ *
+ * Entities are compared by identity, since the entities in this program do not override equals. More than one entity
+ * may share a UID (for example, Users created without a UUID); in that case lookups return the earliest-added entity
+ * with that UID, which is what a linear scan of a list would return.
+ *
+ * @param <T> the type of entity stored
+ */
+class EntityIndex<T> {
+    private final Function<T, String> uidOf;
+    private final Set<T> entities = new LinkedHashSet<>();
+    private final KeyIndex<T> byUID = new KeyIndex<>();
+
+    /**
+     * Construct a new, empty index.
+     * @param uidOf a function returning the UID of an entity
+     */
+    EntityIndex(Function<T, String> uidOf) {
+        this.uidOf = uidOf;
+    }
+
+    /**
+     * Add the given entity to the end of this index.
+     * @param entity the entity to be added
+     * @return whether the entity was added, which is false if it was already in this index
+     */
+    boolean add(T entity) {
+        if (!entities.add(entity)) {
+            return false;
+        }
+        byUID.add(uidOf.apply(entity), entity);
+        return true;
+    }
+
+    /**
+     * Return the earliest-added entity with the given UID.
+     * @param UID the UID of the entity
+     * @return the earliest-added entity with the given UID, or null if there is no such entity
+     */
+    T find(String UID) {
+        return byUID.find(UID);
+    }
+
+    /**
+     * Return whether the given entity is in this index.
+     * @param entity the entity
+     * @return whether the given entity is in this index
+     */
+    boolean contains(T entity) {
+        return entities.contains(entity);
+    }
+
+    /**
+     * Remove the given entity from this index.
+     * @param entity the entity to be removed
+     * @return whether the given entity was removed
+     */
+    boolean remove(T entity) {
+        if (!entities.remove(entity)) {
+            return false;
+        }
+        byUID.remove(uidOf.apply(entity), entity);
+        return true;
+    }
+
+    /**
+     * Remove every entity with the given UID from this index.
+     * @param UID the UID of the entities to be removed
+     * @return the removed entities, which is empty if there were none
+     */
+    List<T> removeAll(String UID) {
+        List<T> removed = byUID.removeAll(UID);
+        entities.removeAll(removed);
+        return removed;
+    }
+
+    /**
+     * Replace the earliest-added entity that has the same UID as the given entity with the given entity. As with
+     * removing the old entity and adding the new one, the new entity moves to the end of this index.
+     * @param entity the replacement entity
+     * @return the replaced entity, or null if there was no entity with the same UID
+     */
+    T replace(T entity) {
+        T old = byUID.find(uidOf.apply(entity));
+        if (old == null) {
+            return null;
+        }
+        remove(old);
+        add(entity);
+        return old;
+    }
+
+    /**
+     * Return the number of entities in this index.
+     * @return the number of entities in this index
+     */
+    int size() {
+        return entities.size();
+    }
+
+    /**
+     * Return a snapshot of the entities in this index, in insertion order.
+     * @return a new list containing the entities in this index
+     */
+    List<T> toList() {
+        return new ArrayList<>(entities);
+    }
+}
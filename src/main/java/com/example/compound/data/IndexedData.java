@@ -0,0 +1,319 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import com.example.compound.use_cases.gateways.UIDAllocator;
+
+import java.util.*;
+
+/*
+An in-memory repository with the same behaviour as Data, but which stores each kind of entity in a hash index keyed by
+UID instead of a list. Lookups, updates and removals by UID take constant time rather than a scan of every entity.
+
+The getX() methods return a snapshot of the entities in insertion order, so callers may remove entities while
+iterating over the returned list.
+ */
+public class IndexedData implements RepositoryGateway {
+    private final EntityIndex<User> users = new EntityIndex<>(user -> String.valueOf(user.getUUID()));
+    private final KeyIndex<User> usersByEmail = new KeyIndex<>();
+    private final EntityIndex<Expense> expenses = new EntityIndex<>(Expense::getEUID);
+    private final EntityIndex<Group> groups = new EntityIndex<>(Group::getGUID);
+    // Maps the email of each group member to the GUIDs of the groups they are in, in the order in which they joined
+    private final Map<String, Set<String>> groupsByMember = new HashMap<>();
+    private final EntityIndex<Budget> budgets = new EntityIndex<>(Budget::getBUID);
+    private final EntityIndex<Item> items = new EntityIndex<>(Item::getIUID);
+    private final AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+    private final BalanceLedger balanceLedger = new BalanceLedger();
+
+    public void initializeData() {
+        Data.addDummyData(this);
+    }
+
+    @Override
+    public void addGroup(Group group) {
+        String GUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.GROUP));
+        group.setGUID(GUID);
+        if (this.groups.add(group)) {
+            indexMembers(group);
+        }
+    }
+
+    @Override
+    public void addExpense(Expense expense) {
+        this.expenses.add(expense);
+    }
+
+    @Override
+    public void addUser(User user) {
+        if (this.users.add(user)) {
+            this.usersByEmail.add(user.getEmail(), user);
+            this.uidAllocator.markUsed(UIDAllocator.Kind.USER, user.getUUID());
+        }
+    }
+
+    @Override
+    public String addBudget(Budget budget) {
+        String BUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.BUDGET));
+        budget.setBUID(BUID);
+        this.budgets.add(budget);
+        return BUID;
+    }
+
+    @Override
+    public String addItem(Item item) {
+        String IUID = Integer.toString(this.uidAllocator.next(UIDAllocator.Kind.ITEM));
+        item.setIUID(IUID);
+        this.items.add(item);
+        return IUID;
+    }
+
+    // The restoreX methods add an entity read from storage, keeping the UID it already has; see DurableData
+
+    void restoreGroup(Group group) {
+        if (this.groups.add(group)) {
+            indexMembers(group);
+            markUsed(UIDAllocator.Kind.GROUP, group.getGUID());
+        }
+    }
+
+    void restoreExpense(Expense expense) {
+        addExpense(expense);
+        markUsed(UIDAllocator.Kind.EXPENSE, expense.getEUID());
+    }
+
+    void restoreBudget(Budget budget) {
+        this.budgets.add(budget);
+        markUsed(UIDAllocator.Kind.BUDGET, budget.getBUID());
+    }
+
+    void restoreItem(Item item) {
+        this.items.add(item);
+        markUsed(UIDAllocator.Kind.ITEM, item.getIUID());
+    }
+
+    void markUsed(UIDAllocator.Kind kind, String UID) {
+        try {
+            this.uidAllocator.markUsed(kind, Integer.parseInt(UID));
+        } catch (NumberFormatException ignored) {
+            // UIDs that are not numbers were not handed out by the allocator
+        }
+    }
+
+    void markUsed(UIDAllocator.Kind kind, int UID) {
+        this.uidAllocator.markUsed(kind, UID);
+    }
+
+    int peekUID(UIDAllocator.Kind kind) {
+        return this.uidAllocator.peek(kind);
+    }
+
+    @Override
+    public List<Group> getGroups() {
+        return this.groups.toList();
+    }
+
+    @Override
+    public List<Expense> getExpenses() {
+        return this.expenses.toList();
+    }
+
+    @Override
+    public List<User> getUsers() {
+        return this.users.toList();
+    }
+
+    @Override
+    public List<Budget> getBudgets() {
+        return this.budgets.toList();
+    }
+
+    @Override
+    public List<Item> getItems() {
+        return this.items.toList();
+    }
+
+    @Override
+    public Budget findByBUID(String BUID) {
+        return this.budgets.find(BUID);
+    }
+
+    @Override
+    public Group findByGUID(String GUID) {
+        return this.groups.find(GUID);
+    }
+
+    @Override
+    public Expense findByEUID(String EUID) {
+        return this.expenses.find(EUID);
+    }
+
+    @Override
+    public List<Expense> findAllByEUIDs(Collection<String> EUIDs) {
+        List<Expense> found = new ArrayList<>(EUIDs.size());
+        for (String EUID : EUIDs) {
+            Expense expense = this.expenses.find(EUID);
+            if (expense != null) {
+                found.add(expense);
+            }
+        }
+        return found;
+    }
+
+    // Items are only looked up by IUID when replaying a log, so this is not part of RepositoryGateway
+    Item findByIUID(String IUID) {
+        return this.items.find(IUID);
+    }
+
+    @Override
+    public User findByUUID(String UUID) {
+        return this.users.find(UUID);
+    }
+
+    @Override
+    public User findByEmail(String email) {
+        return this.usersByEmail.find(email);
+    }
+
+    @Override
+    public void changeEmail(User user, String email) {
+        if (this.users.contains(user)) {
+            this.usersByEmail.remove(user.getEmail(), user);
+            user.setEmail(email);
+            this.usersByEmail.add(email, user);
+        } else {
+            user.setEmail(email);
+        }
+    }
+
+    @Override
+    public List<Group> findGroupsByMember(String email) {
+        Set<String> GUIDs = this.groupsByMember.get(email);
+        if (GUIDs == null) {
+            return new ArrayList<>();
+        }
+        List<Group> memberGroups = new ArrayList<>(GUIDs.size());
+        for (String GUID : GUIDs) {
+            memberGroups.add(this.groups.find(GUID));
+        }
+        return memberGroups;
+    }
+
+    @Override
+    public void addGroupMember(Group group, String email) {
+        if (group.getGroupMembers().add(email) && this.groups.contains(group)) {
+            this.groupsByMember.computeIfAbsent(email, k -> new LinkedHashSet<>()).add(group.getGUID());
+        }
+    }
+
+    @Override
+    public void removeGroupMember(Group group, String email) {
+        if (group.getGroupMembers().remove(email) && this.groups.contains(group)) {
+            unindexMember(email, group.getGUID());
+        }
+    }
+
+    private void indexMembers(Group group) {
+        for (String email : group.getGroupMembers()) {
+            this.groupsByMember.computeIfAbsent(email, k -> new LinkedHashSet<>()).add(group.getGUID());
+        }
+    }
+
+    private void unindexMembers(Group group) {
+        for (String email : group.getGroupMembers()) {
+            unindexMember(email, group.getGUID());
+        }
+    }
+
+    private void unindexMember(String email, String GUID) {
+        Set<String> GUIDs = this.groupsByMember.get(email);
+        if (GUIDs != null) {
+            GUIDs.remove(GUID);
+            if (GUIDs.isEmpty()) {
+                this.groupsByMember.remove(email);
+            }
+        }
+    }
+
+    @Override
+    public void removeGroup(Group group) {
+        if (this.groups.remove(group)) {
+            unindexMembers(group);
+        }
+    }
+
+    @Override
+    public void removeExpense(Expense expense) {
+        this.expenses.remove(expense);
+    }
+
+    @Override
+    public void removeUser(User user) {
+        if (this.users.remove(user)) {
+            this.usersByEmail.remove(user.getEmail(), user);
+        }
+    }
+
+    @Override
+    public void removeBudget(Budget budget) {
+        this.budgets.remove(budget);
+    }
+
+    @Override
+    public void removeBudget(String BUID) {
+        this.budgets.removeAll(BUID);
+    }
+
+    @Override
+    public void removeItem(Item item) {
+        this.items.remove(item);
+    }
+
+    @Override
+    public void updateGroup(Group group) {
+        Group old = this.groups.replace(group);
+        if (old != null) {
+            unindexMembers(old);
+            indexMembers(group);
+        }
+    }
+
+    @Override
+    public void updateBudget(Budget budget) {
+        this.budgets.replace(budget);
+    }
+
+    @Override
+    public void updateItem(Item item) {
+        this.items.replace(item);
+    }
+
+    @Override
+    public int getNewGUID() {
+        return this.uidAllocator.next(UIDAllocator.Kind.GROUP);
+    }
+
+    @Override
+    public int getNewEUID() {
+        return this.uidAllocator.next(UIDAllocator.Kind.EXPENSE);
+    }
+
+    @Override
+    public int getNewUUID() {
+        return this.uidAllocator.next(UIDAllocator.Kind.USER);
+    }
+
+    @Override
+    public int getNewBUID() {
+        return this.uidAllocator.next(UIDAllocator.Kind.BUDGET);
+    }
+
+    @Override
+    public int getNewIUID() {
+        return this.uidAllocator.next(UIDAllocator.Kind.ITEM);
+    }
+
+    @Override
+    public BalanceLedger getBalanceLedger() {
+        return this.balanceLedger;
+    }
+}
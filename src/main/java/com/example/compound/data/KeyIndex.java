@@ -0,0 +1,83 @@
+package com.example.compound.data;
+
+import java.util.*;
+
+/**
+ * A hash index from a key (such as a UID or an email) to the entities that have that key.
+ *
+ * More than one entity may share a key; in that case lookups return the entity that was added to this index earliest,
+ * which is what a linear scan of a list would return.
+ *
+ * @param <T> the type of entity indexed
+ */
+class KeyIndex<T> {
+    private final Map<String, T> first = new HashMap<>();
+    // Entities whose key is already taken by an earlier entity, in insertion order. Normally empty.
+    private final Map<String, Deque<T>> shadowed = new HashMap<>();
+
+    /**
+     * Index the given entity under the given key.
+     * @param key    the key
+     * @param entity the entity
+     */
+    void add(String key, T entity) {
+        if (first.putIfAbsent(key, entity) != null) {
+            shadowed.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(entity);
+        }
+    }
+
+    /**
+     * Return the earliest-indexed entity with the given key.
+     * @param key the key
+     * @return the earliest-indexed entity with the given key, or null if there is no such entity
+     */
+    T find(String key) {
+        return first.get(key);
+    }
+
+    /**
+     * Stop indexing the given entity under the given key.
+     * @param key    the key under which the entity was indexed
+     * @param entity the entity
+     */
+    void remove(String key, T entity) {
+        if (first.get(key) == entity) {
+            Deque<T> next = shadowed.get(key);
+            if (next == null) {
+                first.remove(key);
+            } else {
+                first.put(key, next.removeFirst());
+                if (next.isEmpty()) {
+                    shadowed.remove(key);
+                }
+            }
+        } else {
+            Deque<T> others = shadowed.get(key);
+            if (others != null) {
+                others.remove(entity);
+                if (others.isEmpty()) {
+                    shadowed.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop indexing every entity with the given key.
+     * @param key the key
+     * @return the entities that were indexed under the given key, which is empty if there were none
+     */
+    List<T> removeAll(String key) {
+        T head = first.remove(key);
+        if (head == null) {
+            return Collections.emptyList();
+        }
+        List<T> removed = new ArrayList<>();
+        removed.add(head);
+        Deque<T> others = shadowed.remove(key);
+        if (others != null) {
+            removed.addAll(others);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.compound.data;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of records, each framed by its length and a CRC32 of its contents so that a record torn by a
+ * crash is detected and discarded when the file is read.
+ *
+ * Records are made durable by group commit. append only buffers a record and returns its sequence number; awaitDurable
+ * then blocks until the record has been forced to disk. The first waiting thread writes and forces every buffered
+ * record at once while the threads that append after it wait, so many threads writing at once share one fsync.
+ */
+class WriteAheadLog implements Closeable {
+    // The length and the CRC32 of each record's contents
+    static final int HEADER_SIZE = 8;
+    // The number of bytes read at a time when the log is replayed
+    static final int CHUNK_SIZE = 1 << 20;
+
+    private final FileChannel channel;
+    private final Object lock = new Object();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream();
+    private long appended; // The number of records appended
+    private long durable; // The number of records forced to disk
+    private boolean syncing; // Whether a thread is writing and forcing records
+    private IOException failure; // The error that stopped records being written, after which none are written
+    private long syncs;
+
+    /**
+     * Open the log in the given file for appending, creating the file if it does not exist.
+     * @param file the file
+     * @throws IOException if the file cannot be opened
+     */
+    WriteAheadLog(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Buffer the given record, to be written when a thread next waits for it to be durable.
+     * @param record the record's contents
+     * @return the sequence number of the record, starting at 1
+     */
+    long append(byte[] record) {
+        synchronized (lock) {
+            frame(record, pending);
+            return ++appended;
+        }
+    }
+
+    /**
+     * Write the given record, with its length and CRC32, to the given stream.
+     * @param record the record's contents
+     * @param out    the stream
+     */
+    static void frame(byte[] record, ByteArrayOutputStream out) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(record.length).putInt((int) crc.getValue());
+        out.write(header.array(), 0, HEADER_SIZE);
+        out.write(record, 0, record.length);
+    }
+
+    /**
+     * Block until the record with the given sequence number, and every record before it, has been forced to disk.
+     * @param sequence the sequence number of the record
+     * @throws IOException if the records could not be written, now or by an earlier call
+     */
+    void awaitDurable(long sequence) throws IOException {
+        byte[] batch;
+        long batchEnd;
+        synchronized (lock) {
+            while (durable < sequence && syncing && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while waiting for the log to be written", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            if (durable >= sequence) {
+                return;
+            }
+            // Write every buffered record, including those of threads that are waiting behind this one
+            syncing = true;
+            batch = pending.toByteArray();
+            pending.reset();
+            batchEnd = appended;
+        }
+        IOException error = null;
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        }
+        synchronized (lock) {
+            syncing = false;
+            syncs++;
+            if (error == null) {
+                durable = batchEnd;
+            } else {
+                failure = error;
+            }
+            lock.notifyAll();
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Block until every record appended so far has been forced to disk.
+     * @throws IOException if the records could not be written
+     */
+    void flush() throws IOException {
+        long last;
+        synchronized (lock) {
+            last = appended;
+        }
+        awaitDurable(last);
+    }
+
+    /**
+     * Return the number of records appended to this log since it was opened.
+     * @return the number of records appended
+     */
+    long size() {
+        synchronized (lock) {
+            return appended;
+        }
+    }
+
+    /**
+     * Return the number of times records have been forced to disk, which is less than the number of records when
+     * records are committed in groups.
+     * @return the number of times records have been forced to disk
+     */
+    long getSyncCount() {
+        synchronized (lock) {
+            return syncs;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Pass the contents of each whole record in the given file to the given action, in order, and cut off anything
+     * after the last whole record, such as a record torn by a crash. Does nothing if the file does not exist.
+     *
+     * The file is read CHUNK_SIZE bytes at a time, so replaying a large log takes memory in proportion to its largest
+     * record rather than to the whole file. Each record passed to the action is only valid until the action returns.
+     * @param file   the file
+     * @param action the action to be performed for each record
+     * @return the number of records read
+     * @throws IOException if the file cannot be read
+     */
+    static long replay(Path file, Consumer<ByteBuffer> action) throws IOException {
+        return replay(file, action, CHUNK_SIZE);
+    }
+
+    /**
+     * Replay the records in the given file as replay(file, action) does, reading the given number of bytes at a time.
+     */
+    static long replay(Path file, Consumer<ByteBuffer> action, int chunkSize) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long whole = 0; // The offset of the end of the last whole record
+            long count = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+            while (true) {
+                boolean end = false;
+                while (buffer.hasRemaining() && !end) {
+                    end = in.read(buffer) < 0;
+                }
+                buffer.flip();
+                count += readRecords(buffer, action);
+                whole += buffer.position();
+                if (end || whole == size) {
+                    break;
+                }
+                // readRecords stopped at a record that is not all in the buffer, or that is torn or corrupt
+                if (buffer.remaining() >= HEADER_SIZE) {
+                    int length = buffer.getInt(buffer.position());
+                    boolean torn = length < 0 || length > size - whole - HEADER_SIZE;
+                    if (torn || length <= buffer.remaining() - HEADER_SIZE) {
+                        break;
+                    }
+                    if (HEADER_SIZE + length > buffer.capacity()) {
+                        ByteBuffer larger = ByteBuffer.allocate(HEADER_SIZE + length);
+                        larger.put(buffer);
+                        buffer = larger;
+                        continue;
+                    }
+                }
+                buffer.compact();
+            }
+            if (whole < size) {
+                in.truncate(whole);
+                in.force(true);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Pass the contents of each whole record in the given buffer to the given action, leaving the buffer's position
+     * after the last whole record.
+     * @param contents the framed records
+     * @param action   the action to be performed for each record
+     * @return the number of records read
+     */
+    static long readRecords(ByteBuffer contents, Consumer<ByteBuffer> action) {
+        long count = 0;
+        CRC32 crc = new CRC32();
+        while (contents.remaining() >= HEADER_SIZE) {
+            int start = contents.position();
+            int length = contents.getInt(start);
+            int checksum = contents.getInt(start + 4);
+            if (length < 0 || length > contents.remaining() - HEADER_SIZE) {
+                break;
+            }
+            ByteBuffer record = contents.duplicate();
+            record.position(start + HEADER_SIZE).limit(start + HEADER_SIZE + length);
+            crc.reset();
+            crc.update(record.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+            action.accept(record.slice());
+            contents.position(start + HEADER_SIZE + length);
+            count++;
+        }
+        return count;
+    }
+}
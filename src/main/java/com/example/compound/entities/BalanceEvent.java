@@ -0,0 +1,94 @@
+package com.example.compound.entities;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * One change to a user's balance, as recorded in a BalanceLedger. Events are immutable and are never removed from
+ * the ledger, so a user's balance at any point is the sum of the changes recorded for them up to that point.
+ */
+public final class BalanceEvent {
+    /**
+     * Why a balance changed.
+     */
+    public enum Reason {
+        // The person's balance when they were first recorded in the ledger
+        OPENING,
+        // The person paid towards an expense
+        EXPENSE_PAID,
+        // The person's share of an expense was entered by hand
+        EXPENSE_SHARE,
+        // The person paid off part of an expense they borrowed or lent for
+        DEBT_PAYMENT
+    }
+
+    private final int sequence;
+    private final Instant time;
+    private final int UUID;
+    private final long cents;
+    private final Reason reason;
+    private final String EUID;
+
+    /**
+     * Construct a new event.
+     * @param sequence the position of the event in its ledger, starting at 0
+     * @param time     when the event was recorded
+     * @param UUID     the UUID of the user whose balance changed
+     * @param cents    the change to the person's balance in cents
+     * @param reason   why the balance changed
+     * @param EUID     the EUID of the expense the change is for, or null if it is not for an expense
+     */
+    public BalanceEvent(int sequence, Instant time, int UUID, long cents, Reason reason, String EUID) {
+        this.sequence = sequence;
+        this.time = time;
+        this.UUID = UUID;
+        this.cents = cents;
+        this.reason = reason;
+        this.EUID = EUID;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public Instant getTime() {
+        return time;
+    }
+
+    public int getUUID() {
+        return UUID;
+    }
+
+    public long getCents() {
+        return cents;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public String getEUID() {
+        return EUID;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BalanceEvent)) {
+            return false;
+        }
+        BalanceEvent other = (BalanceEvent) o;
+        return sequence == other.sequence && cents == other.cents && time.equals(other.time)
+                && UUID == other.UUID && reason == other.reason && Objects.equals(EUID, other.EUID);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(sequence, time, UUID, cents, reason, EUID);
+    }
+
+    @Override
+    public String toString() {
+        return sequence + " " + time + " " + UUID + " " + Money.ofCents(cents) + " " + reason
+                + (EUID == null ? "" : " " + EUID);
+    }
+}
@@ -0,0 +1,256 @@
+package com.example.compound.entities;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of the changes to users' balances, with a view of each user's current balance.
+ *
+ * Every change is recorded as a BalanceEvent and applied both to the view and to the User, so the view is updated in
+ * constant time per event and a user's balance always equals the sum of their events. The first time a user's balance
+ * changes, an OPENING event records the balance they already had. Balances are keyed by UUID, so a user's history stays
+ * under one key when they change their email. Only a Person with an account has a history: a Person without one has no
+ * UUID and is not kept by the repositories (see Expense).
+ *
+ * Every CHECKPOINT_INTERVAL events, the balances that changed since the last checkpoint are kept as a checkpoint, so
+ * checkpoints take space in proportion to the people whose balances change rather than to everyone in the ledger. A
+ * balance at an earlier point in the log is found by starting at the user's last checkpoint before that point and
+ * replaying fewer than CHECKPOINT_INTERVAL events, rather than the whole log.
+ *
+ * All methods are synchronized, so a ledger can be shared by the threads of a web server. Listeners are told about each
+ * recorded change while the ledger is still locked, so they are told about changes in the order they were made.
+ */
+public class BalanceLedger {
+    public static final int CHECKPOINT_INTERVAL = 1024;
+
+    private final Clock clock;
+    private final List<BalanceEvent> events = new ArrayList<>();
+    // The view: balances[indexOf.get(UUID)] is the current balance of the user with that UUID, in cents
+    private final Map<Integer, Integer> indexOf = new HashMap<>();
+    private long[] balances = new long[16];
+    // checkpoints.get(i) holds the checkpointed balances of the user with index i, indexed as balances is
+    private final List<Checkpoints> checkpoints = new ArrayList<>();
+    // The indexes of the users whose balances changed since the last checkpoint
+    private final Set<Integer> changed = new HashSet<>();
+    private final List<Consumer<BalanceEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct a new, empty ledger whose events are timed by the system clock.
+     */
+    public BalanceLedger() {
+        this(Clock.systemUTC());
+    }
+
+    /**
+     * Construct a new, empty ledger whose events are timed by the given clock.
+     * @param clock the clock
+     */
+    public BalanceLedger(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Construct a ledger holding the given events, rebuilding the view and the checkpoints from them.
+     * @param clock  the clock used to time new events
+     * @param events the events, in order of their sequence numbers
+     * @throws IllegalArgumentException if the events are not numbered 0, 1, 2, ... or are out of order in time
+     */
+    public BalanceLedger(Clock clock, List<BalanceEvent> events) {
+        this(clock);
+        for (BalanceEvent event : events) {
+            if (event.getSequence() != this.events.size()) {
+                throw new IllegalArgumentException("Expected event " + this.events.size() + " but found "
+                        + event.getSequence());
+            }
+            if (!this.events.isEmpty() && event.getTime().isBefore(lastTime())) {
+                throw new IllegalArgumentException("Event " + event.getSequence() + " is earlier than the event before it");
+            }
+            append(event);
+        }
+    }
+
+    /**
+     * Record a change to the given user's balance and apply it to the user.
+     * @param user   the user whose balance changes
+     * @param amount the change to the user's balance
+     * @param reason why the balance changes
+     * @param EUID   the EUID of the expense the change is for, or null if it is not for an expense
+     * @return the recorded event
+     */
+    public synchronized BalanceEvent record(User user, Money amount, BalanceEvent.Reason reason, String EUID) {
+        int UUID = user.getUUID();
+        if (!indexOf.containsKey(UUID) && user.balance != 0) {
+            append(newEvent(UUID, user.balance, BalanceEvent.Reason.OPENING, null));
+        }
+        BalanceEvent event = newEvent(UUID, amount.getCents(), reason, EUID);
+        append(event);
+        user.balance += event.getCents();
+        for (Consumer<BalanceEvent> listener : listeners) {
+            listener.accept(event);
+        }
+        return event;
+    }
+
+    /**
+     * Tell the given listener about every change recorded from now on, other than the OPENING events, which follow
+     * from the balance of the User whose balance changes.
+     * @param listener the listener
+     */
+    public void addListener(Consumer<BalanceEvent> listener) {
+        listeners.add(listener);
+    }
+
+    private BalanceEvent newEvent(int UUID, long cents, BalanceEvent.Reason reason, String EUID) {
+        // Keep times in order even if the clock goes backwards, so that events can be found by time
+        Instant time = clock.instant();
+        if (!events.isEmpty() && time.isBefore(lastTime())) {
+            time = lastTime();
+        }
+        return new BalanceEvent(events.size(), time, UUID, cents, reason, EUID);
+    }
+
+    private Instant lastTime() {
+        return events.get(events.size() - 1).getTime();
+    }
+
+    private void append(BalanceEvent event) {
+        events.add(event);
+        Integer index = indexOf.get(event.getUUID());
+        if (index == null) {
+            index = indexOf.size();
+            indexOf.put(event.getUUID(), index);
+            if (index == balances.length) {
+                balances = Arrays.copyOf(balances, balances.length * 2);
+            }
+            checkpoints.add(new Checkpoints());
+        }
+        balances[index] += event.getCents();
+        changed.add(index);
+        if (events.size() % CHECKPOINT_INTERVAL == 0) {
+            int checkpoint = events.size() / CHECKPOINT_INTERVAL;
+            for (int i : changed) {
+                checkpoints.get(i).add(checkpoint, balances[i]);
+            }
+            changed.clear();
+        }
+    }
+
+    /*
+     * The balances of one user at the checkpoints at which their balance had changed since the checkpoint before.
+     */
+    private static final class Checkpoints {
+        private int[] checkpoints = new int[4];
+        private long[] balances = new long[4];
+        private int size;
+
+        void add(int checkpoint, long balance) {
+            if (size == checkpoints.length) {
+                checkpoints = Arrays.copyOf(checkpoints, size * 2);
+                balances = Arrays.copyOf(balances, size * 2);
+            }
+            checkpoints[size] = checkpoint;
+            balances[size] = balance;
+            size++;
+        }
+
+        // Return the balance at the given checkpoint, which is the one kept at the last checkpoint at or before it
+        long at(int checkpoint) {
+            int found = Arrays.binarySearch(checkpoints, 0, size, checkpoint);
+            if (found < 0) {
+                found = -found - 2;
+            }
+            return found < 0 ? 0 : balances[found];
+        }
+    }
+
+    /**
+     * Return the current balance of the user with the given UUID.
+     * @param UUID the UUID of the user
+     * @return the user's balance in cents, or 0 if no change to it has been recorded
+     */
+    public synchronized long getBalanceInCents(int UUID) {
+        Integer index = indexOf.get(UUID);
+        return index == null ? 0 : balances[index];
+    }
+
+    /**
+     * Return the balance of the user with the given UUID after the first given number of events.
+     * @param UUID  the UUID of the user
+     * @param count the number of events
+     * @return the user's balance in cents after the first count events
+     * @throws IndexOutOfBoundsException if count is negative or greater than the number of events
+     */
+    public synchronized long getBalanceInCentsAfter(int UUID, int count) {
+        if (count < 0 || count > events.size()) {
+            throw new IndexOutOfBoundsException("No balance after " + count + " of " + events.size() + " events");
+        }
+        Integer index = indexOf.get(UUID);
+        if (index == null) {
+            return 0;
+        }
+        int checkpoint = count / CHECKPOINT_INTERVAL;
+        long balance = checkpoints.get(index).at(checkpoint);
+        for (int i = checkpoint * CHECKPOINT_INTERVAL; i < count; i++) {
+            BalanceEvent event = events.get(i);
+            if (event.getUUID() == UUID) {
+                balance += event.getCents();
+            }
+        }
+        return balance;
+    }
+
+    /**
+     * Return the balance of the user with the given UUID at the given time.
+     * @param UUID the UUID of the user
+     * @param time the time
+     * @return the user's balance in cents after every event recorded at or before the given time
+     */
+    public synchronized long getBalanceInCentsAt(int UUID, Instant time) {
+        // Find the number of events at or before the given time; event times never decrease
+        int low = 0;
+        int high = events.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (events.get(middle).getTime().isAfter(time)) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return getBalanceInCentsAfter(UUID, low);
+    }
+
+    /**
+     * Recompute the view and the checkpoints from the log.
+     */
+    public synchronized void rebuild() {
+        List<BalanceEvent> log = new ArrayList<>(events);
+        events.clear();
+        indexOf.clear();
+        balances = new long[16];
+        checkpoints.clear();
+        changed.clear();
+        for (BalanceEvent event : log) {
+            append(event);
+        }
+    }
+
+    /**
+     * Return a snapshot of the events in this ledger, in the order they were recorded.
+     * @return a new list containing the events in this ledger
+     */
+    public synchronized List<BalanceEvent> getEvents() {
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Return the number of events in this ledger.
+     * @return the number of events in this ledger
+     */
+    public synchronized int size() {
+        return events.size();
+    }
+}
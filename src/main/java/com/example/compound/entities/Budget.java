@@ -9,12 +9,32 @@ import java.util.*;
  * A budget tracking the items a user is willing to buy in a certain area of their life, along with those items' costs.
  *
  * A budget has a limit on the amount on money that can be spent on items in the budget.
+ *
+ * The total cost of the items in a budget is kept up to date as items are added, removed and changed, rather than
+ * being recomputed whenever it is needed. Items are indexed by name as well as by UID, and no two items in a budget
+ * may have the same name.
+ *
+ * Amounts are stored in cents (see Money), so the running total is exact however many changes are made to it.
+ *
+ * A budget constrains the items in it as their ItemConstraintListener, so checking a change to an item neither
+ * allocates nor throws. It still accepts PropertyChangeEvents through vetoableChange.
+ *
+ * A budget loaded in bulk from already-validated data does not listen to its items until they are handed out by
+ * getItemByIUID, getItemByName, changeQuantity or getItems, since an item cannot be changed before then.
  */
-public class Budget implements VetoableChangeListener {
+public class Budget implements ItemConstraintListener, VetoableChangeListener {
+    private static final VetoableChangeResponseStrategy COST_STRATEGY = new CostVetoableChangeResponseStrategy();
+    private static final VetoableChangeResponseStrategy QUANTITY_STRATEGY =
+            new QuantityVetoableChangeResponseStrategy();
+
     private String BUID;
     private String name;
-    private double maxSpend;
+    private long maxSpend;
     private final Map<String, Item> budget;
+    private final Map<String, Item> itemsByName;
+    private long totalCost;
+    // Whether every item in this budget is known to have this budget as a constraint listener
+    private boolean itemsObserved;
 
     /**
      * Construct a new budget with the given limit on spending.
@@ -22,10 +42,46 @@ public class Budget implements VetoableChangeListener {
      * @param maxSpend the maximum amount of money that can be spent on items in this budget in timeSpan days
      */
     public Budget(String BUID, String name, double maxSpend) {
+        this(BUID, name, Money.of(maxSpend));
+    }
+
+    /**
+     * Construct a new budget with the given limit on spending.
+     *
+     * @param maxSpend the maximum amount of money that can be spent on items in this budget in timeSpan days
+     */
+    public Budget(String BUID, String name, Money maxSpend) {
         this.BUID = BUID;
         this.name = name;
-        this.maxSpend = maxSpend;
+        this.maxSpend = maxSpend.getCents();
         budget = new HashMap<>();
+        itemsByName = new HashMap<>();
+        itemsObserved = true;
+    }
+
+    /**
+     * Construct a budget containing the given items, which are trusted to satisfy the budget's constraints: they are
+     * keyed by their UIDs, have distinct names, and cost no more than maxSpend in total. None of these are checked,
+     * and the given map is used as is rather than copied, so this takes a single pass over the items to index them
+     * by name and total their costs. This is meant for loading budgets that were validated before they were saved.
+     *
+     * @param maxSpend the maximum amount of money that can be spent on items in this budget
+     * @param items    a mapping from the UIDs of the items in this budget to those items, which this budget takes
+     *                 ownership of
+     */
+    public Budget(String BUID, String name, Money maxSpend, Map<String, Item> items) {
+        this.BUID = BUID;
+        this.name = name;
+        this.maxSpend = maxSpend.getCents();
+        budget = items;
+        itemsByName = new HashMap<>(Math.max(16, (int) (items.size() / 0.75f) + 1));
+        long total = 0;
+        for (Item item : items.values()) {
+            itemsByName.put(item.getName(), item);
+            total += item.getCostInCents() * item.getQuantity();
+        }
+        totalCost = total;
+        itemsObserved = items.isEmpty();
     }
 
     /**
@@ -66,6 +122,15 @@ public class Budget implements VetoableChangeListener {
      * @return the maximum amount of money that can be spent on items in this budget
      */
     public double getMaxSpend() {
+        return Money.toDollars(maxSpend);
+    }
+
+    /**
+     * Return the maximum amount of money in cents that can be spent on items in this budget.
+     *
+     * @return the maximum amount of money in cents that can be spent on items in this budget
+     */
+    public long getMaxSpendInCents() {
         return maxSpend;
     }
 
@@ -75,7 +140,16 @@ public class Budget implements VetoableChangeListener {
      * @param maxSpend the maximum amount on money that can be spent on items in this budget
      */
     public void setMaxSpend(double maxSpend) {
-        this.maxSpend = maxSpend;
+        setMaxSpend(Money.of(maxSpend));
+    }
+
+    /**
+     * Set the maximum amount of money that can be spent on items in this budget to the given value.
+     *
+     * @param maxSpend the maximum amount on money that can be spent on items in this budget
+     */
+    public void setMaxSpend(Money maxSpend) {
+        this.maxSpend = maxSpend.getCents();
     }
 
     /**
@@ -87,10 +161,13 @@ public class Budget implements VetoableChangeListener {
      */
     public boolean addItem(Item item) {
         // If adding item to this budget would result in this budget's total cost exceeding maxSpend, do not add item
-        if ((this.getTotalCost() + item.getQuantity() * item.getCost() <= this.maxSpend)
-                && (getItemByIUID(item.getIUID()) == null) && (getItemByName(item.getName()) == null)) {
+        long itemCost = item.getQuantity() * item.getCostInCents();
+        if ((this.totalCost + itemCost <= this.maxSpend)
+                && !budget.containsKey(item.getIUID()) && !itemsByName.containsKey(item.getName())) {
             budget.put(item.getIUID(), item);
-            item.addObserver(this);
+            itemsByName.put(item.getName(), item);
+            item.addConstraintListener(this);
+            this.totalCost += itemCost;
             return true;
         } else {
             return false;
@@ -103,7 +180,7 @@ public class Budget implements VetoableChangeListener {
      * @return the item with the given UID, or null if the given item is not in this budget
      */
     public Item getItemByIUID(String IUID) {
-        return budget.getOrDefault(IUID, null);
+        return observe(budget.get(IUID));
     }
 
     /**
@@ -112,22 +189,45 @@ public class Budget implements VetoableChangeListener {
      * @return the item with the given name, or null if the given item is not in this budget
      */
     public Item getItemByName(String name) {
-        for (String itemIUID : budget.keySet()) {
-            if (budget.get(itemIUID).getName().equals(name)) {
-                return budget.get(itemIUID);
-            }
-        }
-        return null;
+        return observe(itemsByName.get(name));
     }
 
     /**
-     * Return a mapping from the names of items in this budget to those Item objects.
-     * @return a mapping from the names of items in this budget to those Item objects
+     * Return a mapping from the UIDs of items in this budget to those Item objects.
+     * @return a mapping from the UIDs of items in this budget to those Item objects
      */
     public Map<String, Item> getItems() {
+        if (!itemsObserved) {
+            for (Item item : budget.values()) {
+                observe(item);
+            }
+            itemsObserved = true;
+        }
         return budget;
     }
 
+    /**
+     * Return a read-only view of the mapping from the UIDs of items in this budget to those Item objects, for reading
+     * the items without handing them out to be changed. Unlike getItems, this does not make this budget start listening
+     * to its items, so changes made to items obtained from the view of a bulk-loaded budget are not checked against
+     * this budget's constraints.
+     * @return a read-only view of the mapping from the UIDs of items in this budget to those Item objects
+     */
+    public Map<String, Item> viewItems() {
+        return Collections.unmodifiableMap(budget);
+    }
+
+    /*
+     * Make this budget a constraint listener of the given item, which is in this budget, if it is not one already.
+     * Returns the given item.
+     */
+    private Item observe(Item item) {
+        if (!itemsObserved && item != null && !item.hasConstraintListener(this)) {
+            item.addConstraintListener(this);
+        }
+        return item;
+    }
+
     /**
      * Change the quantity of the item with the given name to the given quantity.
      * @param itemName    the name of the item
@@ -145,8 +245,11 @@ public class Budget implements VetoableChangeListener {
      * @return whether the given item was removed
      */
     public boolean removeItem(String IUID) {
-        if (budget.containsKey(IUID)) {
-            budget.remove(IUID);
+        Item item = budget.remove(IUID);
+        if (item != null) {
+            itemsByName.remove(item.getName());
+            item.removeConstraintListener(this);
+            this.totalCost -= item.getQuantity() * item.getCostInCents();
             return true;
         } else {
             return false;
@@ -158,40 +261,143 @@ public class Budget implements VetoableChangeListener {
      * @return the total cost of all items in this budget
      */
     public double getTotalCost() {
-        double totalCost = 0;
-        for (String itemIUID : budget.keySet()) {
-            totalCost += budget.get(itemIUID).getCost() * budget.get(itemIUID).getQuantity();
-        }
+        return Money.toDollars(totalCost);
+    }
+
+    /**
+     * Return the total cost in cents of all items in this budget.
+     * @return the total cost in cents of all items in this budget
+     */
+    public long getTotalCostInCents() {
         return totalCost;
     }
 
+    /**
+     * Recompute the total cost of all items in this budget from scratch, replace the running total with the result,
+     * and return it. Comparing the result with getTotalCost() beforehand verifies the running total.
+     * @return the total cost of all items in this budget, summed over every item
+     */
+    public double auditTotalCost() {
+        long recomputed = 0;
+        for (Item item : budget.values()) {
+            recomputed += item.getCostInCents() * item.getQuantity();
+        }
+        this.totalCost = recomputed;
+        return Money.toDollars(recomputed);
+    }
+
+    /**
+     * Return whether the given Item in this Budget may be renamed to the given name, which is the case unless another
+     * item in this Budget already has that name.
+     * @param item    the Item whose name is to change
+     * @param oldName the Item's current name
+     * @param newName the Item's requested name
+     * @return whether the change is allowed
+     */
+    @Override
+    public boolean allowsNameChange(Item item, String oldName, String newName) {
+        Item namesake = itemsByName.get(newName);
+        return namesake == null || namesake == item;
+    }
+
+    /**
+     * Return whether the given Item in this Budget may change cost without this Budget's maxSpend being exceeded.
+     * @param item    the Item whose cost is to change
+     * @param oldCost the Item's current cost in cents
+     * @param newCost the Item's requested cost in cents
+     * @return whether the change is allowed
+     */
+    @Override
+    public boolean allowsCostChange(Item item, long oldCost, long newCost) {
+        return COST_STRATEGY.totalCostAfter(item, oldCost, newCost, totalCost) <= maxSpend;
+    }
+
+    /**
+     * Return whether the given Item in this Budget may change quantity without this Budget's maxSpend being exceeded.
+     * @param item        the Item whose quantity is to change
+     * @param oldQuantity the Item's current quantity
+     * @param newQuantity the Item's requested quantity
+     * @return whether the change is allowed
+     */
+    @Override
+    public boolean allowsQuantityChange(Item item, int oldQuantity, int newQuantity) {
+        return QUANTITY_STRATEGY.totalCostAfter(item, oldQuantity, newQuantity, totalCost) <= maxSpend;
+    }
+
+    /**
+     * Re-index the given Item in this Budget under its new name.
+     * @param item    the Item whose name changed
+     * @param oldName the Item's previous name
+     * @param newName the Item's new name
+     */
+    @Override
+    public void nameChanged(Item item, String oldName, String newName) {
+        if (itemsByName.get(oldName) == item) {
+            itemsByName.remove(oldName);
+        }
+        itemsByName.put(newName, item);
+    }
+
+    /**
+     * Update this Budget's total cost to include the change in the given Item's cost.
+     * @param item    the Item whose cost changed
+     * @param oldCost the Item's previous cost in cents
+     * @param newCost the Item's new cost in cents
+     */
+    @Override
+    public void costChanged(Item item, long oldCost, long newCost) {
+        totalCost = COST_STRATEGY.totalCostAfter(item, oldCost, newCost, totalCost);
+    }
+
+    /**
+     * Update this Budget's total cost to include the change in the given Item's quantity.
+     * @param item        the Item whose quantity changed
+     * @param oldQuantity the Item's previous quantity
+     * @param newQuantity the Item's new quantity
+     */
+    @Override
+    public void quantityChanged(Item item, int oldQuantity, int newQuantity) {
+        totalCost = QUANTITY_STRATEGY.totalCostAfter(item, oldQuantity, newQuantity, totalCost);
+    }
+
     /**
      * Checks whether the given PropertyChangeEvent relating to an Item object in this Budget satisfies this Budget's
-     * constraints, and if not, throws a PropertyVetoException.
+     * constraints, and if not, throws a PropertyVetoException. If the change is accepted, this Budget's total cost is
+     * updated to include it.
+     *
+     * Items in this Budget report their changes through the ItemConstraintListener methods instead; this method is
+     * for changes delivered as PropertyChangeEvents.
      * @param evt the PropertyChangeEvent triggered by a change to an Item in this Budget
-     * @throws PropertyVetoException if the requested change would result in this Budget's maxSpend being exceeded
+     * @throws PropertyVetoException if the requested change would result in this Budget's maxSpend being exceeded, or
+     *                               in two items in this Budget having the same name
      */
     @Override
     public void vetoableChange(PropertyChangeEvent evt) throws PropertyVetoException {
-        VetoableChangeResponseStrategy strategy;
         Item item = (Item) evt.getSource();
-        double totalCost = getTotalCost();
         switch (evt.getPropertyName()) {
             case "quantity" -> {
                 /*
                  If an Item's quantity was changed, ensure that the change does not exceed this Budget's spending
                  limit by throwing an exception otherwise
                 */
-                strategy = new QuantityVetoableChangeResponseStrategy();
-                strategy.respond(evt, item, totalCost, maxSpend);
+                totalCost = QUANTITY_STRATEGY.respond(evt, item, totalCost, maxSpend);
             }
             case "cost" -> {
                 /*
                  If an Item's cost was changed, ensure that the change does not exceed this Budget's spending limit by
                  throwing an exception otherwise
                 */
-                strategy = new CostVetoableChangeResponseStrategy();
-                strategy.respond(evt, item, totalCost, maxSpend);
+                totalCost = COST_STRATEGY.respond(evt, item, totalCost, maxSpend);
+            }
+            case "name" -> {
+                // If an Item's name was changed, ensure that the new name is not taken and re-index the Item under it
+                String oldName = (String) evt.getOldValue();
+                String newName = (String) evt.getNewValue();
+                if (!allowsNameChange(item, oldName, newName)) {
+                    throw new PropertyVetoException("The requested change to this Item's name would result in this "
+                            + "Budget containing two items with the same name", evt);
+                }
+                nameChanged(item, oldName, newName);
             }
         }
     }
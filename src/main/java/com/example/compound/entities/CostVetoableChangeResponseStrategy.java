@@ -7,21 +7,39 @@ import java.beans.PropertyVetoException;
  * A strategy class that provides a Budget with a response to a vetoable change in the cost of an Item it contains.
  */
 class CostVetoableChangeResponseStrategy implements VetoableChangeResponseStrategy {
+    /**
+     * Return the total cost in cents of all the items in a Budget once the given Item's cost is changed.
+     * @param item      the Item whose cost is to change
+     * @param oldValue  the Item's current cost in cents
+     * @param newValue  the Item's requested cost in cents
+     * @param totalCost the total cost in cents of all the items in the Budget before the change
+     * @return the total cost in cents of all the items in the Budget once the Item's cost is changed
+     */
+    @Override
+    public long totalCostAfter(Item item, long oldValue, long newValue, long totalCost) {
+        return totalCost + item.getQuantity() * (newValue - oldValue);
+    }
+
     /**
      * Respond to a vetoable change in the given Item's cost.
      * @param evt       the event object representing a change in the given Item's cost
      * @param item      the Item whose cost has changed
-     * @param totalCost the total cost of all the items in the Budget that is to respond to the vetoable change
-     * @param maxSpend  the limit on spending on the items in the Budget that is to respond to the vetoable change
+     * @param totalCost the total cost in cents of all the items in the Budget that is to respond to the vetoable change
+     * @param maxSpend  the limit in cents on spending on the items in the Budget that is to respond to the vetoable
+     *                  change
+     * @return the total cost in cents of all the items in the Budget once the Item's cost is changed
      * @throws PropertyVetoException if the vetoable change would result in the Budget's spending limit being exceeded
      */
     @Override
-    public void respond(PropertyChangeEvent evt, Item item, double totalCost, double maxSpend)
+    public long respond(PropertyChangeEvent evt, Item item, long totalCost, long maxSpend)
             throws PropertyVetoException {
-        double newCost = (Double) evt.getNewValue();
-        if (totalCost + item.getQuantity() * (newCost - item.getCost()) > maxSpend) {
+        long oldCost = Money.toCents((Double) evt.getOldValue());
+        long newCost = Money.toCents((Double) evt.getNewValue());
+        long newTotalCost = totalCostAfter(item, oldCost, newCost, totalCost);
+        if (newTotalCost > maxSpend) {
             throw new PropertyVetoException("The requested change to this Budget's cost would result in this Budget's "
                     + "spending limit being exceeded", evt);
         }
+        return newTotalCost;
     }
 }
@@ -0,0 +1,162 @@
+package com.example.compound.entities;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Computes the transfers that settle a group's net balances.
+ *
+ * A member's balance is the amount they are owed, in cents: positive for creditors and negative for debtors. Balances
+ * that sum to zero can always be settled in one fewer transfer than there are members with non-zero balances, and
+ * fewer if some of those members' balances sum to zero among themselves. Finding the fewest transfers is NP-hard, so:
+ *
+ * - greedy settles the largest debt against the largest credit, using two heaps, until every balance is settled. It
+ *   takes O(n log n) time for n members and makes at most n - 1 transfers.
+ * - exact splits the members into as many groups with zero total balance as possible, by dynamic programming over the
+ *   subsets of members, and settles each group greedily, which makes the fewest transfers possible. It takes
+ *   O(2^n n) time, so it is used only for at most EXACT_LIMIT members, where SettlementPlanBenchmark shows that it
+ *   still takes well under a millisecond.
+ */
+public final class DebtSimplifier {
+    public static final int EXACT_LIMIT = 14;
+
+    private DebtSimplifier() {
+    }
+
+    /**
+     * Return the transfers that settle the given balances, using exact if there are at most EXACT_LIMIT non-zero
+     * balances summing to zero, and greedy otherwise.
+     * @param members  the emails of the members
+     * @param balances the balance of each member in cents, which is not changed
+     * @return the transfers settling the balances
+     */
+    public static List<Transfer> simplify(String[] members, long[] balances) {
+        int unsettled = 0;
+        long total = 0;
+        for (long balance : balances) {
+            if (balance != 0) {
+                unsettled++;
+                total += balance;
+            }
+        }
+        if (unsettled <= EXACT_LIMIT && total == 0) {
+            return exact(members, balances);
+        }
+        return greedy(members, balances);
+    }
+
+    /**
+     * Return transfers settling the given balances, found by repeatedly settling the largest debt against the largest
+     * credit. If the balances do not sum to zero, the excess credit or debt is left unsettled.
+     * @param members  the emails of the members
+     * @param balances the balance of each member in cents, which is not changed
+     * @return at most one fewer transfer than there are non-zero balances
+     */
+    public static List<Transfer> greedy(String[] members, long[] balances) {
+        int[] all = new int[members.length];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = i;
+        }
+        List<Transfer> transfers = new ArrayList<>();
+        settleGreedily(members, balances.clone(), all, all.length, transfers);
+        return transfers;
+    }
+
+    /*
+     * Settle the members with the first count of the given indices, changing their balances.
+     */
+    private static void settleGreedily(String[] members, long[] balances, int[] indices, int count,
+                                       List<Transfer> transfers) {
+        PriorityQueue<Integer> creditors = new PriorityQueue<>(
+                (i, j) -> Long.compare(balances[j], balances[i]));
+        PriorityQueue<Integer> debtors = new PriorityQueue<>(
+                (i, j) -> Long.compare(balances[i], balances[j]));
+        for (int k = 0; k < count; k++) {
+            int i = indices[k];
+            if (balances[i] > 0) {
+                creditors.add(i);
+            } else if (balances[i] < 0) {
+                debtors.add(i);
+            }
+        }
+        while (!creditors.isEmpty() && !debtors.isEmpty()) {
+            int creditor = creditors.poll();
+            int debtor = debtors.poll();
+            long amount = Math.min(balances[creditor], -balances[debtor]);
+            transfers.add(new Transfer(members[debtor], members[creditor], Money.ofCents(amount)));
+            balances[creditor] -= amount;
+            balances[debtor] += amount;
+            if (balances[creditor] > 0) {
+                creditors.add(creditor);
+            }
+            if (balances[debtor] < 0) {
+                debtors.add(debtor);
+            }
+        }
+    }
+
+    /**
+     * Return the fewest transfers that settle the given balances.
+     * @param members  the emails of the members
+     * @param balances the balance of each member in cents, which is not changed
+     * @return the fewest transfers settling the balances
+     * @throws IllegalArgumentException if there are more than EXACT_LIMIT non-zero balances or they do not sum to zero
+     */
+    public static List<Transfer> exact(String[] members, long[] balances) {
+        int[] unsettled = new int[members.length];
+        int n = 0;
+        for (int i = 0; i < balances.length; i++) {
+            if (balances[i] != 0) {
+                unsettled[n++] = i;
+            }
+        }
+        if (n > EXACT_LIMIT) {
+            throw new IllegalArgumentException(n + " balances is too many to settle exactly");
+        }
+
+        // sums[mask] is the total balance of the members in mask, and zeroGroups[mask] the greatest number of groups
+        // with zero total balance that the members in mask can be split into
+        int full = (1 << n) - 1;
+        long[] sums = new long[full + 1];
+        byte[] zeroGroups = new byte[full + 1];
+        for (int mask = 1; mask <= full; mask++) {
+            int lowest = Integer.numberOfTrailingZeros(mask);
+            sums[mask] = sums[mask & (mask - 1)] + balances[unsettled[lowest]];
+            int best = 0;
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                best = Math.max(best, zeroGroups[mask & ~Integer.lowestOneBit(rest)]);
+            }
+            zeroGroups[mask] = (byte) (sums[mask] == 0 ? best + 1 : best);
+        }
+        if (sums[full] != 0) {
+            throw new IllegalArgumentException("Balances must sum to zero to be settled exactly");
+        }
+
+        // Remove members one at a time along a path of optimal subsets; the members removed between two subsets with
+        // zero total balance form one of the groups
+        long[] remaining = balances.clone();
+        List<Transfer> transfers = new ArrayList<>();
+        int[] zeroGroup = new int[n];
+        int size = 0;
+        int mask = full;
+        while (mask != 0) {
+            int target = sums[mask] == 0 ? zeroGroups[mask] - 1 : zeroGroups[mask];
+            int removed = Integer.numberOfTrailingZeros(mask);
+            for (int rest = mask; rest != 0; rest &= rest - 1) {
+                int bit = Integer.numberOfTrailingZeros(rest);
+                if (zeroGroups[mask & ~(1 << bit)] == target) {
+                    removed = bit;
+                    break;
+                }
+            }
+            zeroGroup[size++] = unsettled[removed];
+            mask &= ~(1 << removed);
+            if (sums[mask] == 0) {
+                settleGreedily(members, remaining, zeroGroup, size, transfers);
+                size = 0;
+            }
+        }
+        return transfers;
+    }
+}
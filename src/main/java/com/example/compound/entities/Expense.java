@@ -1,51 +1,144 @@
 package com.example.compound.entities;
 
 import java.util.*;
+import java.util.function.ObjLongConsumer;
 
 import com.example.compound.data.*;
 
 /*
  * An expense, which is associated with a cost and a mapping between users and the amounts of money owed by those users.
+ *
+ * Amounts are stored in cents (see Money). Each person's share is held in a mutable Share so that settling part of an
+ * expense updates the share in place instead of boxing a new Double.
  */
 public class Expense {
     private final String EUID;
     private final String title;
-    private double amount;
-    private final Map<Person, Double> whoPaid;
-    private final Map<Person, Double> whoBorrowed;
+    private long amount;
+    private final Map<Person, Share> whoPaid;
+    private final Map<Person, Share> whoBorrowed;
+
+    /*
+     * The amount of money in cents that a person paid or borrowed for an expense.
+     */
+    private static final class Share {
+        private long cents;
+
+        private Share(long cents) {
+            this.cents = cents;
+        }
+    }
 
     /**
-     * Construct a new Expense with the given title, cost, and payers.
+     * Construct a new Expense with the given title, cost, and payers, recording the payments in the given ledger.
      * @param title the title of the Expense
      * @param amount the cost of the Expense
      * @param whoPaid Map of People:AmountPaid
      * @param whoBorrowed Map of People:AmountBorrowed
+     * @param ledger the ledger in which to record the change to each payer's balance
      */
     //TODO: Implement multiple split types for Phase 2
     public Expense(String EUID, String title, double amount,
                    Map<Person, Double> whoPaid,
-                   Map<Person, Double> whoBorrowed) {
+                   Map<Person, Double> whoBorrowed, BalanceLedger ledger) {
+        this(EUID, title, Money.of(amount), toCents(whoPaid), toCents(whoBorrowed), ledger);
+    }
+
+    /**
+     * Construct a new Expense with the given title, cost, and payers, recording the payments in the given ledger.
+     * @param title the title of the Expense
+     * @param amount the cost of the Expense
+     * @param whoPaid Map of People:AmountPaid
+     * @param whoBorrowed Map of People:AmountBorrowed
+     * @param ledger the ledger in which to record the change to each payer's balance
+     * @throws IllegalArgumentException if a payer has no account, and so no balance history
+     */
+    public Expense(String EUID, String title, Money amount, Map<Person, Money> whoPaid,
+                   Map<Person, Money> whoBorrowed, BalanceLedger ledger) {
+        this(EUID, title, amount.getCents(), toShares(whoPaid), toShares(whoBorrowed));
+        for (Person payer : this.whoPaid.keySet()) {
+            if (!(payer instanceof User)) {
+                throw new IllegalArgumentException(payer.getEmail() + " has no account to record a payment for");
+            }
+        }
+        for (Map.Entry<Person, Share> entry : this.whoPaid.entrySet()) {
+            ledger.record((User) entry.getKey(), Money.ofCents(-entry.getValue().cents),
+                    BalanceEvent.Reason.EXPENSE_PAID, EUID);
+        }
+    }
+
+    private Expense(String EUID, String title, long amount, Map<Person, Share> whoPaid,
+                    Map<Person, Share> whoBorrowed) {
         this.EUID = EUID;
         this.title = title;
         this.amount = amount;
         this.whoPaid = whoPaid;
         this.whoBorrowed = whoBorrowed;
-        this.updateBalances(whoPaid);
+    }
+
+    /**
+     * Return an Expense with the given amounts, which were read from storage, without changing anyone's balance.
+     * @param EUID the EUID of the Expense
+     * @param title the title of the Expense
+     * @param amount the amount still owed on the Expense
+     * @param whoPaid Map of People:AmountPaid
+     * @param whoBorrowed Map of People:AmountBorrowed
+     * @return the Expense
+     */
+    public static Expense restore(String EUID, String title, Money amount, Map<Person, Money> whoPaid,
+                                  Map<Person, Money> whoBorrowed) {
+        return new Expense(EUID, title, amount.getCents(), toShares(whoPaid), toShares(whoBorrowed));
+    }
+
+    private static Map<Person, Money> toCents(Map<Person, Double> amounts) {
+        Map<Person, Money> converted = new LinkedHashMap<>();
+        for (Map.Entry<Person, Double> entry : amounts.entrySet()) {
+            converted.put(entry.getKey(), Money.of(entry.getValue()));
+        }
+        return converted;
+    }
+
+    private static Map<Person, Share> toShares(Map<Person, Money> amounts) {
+        Map<Person, Share> shares = new LinkedHashMap<>();
+        for (Map.Entry<Person, Money> entry : amounts.entrySet()) {
+            shares.put(entry.getKey(), new Share(entry.getValue().getCents()));
+        }
+        return shares;
+    }
+
+    private static Map<Person, Double> toDollars(Map<Person, Share> shares) {
+        Map<Person, Double> dollars = new LinkedHashMap<>();
+        for (Map.Entry<Person, Share> entry : shares.entrySet()) {
+            dollars.put(entry.getKey(), Money.toDollars(entry.getValue().cents));
+        }
+        return dollars;
     }
 
     public String getTitle() {
         return title;
     }
 
+    /**
+     * Return a snapshot of the amounts paid towards this Expense, in dollars.
+     * @return a new map from each person who paid to the amount they paid
+     */
     public Map<Person, Double> getWhoPaid() {
-        return whoPaid;
+        return toDollars(whoPaid);
     }
 
+    /**
+     * Return a snapshot of the amounts borrowed for this Expense, in dollars.
+     * @return a new map from each person who borrowed to the amount they borrowed
+     */
     public Map<Person, Double> getWhoBorrowed() {
-        return whoBorrowed;
+        return toDollars(whoBorrowed);
     }
 
     public double getAmount(){
+        return Money.toDollars(this.amount);
+    }
+
+    public long getAmountInCents() {
         return this.amount;
     }
 
@@ -53,6 +146,20 @@ public class Expense {
         return this.EUID;
     }
 
+    /**
+     * Pass each person who paid or borrowed for this Expense to the given action, with the amount they paid in cents,
+     * or the negated amount they borrowed. A person who both paid and borrowed is passed twice.
+     * @param action the action to be performed for each share
+     */
+    public void forEachNetShare(ObjLongConsumer<Person> action) {
+        for (Map.Entry<Person, Share> entry : this.whoPaid.entrySet()) {
+            action.accept(entry.getKey(), entry.getValue().cents);
+        }
+        for (Map.Entry<Person, Share> entry : this.whoBorrowed.entrySet()) {
+            action.accept(entry.getKey(), -entry.getValue().cents);
+        }
+    }
+
     public int numPeople() {
         return this.whoPaid.size() + this.whoBorrowed.size();
     }
@@ -63,24 +170,28 @@ public class Expense {
     }
 
     public void settleExpenseBorrowed(Person p, Double amountPaid) {
-        this.amount -= amountPaid;
-        Double amount = this.whoBorrowed.get(p);
-        this.whoBorrowed.replace(p, amount - amountPaid);
+        settleExpenseBorrowed(p, Money.of(amountPaid));
+    }
+
+    public void settleExpenseBorrowed(Person p, Money amountPaid) {
+        long cents = amountPaid.getCents();
+        Share share = this.whoBorrowed.get(p);
+        this.amount -= cents;
+        share.cents -= cents;
     }
 
     public void settleExpenseLent(Person p, Double amountPaid) { // TODO: Add test
-        this.amount -= amountPaid;
-        Double amount = this.whoPaid.get(p);
-        if (amount - amountPaid < 0) {
-            System.out.println("You've entered too much!");
-        } else {
-            this.whoPaid.replace(p, amount - amountPaid);
-        }
+        settleExpenseLent(p, Money.of(amountPaid));
     }
 
-    public void updateBalances(Map<Person, Double> whoPaid){
-        for (Person key : whoPaid.keySet()) {
-            key.balance -= whoPaid.get(key);
+    public void settleExpenseLent(Person p, Money amountPaid) {
+        long cents = amountPaid.getCents();
+        this.amount -= cents;
+        Share share = this.whoPaid.get(p);
+        if (share.cents - cents < 0) {
+            System.out.println("You've entered too much!");
+        } else {
+            share.cents -= cents;
         }
     }
 }
@@ -7,26 +7,31 @@ import java.util.*;
  */
 public class Group {
     protected String groupName;
-    protected final List<String> groupMembers;
+    protected final Set<String> groupMembers;
     protected final List<Expense> expenseList;
     protected final String description;
     protected String GUID;
     protected final List<Budget> budgets;
+    protected final GroupBalances balances;
 
     /**
      * Construct a group with the given name, list of members, list of expenses, and description.
      * @param groupName the name of the group
-     * @param groupMembers the members in the group
+     * @param groupMembers the emails of the members in the group
      * @param expenseList the list of expenses in the group
      * @param description the description of the group
      */
-    public Group(String groupName, List<String> groupMembers, List<Expense> expenseList, String description) {
+    public Group(String groupName, Collection<String> groupMembers, List<Expense> expenseList, String description) {
         this.groupName = groupName;
-        this.groupMembers = groupMembers;
+        this.groupMembers = new LinkedHashSet<>(groupMembers);
         this.expenseList = expenseList;
         this.description = description;
         this.GUID = ""; // TODO
         this.budgets = new ArrayList<>();
+        this.balances = new GroupBalances();
+        for (Expense expense : expenseList) {
+            this.balances.add(expense);
+        }
     }
 
     public String getGUID() {
@@ -41,16 +46,23 @@ public class Group {
         return this.groupName;
     }
 
+    /**
+     * Add the given expense to this group and update the balances of the members who paid and borrowed for it. Expenses
+     * should only be added through this method, since adding them to the list returned by getExpenseList does not
+     * update the balances.
+     * @param expense the expense to be added
+     */
     public void addExpense(Expense expense) {
         this.expenseList.add(expense);
+        this.balances.add(expense);
     }
 
     /**
-     * Return a list of strings containing emails of group members
+     * Return the set of emails of group members, in the order in which they joined the group.
      *
-     * @return A list of strings containing emails of group members
+     * @return A set of strings containing emails of group members
      */
-    public List<String> getGroupMembers() {
+    public Set<String> getGroupMembers() {
         return this.groupMembers;
     }
 
@@ -62,6 +74,24 @@ public class Group {
         return this.description;
     }
 
+    /**
+     * Return the net balances of this group's members, which are updated as expenses are added.
+     * @return the balances of this group's members
+     */
+    public GroupBalances getBalances() {
+        return this.balances;
+    }
+
+    /**
+     * Return the fewest transfers between this group's members (as far as can be computed quickly) that settle every
+     * expense in this group. The transfers are computed from the members' balances rather than the expenses, so this
+     * takes time depending on the number of members only.
+     * @return an unmodifiable list of transfers
+     */
+    public List<Transfer> getSettlement() {
+        return this.balances.getSettlement();
+    }
+
     @Override
     public String toString() {
         return this.groupName;
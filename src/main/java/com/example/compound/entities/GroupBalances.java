@@ -0,0 +1,62 @@
+package com.example.compound.entities;
+
+import java.util.*;
+
+/**
+ * The net balance of each member of a group, kept up to date as expenses are added so that settling the group's debts
+ * does not require reading every expense again.
+ *
+ * A member's balance is the total they paid towards the group's expenses less the total they borrowed, in cents.
+ * Balances are keyed by email, and reflect the shares of each expense at the time it was added. The transfers that
+ * settle the balances are computed when first asked for and kept until the next expense is added.
+ */
+public class GroupBalances {
+    private final Map<String, Balance> balances = new LinkedHashMap<>();
+    private List<Transfer> settlement; // Null if an expense was added since the settlement was computed
+
+    /*
+     * The balance of a member in cents, mutable so that adding an expense does not box a new Long.
+     */
+    private static final class Balance {
+        private long cents;
+    }
+
+    /**
+     * Add the shares of the given expense to the balances of the people who paid and borrowed for it.
+     * @param expense the expense
+     */
+    public void add(Expense expense) {
+        expense.forEachNetShare((person, cents) ->
+                balances.computeIfAbsent(person.getEmail(), email -> new Balance()).cents += cents);
+        settlement = null;
+    }
+
+    /**
+     * Return the balance of the member with the given email in cents.
+     * @param email the email of the member
+     * @return the amount the member is owed, which is negative if they owe money
+     */
+    public long getBalanceInCents(String email) {
+        Balance balance = balances.get(email);
+        return balance == null ? 0 : balance.cents;
+    }
+
+    /**
+     * Return the transfers that settle every balance, computed with DebtSimplifier.simplify.
+     * @return an unmodifiable list of transfers
+     */
+    public List<Transfer> getSettlement() {
+        if (settlement == null) {
+            String[] members = new String[balances.size()];
+            long[] cents = new long[balances.size()];
+            int i = 0;
+            for (Map.Entry<String, Balance> entry : balances.entrySet()) {
+                members[i] = entry.getKey();
+                cents[i] = entry.getValue().cents;
+                i++;
+            }
+            settlement = Collections.unmodifiableList(DebtSimplifier.simplify(members, cents));
+        }
+        return settlement;
+    }
+}
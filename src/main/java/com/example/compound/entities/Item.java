@@ -3,17 +3,29 @@ package com.example.compound.entities;
 import java.beans.VetoableChangeListener;
 import java.beans.VetoableChangeSupport;
 import java.beans.PropertyVetoException;
+import java.util.Arrays;
 
 /**
  * An item for use with the Budget class with a category, name, cost in dollars and quantity.
+ *
+ * The cost is stored in cents (see Money).
+ *
+ * Changes to an Item can be constrained in two ways. ItemConstraintListeners, such as the Budgets containing the Item,
+ * are checked through typed calls that do not allocate. VetoableChangeListeners added with addObserver are sent
+ * PropertyChangeEvents as before, with costs in dollars; the VetoableChangeSupport that does so is only created once
+ * the first such observer is added.
  */
 public class Item {
     private String IUID;
     private String name;
-    private double cost;
+    private long cost;
     private int quantity;
 
-    private final VetoableChangeSupport observableVetoable;
+    private static final ItemConstraintListener[] NO_CONSTRAINT_LISTENERS = new ItemConstraintListener[0];
+
+    // Copied on write, since listeners are added and removed far less often than changes are checked
+    private ItemConstraintListener[] constraintListeners = NO_CONSTRAINT_LISTENERS;
+    private VetoableChangeSupport observableVetoable;
 
     /**
      * Construct a new item with the given UID, name, cost, and quantity.
@@ -23,11 +35,21 @@ public class Item {
      * @param quantity the quantity of this item
      */
     public Item(String IUID, String name, double cost, int quantity) {
+        this(IUID, name, Money.of(cost), quantity);
+    }
+
+    /**
+     * Construct a new item with the given UID, name, cost, and quantity.
+     * @param IUID     the UID of this Item
+     * @param name     the name of this item
+     * @param cost     the cost of this item
+     * @param quantity the quantity of this item
+     */
+    public Item(String IUID, String name, Money cost, int quantity) {
         this.IUID = IUID;
         this.name = name;
-        this.cost = cost;
+        this.cost = cost.getCents();
         this.quantity = quantity;
-        this.observableVetoable = new VetoableChangeSupport(this);
     }
 
     /**
@@ -51,6 +73,14 @@ public class Item {
      * @return this Item's cost
      */
     public double getCost() {
+        return Money.toDollars(cost);
+    }
+
+    /**
+     * Return this Item's cost in cents.
+     * @return this Item's cost in cents
+     */
+    public long getCostInCents() {
         return cost;
     }
 
@@ -70,21 +100,106 @@ public class Item {
         return quantity;
     }
 
+    /**
+     * Make the given ItemConstraintListener object a constraint listener of this Item so that it can track and prevent
+     * changes in this Item's name, cost and quantity.
+     * @param listener the ItemConstraintListener object that is to constrain this Item
+     */
+    public void addConstraintListener(ItemConstraintListener listener) {
+        ItemConstraintListener[] listeners = Arrays.copyOf(constraintListeners, constraintListeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+        constraintListeners = listeners;
+    }
+
+    /**
+     * Stop the given ItemConstraintListener object from constraining this Item.
+     * @param listener the ItemConstraintListener object that is no longer to constrain this Item
+     */
+    public void removeConstraintListener(ItemConstraintListener listener) {
+        ItemConstraintListener[] listeners = constraintListeners;
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                ItemConstraintListener[] remaining = new ItemConstraintListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, listeners.length - i - 1);
+                constraintListeners = remaining.length == 0 ? NO_CONSTRAINT_LISTENERS : remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Return whether the given ItemConstraintListener object is a constraint listener of this Item.
+     * @param listener the ItemConstraintListener object
+     * @return whether the given ItemConstraintListener object constrains this Item
+     */
+    public boolean hasConstraintListener(ItemConstraintListener listener) {
+        for (ItemConstraintListener constraintListener : constraintListeners) {
+            if (constraintListener == listener) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Make the given VetoableChangeListener object an observer of this Item so that objects containing that object can
      * track and prevent changes in this Item's quantity and cost.
      * @param observer the VetoableChangeListener object that is to be made an observer of this Item
      */
     public void addObserver(VetoableChangeListener observer) {
+        if (observableVetoable == null) {
+            observableVetoable = new VetoableChangeSupport(this);
+        }
         observableVetoable.addVetoableChangeListener(observer);
     }
 
+    /**
+     * Stop the given VetoableChangeListener object from observing this Item.
+     * @param observer the VetoableChangeListener object that is no longer to observe this Item
+     */
+    public void removeObserver(VetoableChangeListener observer) {
+        if (observableVetoable != null) {
+            observableVetoable.removeVetoableChangeListener(observer);
+        }
+    }
+
+    /*
+     * Return whether the VetoableChangeListeners of this Item, if there are any, accept the given change.
+     */
+    private boolean observersAccept(String propertyName, Object oldValue, Object newValue) {
+        if (observableVetoable == null || !observableVetoable.hasListeners(propertyName)) {
+            return true;
+        }
+        try {
+            observableVetoable.fireVetoableChange(propertyName, oldValue, newValue);
+        } catch (PropertyVetoException e) {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Set this Item's name to the given value.
      * @param newName this Item's new name
+     * @return whether the Item's name was set to the given value
      */
-    public void setName(String newName) {
+    public boolean setName(String newName) {
+        String oldName = this.name;
+        ItemConstraintListener[] listeners = constraintListeners;
+        for (ItemConstraintListener listener : listeners) {
+            if (!listener.allowsNameChange(this, oldName, newName)) {
+                return false;
+            }
+        }
+        if (!observersAccept("name", oldName, newName)) {
+            return false;
+        }
         this.name = newName;
+        for (ItemConstraintListener listener : listeners) {
+            listener.nameChanged(this, oldName, newName);
+        }
+        return true;
     }
 
     /**
@@ -93,13 +208,31 @@ public class Item {
      * @return whether the Item's cost was set to the given value
      */
     public boolean setCost(double newCost) {
-        double oldCost = this.cost;
-        try {
-            observableVetoable.fireVetoableChange("cost", oldCost, newCost);
-        } catch (PropertyVetoException e) {
+        return setCost(Money.of(newCost));
+    }
+
+    /**
+     * Set this Item's cost to the given value.
+     * @param newCost this Item's new cost
+     * @return whether the Item's cost was set to the given value
+     */
+    public boolean setCost(Money newCost) {
+        long oldCost = this.cost;
+        long newCents = newCost.getCents();
+        ItemConstraintListener[] listeners = constraintListeners;
+        for (ItemConstraintListener listener : listeners) {
+            if (!listener.allowsCostChange(this, oldCost, newCents)) {
+                return false;
+            }
+        }
+        if (observableVetoable != null
+                && !observersAccept("cost", Money.toDollars(oldCost), Money.toDollars(newCents))) {
             return false;
         }
-        this.cost = newCost;
+        this.cost = newCents;
+        for (ItemConstraintListener listener : listeners) {
+            listener.costChanged(this, oldCost, newCents);
+        }
         return true;
     }
 
@@ -110,12 +243,19 @@ public class Item {
      */
     public boolean setQuantity(int newQuantity) {
         int oldQuantity = this.quantity;
-        try {
-            observableVetoable.fireVetoableChange("quantity", oldQuantity, newQuantity);
-        } catch (PropertyVetoException e) {
+        ItemConstraintListener[] listeners = constraintListeners;
+        for (ItemConstraintListener listener : listeners) {
+            if (!listener.allowsQuantityChange(this, oldQuantity, newQuantity)) {
+                return false;
+            }
+        }
+        if (observableVetoable != null && !observersAccept("quantity", oldQuantity, newQuantity)) {
             return false;
         }
         this.quantity = newQuantity;
+        for (ItemConstraintListener listener : listeners) {
+            listener.quantityChanged(this, oldQuantity, newQuantity);
+        }
         return true;
     }
 }
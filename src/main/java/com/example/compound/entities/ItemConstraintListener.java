@@ -0,0 +1,65 @@
+package com.example.compound.entities;
+
+/**
+ * A listener that can reject changes to an Item's name, cost and quantity, and that is told about the changes it
+ * accepts.
+ *
+ * A change is made in two phases. First, every listener of the Item is asked whether it allows the change; if any
+ * listener does not, the change is rejected and no listener is told about it. Otherwise, the change is made and every
+ * listener is told that it has been made. Since no listener is told about a change until every listener has allowed
+ * it, listeners never have to undo a change that another listener rejected.
+ *
+ * Amounts are passed in cents, so these checks neither box values nor allocate events.
+ */
+public interface ItemConstraintListener {
+    /**
+     * Return whether the given Item's name may be changed to the given value.
+     * @param item    the Item whose name is to change
+     * @param oldName the Item's current name
+     * @param newName the Item's requested name
+     * @return whether the change is allowed
+     */
+    boolean allowsNameChange(Item item, String oldName, String newName);
+
+    /**
+     * Return whether the given Item's cost may be changed to the given value.
+     * @param item    the Item whose cost is to change
+     * @param oldCost the Item's current cost in cents
+     * @param newCost the Item's requested cost in cents
+     * @return whether the change is allowed
+     */
+    boolean allowsCostChange(Item item, long oldCost, long newCost);
+
+    /**
+     * Return whether the given Item's quantity may be changed to the given value.
+     * @param item        the Item whose quantity is to change
+     * @param oldQuantity the Item's current quantity
+     * @param newQuantity the Item's requested quantity
+     * @return whether the change is allowed
+     */
+    boolean allowsQuantityChange(Item item, int oldQuantity, int newQuantity);
+
+    /**
+     * Respond to the given Item's name having been changed.
+     * @param item    the Item whose name changed
+     * @param oldName the Item's previous name
+     * @param newName the Item's new name
+     */
+    void nameChanged(Item item, String oldName, String newName);
+
+    /**
+     * Respond to the given Item's cost having been changed.
+     * @param item    the Item whose cost changed
+     * @param oldCost the Item's previous cost in cents
+     * @param newCost the Item's new cost in cents
+     */
+    void costChanged(Item item, long oldCost, long newCost);
+
+    /**
+     * Respond to the given Item's quantity having been changed.
+     * @param item        the Item whose quantity changed
+     * @param oldQuantity the Item's previous quantity
+     * @param newQuantity the Item's new quantity
+     */
+    void quantityChanged(Item item, int oldQuantity, int newQuantity);
+}
@@ -0,0 +1,153 @@
+package com.example.compound.entities;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * An amount of money, stored exactly as a whole number of cents.
+ *
+ * Entities keep their amounts as primitive longs of cents so that sums and comparisons are exact and do not allocate;
+ * this class is the value type used to pass amounts across the boundaries of those entities. The static toCents and
+ * toDollars methods convert between cents and the double amounts in dollars used by older parts of the program.
+ */
+public final class Money implements Comparable<Money> {
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Return the given number of cents as a Money object.
+     * @param cents the amount in cents
+     * @return the given amount
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Return the given amount in dollars, rounded to the nearest cent, as a Money object.
+     * @param dollars the amount in dollars
+     * @return the given amount, rounded to the nearest cent
+     */
+    public static Money of(double dollars) {
+        return ofCents(toCents(dollars));
+    }
+
+    /**
+     * Return the given amount in dollars, rounded half up to the nearest cent, as a Money object. This is how amounts
+     * stored in NUMERIC(20, 2) columns are read.
+     * @param dollars the amount in dollars, or null for no amount
+     * @return the given amount, rounded to the nearest cent, or zero if the given amount is null
+     * @throws ArithmeticException if the given amount has too many cents to be stored in a long
+     */
+    public static Money of(BigDecimal dollars) {
+        if (dollars == null) {
+            return ZERO;
+        }
+        return ofCents(dollars.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Return the given amount in dollars, rounded to the nearest cent, as a number of cents.
+     * @param dollars the amount in dollars
+     * @return the given amount in cents
+     */
+    public static long toCents(double dollars) {
+        return Math.round(dollars * 100);
+    }
+
+    /**
+     * Return the given number of cents as an amount in dollars.
+     * @param cents the amount in cents
+     * @return the given amount in dollars
+     */
+    public static double toDollars(long cents) {
+        return cents / 100.0;
+    }
+
+    /**
+     * Return this amount in cents.
+     * @return this amount in cents
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Return this amount in dollars as a double, which may not represent it exactly.
+     * @return this amount in dollars
+     */
+    public double toDouble() {
+        return toDollars(cents);
+    }
+
+    /**
+     * Return this amount in dollars as a BigDecimal with two decimal places.
+     * @return this amount in dollars
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Return the sum of this amount and the given amount.
+     * @param other the amount to be added
+     * @return the sum of the two amounts
+     * @throws ArithmeticException if the sum has too many cents to be stored in a long
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Return the given amount subtracted from this amount.
+     * @param other the amount to be subtracted
+     * @return the difference of the two amounts
+     * @throws ArithmeticException if the difference has too many cents to be stored in a long
+     */
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+
+    /**
+     * Return this amount multiplied by the given quantity.
+     * @param quantity the quantity
+     * @return this amount multiplied by the given quantity
+     * @throws ArithmeticException if the product has too many cents to be stored in a long
+     */
+    public Money times(int quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * Return whether this amount is less than zero.
+     * @return whether this amount is less than zero
+     */
+    public boolean isNegative() {
+        return cents < 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money && ((Money) o).cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
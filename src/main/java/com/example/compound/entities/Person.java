@@ -3,10 +3,13 @@ package com.example.compound.entities;
 /**
  * A person who does not necessarily have an account. Direct instantiations of this class (not subclasses) do not have
  * an account.
+ *
+ * A person's balance is stored in cents (see Money). It is only changed by a BalanceLedger, which keeps the history of
+ * the balances of people with accounts.
  */
 public class Person {
     protected String name;
-    protected double balance;
+    protected long balance;
     protected String email;
 
     /**
@@ -16,8 +19,18 @@ public class Person {
      * @param email the Person's email used to contact them
      */
     public Person(String name, double balance, String email) {
+        this(name, Money.of(balance), email);
+    }
+
+    /**
+     * Construct a new person with the given name, balance, and email.
+     * @param name the Person's name
+     * @param balance the Person's balance (the amount owed)
+     * @param email the Person's email used to contact them
+     */
+    public Person(String name, Money balance, String email) {
         this.name = name;
-        this.balance = balance;
+        this.balance = balance.getCents();
         this.email = email;
     }
 
@@ -26,11 +39,11 @@ public class Person {
     }
 
     public double getBalance() {
-        return balance;
+        return Money.toDollars(balance);
     }
 
-    public void updateBalance(double amount) {
-        this.balance += amount;
+    public long getBalanceInCents() {
+        return balance;
     }
 
     public String getEmail() {
@@ -7,21 +7,39 @@ import java.beans.PropertyVetoException;
  * A strategy class that provides a Budget with a response to a vetoable change in the quantity of an Item it contains.
  */
 class QuantityVetoableChangeResponseStrategy implements VetoableChangeResponseStrategy {
+    /**
+     * Return the total cost in cents of all the items in a Budget once the given Item's quantity is changed.
+     * @param item      the Item whose quantity is to change
+     * @param oldValue  the Item's current quantity
+     * @param newValue  the Item's requested quantity
+     * @param totalCost the total cost in cents of all the items in the Budget before the change
+     * @return the total cost in cents of all the items in the Budget once the Item's quantity is changed
+     */
+    @Override
+    public long totalCostAfter(Item item, long oldValue, long newValue, long totalCost) {
+        return totalCost + (newValue - oldValue) * item.getCostInCents();
+    }
+
     /**
      * Respond to a vetoable change in the given Item's quantity.
      * @param evt       the event object representing a change in the given Item's quantity
      * @param item      the Item whose quantity has changed
-     * @param totalCost the total cost of all the items in the Budget that is to respond to the vetoable change
-     * @param maxSpend  the limit on spending on the items in the Budget that is to respond to the vetoable change
+     * @param totalCost the total cost in cents of all the items in the Budget that is to respond to the vetoable change
+     * @param maxSpend  the limit in cents on spending on the items in the Budget that is to respond to the vetoable
+     *                  change
+     * @return the total cost in cents of all the items in the Budget once the Item's quantity is changed
      * @throws PropertyVetoException if the vetoable change would result in the Budget's spending limit being exceeded
      */
     @Override
-    public void respond(PropertyChangeEvent evt, Item item, double totalCost, double maxSpend)
+    public long respond(PropertyChangeEvent evt, Item item, long totalCost, long maxSpend)
             throws PropertyVetoException {
+        int oldQuantity = (Integer) evt.getOldValue();
         int newQuantity = (Integer) evt.getNewValue();
-        if (totalCost + (newQuantity - item.getQuantity()) * item.getCost() > maxSpend) {
+        long newTotalCost = totalCostAfter(item, oldQuantity, newQuantity, totalCost);
+        if (newTotalCost > maxSpend) {
             throw new PropertyVetoException("The requested change to this Budget's quantity would result in this "
                     + "Budget's spending limit being exceeded", evt);
         }
+        return newTotalCost;
     }
 }
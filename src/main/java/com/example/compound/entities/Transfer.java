@@ -0,0 +1,52 @@
+package com.example.compound.entities;
+
+/**
+ * A payment that settles debts between two members of a group: the member with the email from pays the member with the
+ * email to the given amount.
+ */
+public final class Transfer {
+    private final String from;
+    private final String to;
+    private final long amount; // In cents
+
+    public Transfer(String from, String to, Money amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount.getCents();
+    }
+
+    public String getFrom() {
+        return from;
+    }
+
+    public String getTo() {
+        return to;
+    }
+
+    public double getAmount() {
+        return Money.toDollars(amount);
+    }
+
+    public long getAmountInCents() {
+        return amount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Transfer)) {
+            return false;
+        }
+        Transfer other = (Transfer) o;
+        return amount == other.amount && from.equals(other.from) && to.equals(other.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return (from.hashCode() * 31 + to.hashCode()) * 31 + Long.hashCode(amount);
+    }
+
+    @Override
+    public String toString() {
+        return from + " pays " + to + " " + Money.ofCents(amount);
+    }
+}
@@ -25,13 +25,15 @@ public class User extends Person implements AccountFeatures {
      */
     public User(String name, double balance, String email, String password) {
         // TODO: Take in a distinct username
-        this(
-//                generateUUID(),
-                0, // TODO: generate UUID
-                name, email, email, balance, password); // TODO: Should this constructor ever be used?
+        // The UUID is left as 0, since UUIDs are handed out by the repository; see UserManager.createUser
+        this(0, name, email, email, balance, password); // TODO: Should this constructor ever be used?
     }
 
     public User(int uuid, String name, String email, String username, double balance, String password) {
+        this(uuid, name, email, username, Money.of(balance), password);
+    }
+
+    public User(int uuid, String name, String email, String username, Money balance, String password) {
         super(name, balance, email);
         this.UUID = uuid;
         this.username = username;
@@ -55,16 +57,6 @@ public class User extends Person implements AccountFeatures {
         this.password = password;
     }
 
-    @Override
-    //TODO: Create a proper UUID Algorithm, perhaps in the repository instead of here
-    /*
-    Generate a Unique User ID.
-     */
-    public int generateUUID() {
-        Random random = new Random();
-        return random.nextInt(100) + 1;
-    }
-
     public String toString() {
         return this.name;
     }
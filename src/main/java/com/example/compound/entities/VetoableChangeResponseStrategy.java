@@ -6,15 +6,45 @@ import java.beans.PropertyVetoException;
 /**
  * A strategy interface that provides a Budget with a response to a vetoable change in an attribute of an Item it
  * contains.
+ *
+ * Budgets check changes through totalCostAfter, which takes the old and new values directly. The respond methods do the
+ * same check for a change delivered as a PropertyChangeEvent.
  */
 interface VetoableChangeResponseStrategy {
+    /**
+     * Return the total cost in cents of all the items in a Budget once the given change is made to an attribute of the
+     * given Item. A Budget rejects the change if this exceeds its spending limit.
+     * @param item      the Item whose attribute is to change
+     * @param oldValue  the current value of the attribute, in cents if it is an amount
+     * @param newValue  the requested value of the attribute, in cents if it is an amount
+     * @param totalCost the total cost in cents of all the items in the Budget before the change
+     * @return the total cost in cents of all the items in the Budget once the change is made
+     */
+    long totalCostAfter(Item item, long oldValue, long newValue, long totalCost);
+
     /**
      * Respond to a vetoable change in the given Item's attribute.
      * @param evt       the event object representing a change in an attribute of the given Item
      * @param item      the Item whose attribute has changed
+     * @param totalCost the total cost in cents of all the items in the Budget that is to respond to the vetoable change
+     * @param maxSpend  the limit in cents on spending on the items in the Budget that is to respond to the vetoable
+     *                  change
+     * @return the total cost in cents of all the items in the Budget once the change is made
+     * @throws PropertyVetoException if the vetoable change would result in the Budget's spending limit being exceeded
+     */
+    long respond(PropertyChangeEvent evt, Item item, long totalCost, long maxSpend) throws PropertyVetoException;
+
+    /**
+     * Respond to a vetoable change in the given Item's attribute, with amounts in dollars.
+     * @param evt       the event object representing a change in an attribute of the given Item
+     * @param item      the Item whose attribute has changed
      * @param totalCost the total cost of all the items in the Budget that is to respond to the vetoable change
      * @param maxSpend  the limit on spending on the items in the Budget that is to respond to the vetoable change
+     * @return the total cost of all the items in the Budget once the change is made
      * @throws PropertyVetoException if the vetoable change would result in the Budget's spending limit being exceeded
      */
-    void respond(PropertyChangeEvent evt, Item item, double totalCost, double maxSpend) throws PropertyVetoException;
+    default double respond(PropertyChangeEvent evt, Item item, double totalCost, double maxSpend)
+            throws PropertyVetoException {
+        return Money.toDollars(respond(evt, item, Money.toCents(totalCost), Money.toCents(maxSpend)));
+    }
 }
@@ -0,0 +1,11 @@
+package com.example.compound.exceptions;
+
+/**
+ * Thrown when an object cannot be saved because it was changed or deleted by someone else after it was read. The
+ * update may be retried by reading the object again and reapplying the change.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.compound.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.StaticMethodMatcherPointcutAdvisor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the number of calls, the number of failed calls, and a sample of the latencies, of each public method of the
+ * use case managers and of the repository gateways that reach a database. In-memory gateways are not wrapped, since
+ * even an untimed call through a proxy costs more than most of their calls do.
+ *
+ * A manager or gateway is instrumented by wrapping it in a proxy. Every call is counted with a Counter named
+ * CALL_COUNT, and every call that throws with a Counter named FAILURES, but only one call in SAMPLE_INTERVAL, chosen at
+ * random, is timed, with a Timer named CALLS. Reading the clock twice and recording to a Timer costs more than many of
+ * the calls being timed, so timing a random sample keeps that cost to a fraction of a call while the Timer's latency
+ * distribution stays that of all calls. The Timers publish a percentile histogram, so the Prometheus endpoint of Spring
+ * Boot Actuator serves latency percentiles. The meters are tagged with the layer ("manager" or "gateway"), the class of
+ * the wrapped object and the name of the method, and failures are also tagged with the class of the exception.
+ *
+ * By default, meters are registered in Micrometer's global registry, to which Spring Boot adds its own registries. To
+ * turn the meters off while keeping the proxies, set management.metrics.enable.compound=false. To not wrap anything at
+ * all, so that there is no overhead, run with -Dcompound.metrics.enabled=false.
+ */
+public final class CallMetrics {
+    public static final String ENABLED_PROPERTY = "compound.metrics.enabled";
+    public static final String CALLS = "compound.calls";
+    public static final String CALL_COUNT = "compound.call.count";
+    public static final String FAILURES = "compound.call.failures";
+    // One call in SAMPLE_INTERVAL is timed; a power of two, so that a call is chosen by masking a random number
+    public static final int SAMPLE_INTERVAL = 64;
+
+    private CallMetrics() {
+    }
+
+    /**
+     * Return whether managers and gateways are instrumented, which they are unless the system property
+     * ENABLED_PROPERTY is "false".
+     * @return whether managers and gateways are instrumented
+     */
+    public static boolean isEnabled() {
+        return !"false".equalsIgnoreCase(System.getProperty(ENABLED_PROPERTY));
+    }
+
+    /**
+     * Instrument the given manager, registering its meters in the global registry.
+     * @param manager the manager
+     * @param <T>     the class of the manager
+     * @return a proxy of the given manager, or the manager itself if instrumentation is not enabled
+     */
+    public static <T> T manager(T manager) {
+        return isEnabled() ? manager(manager, Metrics.globalRegistry) : manager;
+    }
+
+    /**
+     * Instrument the given manager, registering its meters in the given registry.
+     * @param manager  the manager
+     * @param registry the registry
+     * @param <T>      the class of the manager
+     * @return a proxy of the given manager, which is a subclass of the manager's class
+     */
+    public static <T> T manager(T manager, MeterRegistry registry) {
+        return manager(manager, registry, SAMPLE_INTERVAL);
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T manager(T manager, MeterRegistry registry, int sampleInterval) {
+        ProxyFactory factory = new ProxyFactory(manager);
+        factory.setProxyTargetClass(true);
+        advise(factory, "manager", manager.getClass(), manager.getClass(), registry, sampleInterval);
+        return (T) factory.getProxy();
+    }
+
+    /**
+     * Instrument the given gateway, registering its meters in the global registry.
+     * @param type    the gateway interface
+     * @param gateway the gateway
+     * @param <T>     the gateway interface
+     * @return a proxy of the given gateway, or the gateway itself if instrumentation is not enabled
+     */
+    public static <T> T gateway(Class<T> type, T gateway) {
+        return isEnabled() ? gateway(type, gateway, Metrics.globalRegistry) : gateway;
+    }
+
+    /**
+     * Instrument the given gateway, registering its meters in the given registry.
+     * @param type     the gateway interface
+     * @param gateway  the gateway
+     * @param registry the registry
+     * @param <T>      the gateway interface
+     * @return a proxy of the given gateway, which implements the given interface
+     */
+    public static <T> T gateway(Class<T> type, T gateway, MeterRegistry registry) {
+        return gateway(type, gateway, registry, SAMPLE_INTERVAL);
+    }
+
+    static <T> T gateway(Class<T> type, T gateway, MeterRegistry registry, int sampleInterval) {
+        ProxyFactory factory = new ProxyFactory(gateway);
+        factory.setInterfaces(type);
+        advise(factory, "gateway", gateway.getClass(), type, registry, sampleInterval);
+        return type.cast(factory.getProxy());
+    }
+
+    /*
+     * Give each public method of the given type, other than those of Object, an interceptor of its own, so that a call
+     * goes straight to the meters of its method. The factory is frozen, so that the proxy works out which interceptor
+     * each method has when it is made rather than on every call.
+     */
+    private static void advise(ProxyFactory factory, String layer, Class<?> target, Class<?> type,
+                               MeterRegistry registry, int sampleInterval) {
+        if (Integer.bitCount(sampleInterval) != 1) {
+            throw new IllegalArgumentException("The sample interval must be a power of two: " + sampleInterval);
+        }
+        for (Method method : type.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            Interceptor interceptor = new Interceptor(layer, target.getSimpleName(), method.getName(), registry,
+                    sampleInterval - 1);
+            factory.addAdvisor(new StaticMethodMatcherPointcutAdvisor(interceptor) {
+                @Override
+                public boolean matches(Method called, Class<?> targetClass) {
+                    return called.getName().equals(method.getName())
+                            && Arrays.equals(called.getParameterTypes(), method.getParameterTypes());
+                }
+            });
+        }
+        factory.setFrozen(true);
+    }
+
+    /*
+     * Counts and samples the calls to one method. Its meters are looked up in the registry the first time it is
+     * called, as is the Counter of each exception the first time it is thrown, and then kept, so that later calls do
+     * not build a meter ID.
+     */
+    private static final class Interceptor implements MethodInterceptor {
+        private final String layer;
+        private final String className;
+        private final String methodName;
+        private final MeterRegistry registry;
+        private final int sampleMask;
+        private volatile Counter calls;
+        private volatile Timer timer;
+        private final Map<Class<?>, Counter> failures = new ConcurrentHashMap<>();
+
+        Interceptor(String layer, String className, String methodName, MeterRegistry registry, int sampleMask) {
+            this.layer = layer;
+            this.className = className;
+            this.methodName = methodName;
+            this.registry = registry;
+            this.sampleMask = sampleMask;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Counter calls = this.calls;
+            if (calls == null) {
+                calls = register();
+            }
+            calls.increment();
+            boolean sampled = (ThreadLocalRandom.current().nextInt() & sampleMask) == 0;
+            long start = sampled ? System.nanoTime() : 0;
+            try {
+                return invocation.proceed();
+            } catch (Throwable e) {
+                failures.computeIfAbsent(e.getClass(), this::failures).increment();
+                throw e;
+            } finally {
+                if (sampled) {
+                    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        // Register the meters of the method, returning its call Counter, which is set last
+        private synchronized Counter register() {
+            if (calls == null) {
+                timer = Timer.builder(CALLS)
+                        .tags("layer", layer, "class", className, "method", methodName)
+                        .publishPercentileHistogram()
+                        .register(registry);
+                calls = Counter.builder(CALL_COUNT)
+                        .tags("layer", layer, "class", className, "method", methodName)
+                        .register(registry);
+            }
+            return calls;
+        }
+
+        private Counter failures(Class<?> exception) {
+            return Counter.builder(FAILURES)
+                    .tags("layer", layer, "class", className, "method", methodName,
+                            "exception", exception.getSimpleName())
+                    .register(registry);
+        }
+    }
+}
@@ -1,28 +1,330 @@
 package com.example.compound.repositories;
 
-import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.entities.Money;
+import com.example.compound.exceptions.ConcurrentUpdateException;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
+import com.example.compound.use_cases.gateways.UIDAllocator;
 import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.sql.Types;
+import java.util.*;
+
+/**
+ * A repository storing budgets in the budget table and their items in the items table.
+ *
+ * Saving a budget replaces all of its rows in the items table: the old rows are deleted and the budget's whole item map
+ * is inserted as a single JDBC batch, in one transaction. A budget's guid column is maintained by GroupRepository.
+ */
+@Repository
+public class BudgetRepository implements BudgetRepositoryGateway {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UIDAllocator uidAllocator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public BudgetRepository() {
+        this.jdbcTemplate = new JdbcTemplate();
+        this.uidAllocator = new SequenceUIDAllocator();
+    }
+
+    public BudgetRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        this.transactionTemplate = JdbcTransactions.templateFor(jdbcTemplate);
+    }
+
+    private static final String BUDGET_COLUMNS = "buid, name, max_spend, version";
+    private static final String SQL_INSERT_BUDGET = "INSERT INTO budget(buid, name, max_spend) VALUES(?, ?, ?)";
+    private static final String SQL_UPDATE_BUDGET = "UPDATE budget SET name = ?, max_spend = ?, version = version + 1 " +
+            "WHERE buid = ?";
+    private static final String SQL_UPDATE_BUDGET_IF_VERSION = "UPDATE budget SET name = ?, max_spend = ?, " +
+            "version = version + 1 WHERE buid = ? AND version = ?";
+    private static final String SQL_GET_BUDGET_BY_BUID = "SELECT " + BUDGET_COLUMNS + " FROM budget WHERE buid = ?";
+    private static final String SQL_GET_BUDGETS = "SELECT " + BUDGET_COLUMNS + " FROM budget ORDER BY buid";
+    private static final String SQL_GET_BUDGETS_BY_GUID = "SELECT " + BUDGET_COLUMNS + " FROM budget WHERE guid = ? " +
+            "ORDER BY buid";
+    private static final String SQL_GET_BUDGET_BY_IUID = "SELECT b.buid, b.name, b.max_spend, b.version FROM budget b " +
+            "JOIN items i ON i.buid = b.buid WHERE i.iuid = ?";
+    private static final String SQL_GET_BUDGET_VERSION = "SELECT version FROM budget WHERE buid = ? AND guid = ?";
+    private static final String SQL_CONTAINS_ITEM = "SELECT 1 FROM items i JOIN budget b ON i.buid = b.buid " +
+            "WHERE i.iuid = ? AND i.buid = ? AND b.guid = ?";
+    private static final String SQL_DELETE_BUDGET = "DELETE FROM budget WHERE buid = ?";
+    private static final String SQL_GET_ITEMS_BY_BUID = "SELECT " + ItemRepository.ITEM_COLUMNS + " FROM items " +
+            "WHERE buid = ? ORDER BY iuid";
+    private static final String SQL_GET_BUDGETED_ITEMS = "SELECT " + ItemRepository.ITEM_COLUMNS + " FROM items " +
+            "WHERE buid IS NOT NULL ORDER BY iuid";
+    private static final String SQL_GET_GROUPED_BUDGETS = "SELECT guid, " + BUDGET_COLUMNS + " FROM budget " +
+            "WHERE guid IS NOT NULL ORDER BY buid";
+    private static final String SQL_GET_GROUPED_ITEMS = "SELECT " + ItemRepository.ITEM_COLUMNS + " FROM items " +
+            "WHERE buid IN (SELECT buid FROM budget WHERE guid IS NOT NULL) ORDER BY iuid";
+    private static final String SQL_GET_ITEMS_BY_GUID = "SELECT " + ItemRepository.ITEM_COLUMNS + " FROM items " +
+            "WHERE buid IN (SELECT buid FROM budget WHERE guid = ?) ORDER BY iuid";
+    private static final String SQL_DELETE_ITEMS_BY_BUID = "DELETE FROM items WHERE buid = ?";
 
-public class BudgetRepository implements RepositoryGatewayI<BudgetTransferData> {
     @Override
     public BudgetTransferData findByUID(String UID) {
-        return null;
+        Integer BUID = JdbcUIDs.toKey(UID);
+        if (BUID == null) {
+            return null;
+        }
+        return firstWithItems(jdbcTemplate.query(SQL_GET_BUDGET_BY_BUID, budgetRowMapper, BUID));
+    }
+
+    /**
+     * Return the budget containing the item with the given IUID, with its items. Only the row of that budget and the
+     * rows of its items are read.
+     * @param IUID the IUID of the item
+     * @return the budget containing the item, or null if there is no such item or it is not in a budget
+     */
+    @Override
+    public BudgetTransferData findBudgetByItemUID(String IUID) {
+        Integer key = JdbcUIDs.toKey(IUID);
+        if (key == null) {
+            return null;
+        }
+        return firstWithItems(jdbcTemplate.query(SQL_GET_BUDGET_BY_IUID, budgetRowMapper, key));
+    }
+
+    /**
+     * Return the version of the budget with the given BUID if it belongs to the group with the given GUID. Only the
+     * budget's row is read, so that a client that already has the current version of a budget can be told so cheaply.
+     * @param GUID the GUID of the group
+     * @param BUID the BUID of the budget
+     * @return the version of the budget, or null if there is no such budget in the group
+     */
+    @Override
+    public Integer findVersion(String GUID, String BUID) {
+        Integer groupKey = JdbcUIDs.toKey(GUID);
+        Integer budgetKey = JdbcUIDs.toKey(BUID);
+        if (groupKey == null || budgetKey == null) {
+            return null;
+        }
+        List<Integer> versions = jdbcTemplate.queryForList(SQL_GET_BUDGET_VERSION, Integer.class, budgetKey, groupKey);
+        return versions.isEmpty() ? null : versions.get(0);
+    }
+
+    /**
+     * Return whether the item with the given IUID is in the budget with the given BUID, and that budget belongs to the
+     * group with the given GUID. Only the item's row and the budget's row are read.
+     * @param GUID the GUID of the group
+     * @param BUID the BUID of the budget
+     * @param IUID the IUID of the item
+     * @return whether there is such an item in such a budget
+     */
+    @Override
+    public boolean containsItem(String GUID, String BUID, String IUID) {
+        Integer groupKey = JdbcUIDs.toKey(GUID);
+        Integer budgetKey = JdbcUIDs.toKey(BUID);
+        Integer itemKey = JdbcUIDs.toKey(IUID);
+        if (groupKey == null || budgetKey == null || itemKey == null) {
+            return false;
+        }
+        return !jdbcTemplate.queryForList(SQL_CONTAINS_ITEM, Integer.class, itemKey, budgetKey, groupKey).isEmpty();
+    }
+
+    /*
+     * Return the first budget in the given list after reading its items, or null if the list is empty.
+     */
+    private BudgetTransferData firstWithItems(List<BudgetTransferData> budgets) {
+        if (budgets.isEmpty()) {
+            return null;
+        }
+        BudgetTransferData budget = budgets.get(0);
+        Integer BUID = JdbcUIDs.toKey(budget.getBUID());
+        for (ItemTransferData item : jdbcTemplate.query(SQL_GET_ITEMS_BY_BUID, ItemRepository.itemRowMapper, BUID)) {
+            budget.addItem(item);
+        }
+        return budget;
     }
 
+    /**
+     * Return every budget, with its items. The budgets and the items are each read with a single query.
+     * @return every budget
+     */
     @Override
     public List<BudgetTransferData> findAll() {
-        return null;
+        return withItems(jdbcTemplate.query(SQL_GET_BUDGETS, budgetRowMapper),
+                jdbcTemplate.query(SQL_GET_BUDGETED_ITEMS, ItemRepository.itemRowMapper));
     }
 
+    /**
+     * Return the budgets associated with the group with the given GUID, with their items.
+     * @param jdbcTemplate the JdbcTemplate to query with
+     * @param GUID         the GUID of the group
+     * @return the budgets associated with the group
+     */
+    static List<BudgetTransferData> findAllByGUID(JdbcTemplate jdbcTemplate, int GUID) {
+        return withItems(jdbcTemplate.query(SQL_GET_BUDGETS_BY_GUID, budgetRowMapper, GUID),
+                jdbcTemplate.query(SQL_GET_ITEMS_BY_GUID, ItemRepository.itemRowMapper, GUID));
+    }
+
+    /**
+     * Return the budgets of every group, with their items, by the GUID of the group. The budgets and the items are each
+     * read with a single query, however many groups there are.
+     * @param jdbcTemplate the JdbcTemplate to query with
+     * @return the budgets that belong to a group, by the GUID of the group
+     */
+    static Map<Integer, List<BudgetTransferData>> findAllByGroup(JdbcTemplate jdbcTemplate) {
+        Map<Integer, List<BudgetTransferData>> budgetsByGUID = new HashMap<>();
+        List<BudgetTransferData> budgets = new ArrayList<>();
+        jdbcTemplate.query(SQL_GET_GROUPED_BUDGETS, rs -> {
+            BudgetTransferData budget = budgetRowMapper.mapRow(rs, rs.getRow());
+            budgets.add(budget);
+            budgetsByGUID.computeIfAbsent(rs.getInt("guid"), k -> new ArrayList<>()).add(budget);
+        });
+        withItems(budgets, jdbcTemplate.query(SQL_GET_GROUPED_ITEMS, ItemRepository.itemRowMapper));
+        return budgetsByGUID;
+    }
+
+    private static List<BudgetTransferData> withItems(List<BudgetTransferData> budgets, List<ItemTransferData> items) {
+        Map<String, BudgetTransferData> byBUID = new HashMap<>();
+        for (BudgetTransferData budget : budgets) {
+            byBUID.put(budget.getBUID(), budget);
+        }
+        for (ItemTransferData item : items) {
+            BudgetTransferData budget = byBUID.get(item.getBUID());
+            if (budget != null) {
+                budget.addItem(item);
+            }
+        }
+        return budgets;
+    }
+
+    /**
+     * Insert the given budget, or update it if it has already been saved, and replace its items with the items in its
+     * item map. A budget or item without a UID is given a new one, which is also set on the given transfer data. The
+     * budget is saved whatever its version; an updated budget's version is increased, but the given transfer data's
+     * version is left as it is.
+     * @param budgetTransferData the budget
+     * @return the BUID of the budget
+     */
     @Override
     public String save(BudgetTransferData budgetTransferData) {
-        return null;
+        return save(budgetTransferData, false);
     }
 
+    /**
+     * Save the given budget as in save, but only if the budget has not been saved since it was read with the given
+     * transfer data's version, in which case the transfer data's version is increased to the saved budget's.
+     * @param budgetTransferData the budget
+     * @return the BUID of the budget
+     * @throws ConcurrentUpdateException if the budget was changed or deleted since it was read, in which case nothing
+     *                                   is saved
+     */
     @Override
-    public void deleteById(String UID) {
+    public String compareAndSave(BudgetTransferData budgetTransferData) {
+        return save(budgetTransferData, true);
+    }
 
+    private String save(BudgetTransferData budgetTransferData, boolean compareVersion) {
+        Integer version = transactionTemplate.execute(status -> {
+            int savedVersion = saveBudgetRow(budgetTransferData, compareVersion);
+            Integer BUID = JdbcUIDs.toKey(budgetTransferData.getBUID());
+            List<ItemTransferData> items = assignItemUIDs(budgetTransferData);
+            jdbcTemplate.update(SQL_DELETE_ITEMS_BY_BUID, BUID);
+            jdbcTemplate.batchUpdate(ItemRepository.SQL_INSERT_ITEM, items, items.size(), (ps, item) -> {
+                ps.setInt(1, JdbcUIDs.toKey(item.getIUID()));
+                ps.setInt(2, BUID);
+                ps.setString(3, item.getName());
+                ps.setBigDecimal(4, Money.ofCents(item.getCostInCents()).toBigDecimal());
+                ps.setInt(5, item.getQuantity());
+            });
+            return savedVersion;
+        });
+        if (version != null && version > 0) {
+            budgetTransferData.setVersion(version);
+        }
+        return budgetTransferData.getBUID();
     }
+
+    /*
+     * Insert or update the row of the given budget and return the version it now has, or 0 if the version was not
+     * compared and so is not known.
+     */
+    private int saveBudgetRow(BudgetTransferData budgetTransferData, boolean compareVersion) {
+        Object maxSpend = Money.ofCents(budgetTransferData.getMaxSpendInCents()).toBigDecimal();
+        if (!JdbcUIDs.isUnassigned(budgetTransferData.getBUID())) {
+            Integer BUID = JdbcUIDs.toKey(budgetTransferData.getBUID());
+            if (compareVersion) {
+                int version = budgetTransferData.getVersion();
+                if (jdbcTemplate.update(SQL_UPDATE_BUDGET_IF_VERSION, new Object[]{budgetTransferData.getName(),
+                        maxSpend, BUID, version}, new int[]{Types.VARCHAR, Types.NUMERIC, Types.INTEGER,
+                        Types.INTEGER}) > 0) {
+                    return version + 1;
+                }
+                throw new ConcurrentUpdateException("Budget " + budgetTransferData.getBUID() +
+                        " was changed or deleted after version " + version + " was read");
+            }
+            int updated = jdbcTemplate.update(SQL_UPDATE_BUDGET, new Object[]{budgetTransferData.getName(), maxSpend,
+                    BUID}, new int[]{Types.VARCHAR, Types.NUMERIC, Types.INTEGER});
+            if (updated > 0) {
+                return 0;
+            }
+        } else {
+            budgetTransferData.setBUID(Integer.toString(uidAllocator.next(UIDAllocator.Kind.BUDGET)));
+        }
+        Integer BUID = JdbcUIDs.toKey(budgetTransferData.getBUID());
+        jdbcTemplate.update(SQL_INSERT_BUDGET, new Object[]{BUID, budgetTransferData.getName(), maxSpend},
+                new int[]{Types.INTEGER, Types.VARCHAR, Types.NUMERIC});
+        return 1;
+    }
+
+    /*
+     * Give every item in the given budget that has no IUID a new one, reserving the new IUIDs together, re-keying the
+     * budget's item map if any item was given an IUID, and return the items in the budget.
+     */
+    private List<ItemTransferData> assignItemUIDs(BudgetTransferData budgetTransferData) {
+        List<ItemTransferData> items = new ArrayList<>(budgetTransferData.getBudget().values());
+        int unassigned = 0;
+        for (ItemTransferData item : items) {
+            item.setBUID(budgetTransferData.getBUID());
+            if (JdbcUIDs.isUnassigned(item.getIUID())) {
+                unassigned++;
+            }
+        }
+        if (unassigned > 0) {
+            int[] IUIDs = uidAllocator.reserve(UIDAllocator.Kind.ITEM, unassigned);
+            int next = 0;
+            for (ItemTransferData item : items) {
+                if (JdbcUIDs.isUnassigned(item.getIUID())) {
+                    item.setIUID(Integer.toString(IUIDs[next++]));
+                }
+            }
+            Map<String, ItemTransferData> budget = new HashMap<>();
+            for (ItemTransferData item : items) {
+                budget.put(item.getIUID(), item);
+            }
+            budgetTransferData.setBudget(budget);
+        }
+        return items;
+    }
+
+    /**
+     * Delete the budget with the given BUID. Its items are deleted with it.
+     * @param UID the BUID of the budget
+     */
+    @Override
+    public void deleteById(String UID) {
+        Integer BUID = JdbcUIDs.toKey(UID);
+        if (BUID != null) {
+            jdbcTemplate.update(SQL_DELETE_BUDGET, BUID);
+        }
+    }
+
+    private static final RowMapper<BudgetTransferData> budgetRowMapper = ((rs, rowNum) -> {
+        BudgetTransferData budget = new BudgetTransferData(
+                rs.getString("buid"),
+                rs.getString("name"),
+                Money.of(rs.getBigDecimal("max_spend")));
+        budget.setVersion(rs.getInt("version"));
+        return budget;
+    });
 }
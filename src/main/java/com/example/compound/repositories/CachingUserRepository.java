@@ -0,0 +1,223 @@
+package com.example.compound.repositories;
+
+import com.example.compound.entities.User;
+import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.use_cases.transfer_data.UserRegistration;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Repository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * A UserRepository that keeps recently read users in memory in front of another UserRepository, so that repeated
+ * reads of the same user, such as the dashboard's polling, do not each run a query.
+ *
+ * The cache holds at most maximumSize users and evicts the least recently read user when it is full. A user is read
+ * from the repository again once it has been cached for longer than timeToLive, so that changes made to the database by
+ * other processes are seen eventually. Users created through this repository are not cached until they are first read,
+ * so that every cached User is one built by the repository from its row, and users updated through it are removed from
+ * the cache. A read that started before a user was removed is not cached, so that it cannot put back the user as it was
+ * before the update; reads of other users are cached as usual.
+ *
+ * Hits and misses are counted in compound.user.cache.requests, tagged with result "hit" or "miss", and evictions of
+ * users for lack of room in compound.user.cache.evictions. The cached User objects are shared by every caller, so they
+ * must not be changed other than through update.
+ */
+@Primary
+@Repository
+public class CachingUserRepository implements UserRepository {
+    private final UserRepository repository;
+    private final int maximumSize;
+    private final long timeToLive;
+    private final Clock clock;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    // In order of last read, least recent first; guarded by itself
+    private final LinkedHashMap<Integer, Entry> entries;
+    // The reads from the repository in flight, by UUID, removed once the last finishes or the user is invalidated;
+    // guarded by entries
+    private final Map<Integer, Load> loads = new HashMap<>();
+
+    private static final class Entry {
+        final User user;
+        final long expiresAt;
+
+        Entry(User user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /*
+     * The reads of one user that started since it was last invalidated, which may be cached unless it is invalidated
+     * again before they finish. Guarded by entries.
+     */
+    private static final class Load {
+        int readers;
+        boolean invalidated;
+    }
+
+    @Autowired
+    public CachingUserRepository(UserRepositoryImpl repository,
+                                 @Value("${compound.user-cache.maximum-size:10000}") int maximumSize,
+                                 @Value("${compound.user-cache.time-to-live:30s}") Duration timeToLive) {
+        this(repository, maximumSize, timeToLive, Clock.systemUTC(), Metrics.globalRegistry);
+    }
+
+    /**
+     * Construct a cache in front of the given repository.
+     * @param repository  the repository
+     * @param maximumSize the most users to cache
+     * @param timeToLive  how long a user is cached for
+     * @param clock       the clock by which users expire
+     * @param registry    the registry in which to count hits, misses and evictions
+     */
+    public CachingUserRepository(UserRepository repository, int maximumSize, Duration timeToLive, Clock clock,
+                                 MeterRegistry registry) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("The maximum size must be positive but was " + maximumSize);
+        }
+        this.repository = repository;
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive.toMillis();
+        this.clock = clock;
+        this.hits = Counter.builder("compound.user.cache.requests").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("compound.user.cache.requests").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("compound.user.cache.evictions").register(registry);
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entry> eldest) {
+                if (size() > CachingUserRepository.this.maximumSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("compound.user.cache.size", this, CachingUserRepository::size).register(registry);
+    }
+
+    @Override
+    public Integer create(String name, String email, String username, String password) throws UserAuthException {
+        return repository.create(name, email, username, password);
+    }
+
+    @Override
+    public int createAll(List<UserRegistration> users) {
+        return repository.createAll(users);
+    }
+
+    @Override
+    public User findByEmailAndPassword(String email, String password) throws UserAuthException {
+        return repository.findByEmailAndPassword(email, password);
+    }
+
+    @Override
+    public Integer getCountByEmail(String email) {
+        return repository.getCountByEmail(email);
+    }
+
+    @Override
+    public User findById(int id) {
+        Load load;
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry != null && clock.millis() < entry.expiresAt) {
+                hits.increment();
+                return entry.user;
+            }
+            if (entry != null) {
+                entries.remove(id);
+            }
+            load = loads.computeIfAbsent(id, k -> new Load());
+            load.readers++;
+        }
+        misses.increment();
+        User user = null;
+        try {
+            user = repository.findById(id);
+        } finally {
+            synchronized (entries) {
+                if (--load.readers == 0 && loads.get(id) == load) {
+                    loads.remove(id);
+                }
+                if (user != null && !load.invalidated) {
+                    put(id, user);
+                }
+            }
+        }
+        return user;
+    }
+
+    @Override
+    public void update(User user) {
+        try {
+            repository.update(user);
+        } finally {
+            invalidate(user.getUUID());
+        }
+    }
+
+    @Override
+    public List<Map<String, Object>> listAllUsers() {
+        return repository.listAllUsers();
+    }
+
+    @Override
+    public List<UserTransferData> findPage(int afterUUID, int limit) {
+        return repository.findPage(afterUUID, limit);
+    }
+
+    @Override
+    public void forEachUser(int fetchSize, Consumer<UserTransferData> action) {
+        repository.forEachUser(fetchSize, action);
+    }
+
+    /**
+     * Remove the user with the given UUID from the cache, as when the user has been changed in the database by some
+     * other means than this repository.
+     * @param uuid the UUID of the user
+     */
+    public void invalidate(int uuid) {
+        synchronized (entries) {
+            entries.remove(uuid);
+            Load load = loads.remove(uuid);
+            if (load != null) {
+                load.invalidated = true;
+            }
+        }
+    }
+
+    /**
+     * Return the number of users in the cache, including any that have expired but have not been read since.
+     * @return the number of users in the cache
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /*
+     * Cache the given user, which has just been read from the repository.
+     */
+    private void put(int uuid, User user) {
+        synchronized (entries) {
+            entries.put(uuid, new Entry(user, clock.millis() + timeToLive));
+        }
+    }
+}
@@ -1,29 +1,221 @@
 package com.example.compound.repositories;
 
-import com.example.compound.entities.Group;
-import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.entities.Budget;
+import com.example.compound.exceptions.ConcurrentUpdateException;
+import com.example.compound.use_cases.gateways.UIDAllocator;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.util.List;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * A repository storing groups in the groups table, their members in the group_members table, and which budgets belong
+ * to them in the guid column of the budget table. The budgets themselves are saved by BudgetRepository.
+ *
+ * Group expenses are not stored, since there is no repository for expenses yet; groups are read back with an empty
+ * list of expenses.
+ */
+@Repository
+public class GroupRepository implements VersionedRepositoryGateway<GroupTransferData> {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UIDAllocator uidAllocator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public GroupRepository() {
+        this.jdbcTemplate = new JdbcTemplate();
+        this.uidAllocator = new SequenceUIDAllocator();
+    }
+
+    public GroupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        this.transactionTemplate = JdbcTransactions.templateFor(jdbcTemplate);
+    }
+
+    private static final String SQL_INSERT_GROUP = "INSERT INTO groups(guid, name, description) VALUES(?, ?, ?)";
+    private static final String SQL_UPDATE_GROUP = "UPDATE groups SET name = ?, description = ?, " +
+            "version = version + 1 WHERE guid = ?";
+    private static final String SQL_UPDATE_GROUP_IF_VERSION = "UPDATE groups SET name = ?, description = ?, " +
+            "version = version + 1 WHERE guid = ? AND version = ?";
+    private static final String SQL_GET_GROUP_BY_GUID = "SELECT guid, name, description, version FROM groups " +
+            "WHERE guid = ?";
+    private static final String SQL_GET_GROUPS = "SELECT guid, name, description, version FROM groups ORDER BY guid";
+    private static final String SQL_DELETE_GROUP = "DELETE FROM groups WHERE guid = ?";
+    private static final String SQL_INSERT_MEMBER = "INSERT INTO group_members(guid, email, position) VALUES(?, ?, ?)";
+    private static final String SQL_GET_MEMBERS_BY_GUID = "SELECT email FROM group_members WHERE guid = ? " +
+            "ORDER BY position";
+    private static final String SQL_GET_MEMBERS = "SELECT guid, email FROM group_members ORDER BY guid, position";
+    private static final String SQL_DELETE_MEMBERS_BY_GUID = "DELETE FROM group_members WHERE guid = ?";
+    private static final String SQL_UNLINK_BUDGETS = "UPDATE budget SET guid = NULL WHERE guid = ?";
+    private static final String SQL_LINK_BUDGET = "UPDATE budget SET guid = ? WHERE buid = ?";
 
-public class GroupRepository implements RepositoryGatewayI<GroupTransferData> {
     @Override
     public GroupTransferData findByUID(String UID) {
-        return null;
+        Integer GUID = JdbcUIDs.toKey(UID);
+        if (GUID == null) {
+            return null;
+        }
+        List<GroupTransferData> groups = jdbcTemplate.query(SQL_GET_GROUP_BY_GUID, groupRowMapper, GUID);
+        if (groups.isEmpty()) {
+            return null;
+        }
+        GroupTransferData group = groups.get(0);
+        group.getGroupMembers().addAll(jdbcTemplate.queryForList(SQL_GET_MEMBERS_BY_GUID, String.class, GUID));
+        addBudgets(group);
+        return group;
     }
 
+    /**
+     * Return every group, with its members and budgets. The members, budgets and items of all groups are each read
+     * with a single query.
+     * @return every group
+     */
     @Override
     public List<GroupTransferData> findAll() {
-        return null;
+        Map<Integer, List<String>> membersByGUID = new HashMap<>();
+        jdbcTemplate.query(SQL_GET_MEMBERS, rs -> {
+            membersByGUID.computeIfAbsent(rs.getInt("guid"), k -> new ArrayList<>()).add(rs.getString("email"));
+        });
+        Map<Integer, List<BudgetTransferData>> budgetsByGUID = BudgetRepository.findAllByGroup(jdbcTemplate);
+        List<GroupTransferData> groups = jdbcTemplate.query(SQL_GET_GROUPS, groupRowMapper);
+        for (GroupTransferData group : groups) {
+            Integer GUID = JdbcUIDs.toKey(group.getGUID());
+            group.getGroupMembers().addAll(membersByGUID.getOrDefault(GUID, Collections.emptyList()));
+            for (BudgetTransferData budget : budgetsByGUID.getOrDefault(GUID, Collections.emptyList())) {
+                group.addBudget(budget.toBudget());
+            }
+        }
+        return groups;
+    }
+
+    private void addBudgets(GroupTransferData group) {
+        int GUID = JdbcUIDs.toKey(group.getGUID());
+        for (BudgetTransferData budget : BudgetRepository.findAllByGUID(jdbcTemplate, GUID)) {
+            group.addBudget(budget.toBudget());
+        }
     }
 
+    /**
+     * Insert the given group, or update it if it has already been saved, replacing its members and the set of budgets
+     * that belong to it. The budgets must already have been saved. A group without a GUID is given a new one, which is
+     * also set on the given transfer data. The group is saved whatever its version; an updated group's version is
+     * increased, but the given transfer data's version is left as it is.
+     * @param group the group
+     * @return the GUID of the group
+     */
     @Override
     public String save(GroupTransferData group) {
-        return null;
+        return save(group, false);
     }
 
+    /**
+     * Save the given group as in save, but only if the group has not been saved since it was read with the given
+     * transfer data's version, in which case the transfer data's version is increased to the saved group's.
+     * @param group the group
+     * @return the GUID of the group
+     * @throws ConcurrentUpdateException if the group was changed or deleted since it was read, in which case nothing
+     *                                   is saved
+     */
     @Override
-    public void deleteById(String UID) {
+    public String compareAndSave(GroupTransferData group) {
+        return save(group, true);
+    }
 
+    private String save(GroupTransferData group, boolean compareVersion) {
+        Integer version = transactionTemplate.execute(status -> {
+            int savedVersion = saveGroupRow(group, compareVersion);
+            Integer GUID = JdbcUIDs.toKey(group.getGUID());
+
+            jdbcTemplate.update(SQL_DELETE_MEMBERS_BY_GUID, GUID);
+            List<String> members = new ArrayList<>(new LinkedHashSet<>(group.getGroupMembers()));
+            jdbcTemplate.batchUpdate(SQL_INSERT_MEMBER, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setInt(1, GUID);
+                    ps.setString(2, members.get(i));
+                    ps.setInt(3, i);
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return members.size();
+                }
+            });
+
+            jdbcTemplate.update(SQL_UNLINK_BUDGETS, GUID);
+            List<Budget> budgets = group.getBudgets() == null ? new ArrayList<>() : group.getBudgets();
+            jdbcTemplate.batchUpdate(SQL_LINK_BUDGET, budgets, budgets.size(), (ps, budget) -> {
+                ps.setInt(1, GUID);
+                ps.setInt(2, JdbcUIDs.toKey(budget.getBUID()));
+            });
+            return savedVersion;
+        });
+        if (version != null && version > 0) {
+            group.setVersion(version);
+        }
+        return group.getGUID();
+    }
+
+    /*
+     * Insert or update the row of the given group and return the version it now has, or 0 if the version was not
+     * compared and so is not known.
+     */
+    private int saveGroupRow(GroupTransferData group, boolean compareVersion) {
+        if (!JdbcUIDs.isUnassigned(group.getGUID())) {
+            Integer GUID = JdbcUIDs.toKey(group.getGUID());
+            if (compareVersion) {
+                int version = group.getVersion();
+                if (jdbcTemplate.update(SQL_UPDATE_GROUP_IF_VERSION, group.getName(), group.getDescription(), GUID,
+                        version) > 0) {
+                    return version + 1;
+                }
+                throw new ConcurrentUpdateException("Group " + group.getGUID() + " was changed or deleted after " +
+                        "version " + version + " was read");
+            }
+            if (jdbcTemplate.update(SQL_UPDATE_GROUP, group.getName(), group.getDescription(), GUID) > 0) {
+                return 0;
+            }
+        } else {
+            group.setGUID(Integer.toString(uidAllocator.next(UIDAllocator.Kind.GROUP)));
+        }
+        Integer GUID = JdbcUIDs.toKey(group.getGUID());
+        jdbcTemplate.update(SQL_INSERT_GROUP, GUID, group.getName(), group.getDescription());
+        return 1;
     }
+
+    /**
+     * Delete the group with the given GUID. Its members and budgets are deleted with it.
+     * @param UID the GUID of the group
+     */
+    @Override
+    public void deleteById(String UID) {
+        Integer GUID = JdbcUIDs.toKey(UID);
+        if (GUID != null) {
+            jdbcTemplate.update(SQL_DELETE_GROUP, GUID);
+        }
+    }
+
+    private static final RowMapper<GroupTransferData> groupRowMapper = ((rs, rowNum) -> {
+        GroupTransferData group = new GroupTransferData(
+                rs.getString("name"),
+                new ArrayList<>(),
+                new ArrayList<>(),
+                rs.getString("description"),
+                rs.getString("guid"),
+                new ArrayList<>());
+        group.setVersion(rs.getInt("version"));
+        return group;
+    });
 }
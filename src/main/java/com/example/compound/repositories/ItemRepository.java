@@ -1,28 +1,100 @@
 package com.example.compound.repositories;
 
+import com.example.compound.entities.Money;
 import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.use_cases.gateways.UIDAllocator;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
 
+import java.sql.Types;
 import java.util.List;
 
+/**
+ * A repository storing items in the items table. An item's buid column refers to the budget containing it.
+ */
+@Repository
 public class ItemRepository implements RepositoryGatewayI<ItemTransferData> {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UIDAllocator uidAllocator;
+
+    public ItemRepository() {
+        this.jdbcTemplate = new JdbcTemplate();
+        this.uidAllocator = new SequenceUIDAllocator();
+    }
+
+    public ItemRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+    }
+
+    static final String ITEM_COLUMNS = "iuid, buid, name, cost, quantity";
+    static final String SQL_INSERT_ITEM = "INSERT INTO items(" + ITEM_COLUMNS + ") VALUES(?, ?, ?, ?, ?)";
+    private static final String SQL_UPDATE_ITEM = "UPDATE items SET buid = ?, name = ?, cost = ?, quantity = ? " +
+            "WHERE iuid = ?";
+    private static final String SQL_GET_ITEM_BY_IUID = "SELECT " + ITEM_COLUMNS + " FROM items WHERE iuid = ?";
+    private static final String SQL_GET_ITEMS = "SELECT " + ITEM_COLUMNS + " FROM items ORDER BY iuid";
+    private static final String SQL_DELETE_ITEM = "DELETE FROM items WHERE iuid = ?";
+
     @Override
     public ItemTransferData findByUID(String UID) {
-        return null;
+        Integer IUID = JdbcUIDs.toKey(UID);
+        if (IUID == null) {
+            return null;
+        }
+        List<ItemTransferData> items = jdbcTemplate.query(SQL_GET_ITEM_BY_IUID, itemRowMapper, IUID);
+        return items.isEmpty() ? null : items.get(0);
     }
 
     @Override
     public List<ItemTransferData> findAll() {
-        return null;
+        return jdbcTemplate.query(SQL_GET_ITEMS, itemRowMapper);
     }
 
+    /**
+     * Insert the given item, or update it if it has already been saved. An item without an IUID is given a new one.
+     * @param itemTransferData the item
+     * @return the IUID of the item
+     */
     @Override
     public String save(ItemTransferData itemTransferData) {
-        return null;
+        Integer BUID = JdbcUIDs.toKey(itemTransferData.getBUID());
+        Object cost = Money.ofCents(itemTransferData.getCostInCents()).toBigDecimal();
+        if (!JdbcUIDs.isUnassigned(itemTransferData.getIUID())) {
+            int updated = jdbcTemplate.update(SQL_UPDATE_ITEM, new Object[]{BUID, itemTransferData.getName(), cost,
+                            itemTransferData.getQuantity(), JdbcUIDs.toKey(itemTransferData.getIUID())},
+                    new int[]{Types.INTEGER, Types.VARCHAR, Types.NUMERIC, Types.INTEGER, Types.INTEGER});
+            if (updated > 0) {
+                return itemTransferData.getIUID();
+            }
+        } else {
+            itemTransferData.setIUID(Integer.toString(uidAllocator.next(UIDAllocator.Kind.ITEM)));
+        }
+        jdbcTemplate.update(SQL_INSERT_ITEM, new Object[]{JdbcUIDs.toKey(itemTransferData.getIUID()), BUID,
+                        itemTransferData.getName(), cost, itemTransferData.getQuantity()},
+                new int[]{Types.INTEGER, Types.INTEGER, Types.VARCHAR, Types.NUMERIC, Types.INTEGER});
+        return itemTransferData.getIUID();
     }
 
     @Override
     public void deleteById(String UID) {
-
+        Integer IUID = JdbcUIDs.toKey(UID);
+        if (IUID != null) {
+            jdbcTemplate.update(SQL_DELETE_ITEM, IUID);
+        }
     }
+
+    static final RowMapper<ItemTransferData> itemRowMapper = ((rs, rowNum) -> {
+        ItemTransferData item = new ItemTransferData(
+                rs.getString("iuid"),
+                rs.getString("name"),
+                Money.of(rs.getBigDecimal("cost")),
+                rs.getInt("quantity"));
+        item.setBUID(rs.getString("buid"));
+        return item;
+    });
 }
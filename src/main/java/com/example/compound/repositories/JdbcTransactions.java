@@ -0,0 +1,27 @@
+package com.example.compound.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Objects;
+
+/**
+ * Transactions for the JDBC repositories when they are constructed outside of Spring, which otherwise injects its own
+ * TransactionTemplate.
+ */
+final class JdbcTransactions {
+    private JdbcTransactions() {
+    }
+
+    /**
+     * Return a TransactionTemplate for the DataSource of the given JdbcTemplate. It is meant to be made once for each
+     * repository, not for each transaction.
+     * @param jdbcTemplate the JdbcTemplate
+     * @return a TransactionTemplate whose transactions are on the JdbcTemplate's DataSource
+     */
+    static TransactionTemplate templateFor(JdbcTemplate jdbcTemplate) {
+        return new TransactionTemplate(new DataSourceTransactionManager(
+                Objects.requireNonNull(jdbcTemplate.getDataSource())));
+    }
+}
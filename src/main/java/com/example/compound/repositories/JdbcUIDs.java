@@ -0,0 +1,64 @@
+package com.example.compound.repositories;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+/**
+ * Conversions between the string UIDs used by the rest of the program and the integer keys of the database tables.
+ */
+final class JdbcUIDs {
+    private static final String SQL_GET_INCREMENT = "SELECT increment FROM information_schema.sequences " +
+            "WHERE LOWER(sequence_name) = ?";
+
+    private JdbcUIDs() {
+    }
+
+    /**
+     * Return the integer key with the given UID.
+     * @param UID the UID
+     * @return the integer key, or null if the UID is null or not a number, in which case no row has it as a key
+     */
+    static Integer toKey(String UID) {
+        if (UID == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(UID);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Return whether the given UID has yet to be assigned by the database.
+     * @param UID the UID
+     * @return whether the UID is null or empty
+     */
+    static boolean isUnassigned(String UID) {
+        return UID == null || UID.isEmpty();
+    }
+
+    /**
+     * Return the next value of the given sequence.
+     * @param jdbcTemplate the JdbcTemplate to query with
+     * @param sequence     the name of the sequence
+     * @return the next value of the sequence
+     */
+    static int nextValue(JdbcTemplate jdbcTemplate, String sequence) {
+        Integer value = jdbcTemplate.queryForObject("SELECT NEXTVAL('" + sequence + "')", Integer.class);
+        return value == null ? 0 : value;
+    }
+
+    /**
+     * Return the increment of the given sequence.
+     * @param jdbcTemplate the JdbcTemplate to query with
+     * @param sequence     the name of the sequence
+     * @return the increment of the sequence, or null if there is no such sequence
+     */
+    static Long increment(JdbcTemplate jdbcTemplate, String sequence) {
+        // PostgreSQL reports the increment as a string and H2 as a number, so read it as a string either way
+        List<String> increments = jdbcTemplate.queryForList(SQL_GET_INCREMENT, String.class, sequence.toLowerCase());
+        return increments.isEmpty() ? null : Long.valueOf(increments.get(0).trim());
+    }
+}
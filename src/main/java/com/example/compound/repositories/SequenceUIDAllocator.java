@@ -0,0 +1,139 @@
+package com.example.compound.repositories;
+
+import com.example.compound.use_cases.gateways.UIDAllocator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A UIDAllocator that hands out UIDs in blocks reserved from the database's sequences.
+ *
+ * Every sequence in compound_db.sql increments by BLOCK_SIZE, so each NEXTVAL reserves the BLOCK_SIZE values starting
+ * at the value returned for whoever called it. This allocator hands out the UIDs of a block from an atomic counter
+ * and only queries the database when the block runs out, so UIDs from several allocators, or several processes,
+ * never collide. The UIDs left in a block when the program stops are never used.
+ *
+ * The first time a sequence is used, its increment is read from information_schema.sequences, and an
+ * IllegalStateException is thrown if it is not BLOCK_SIZE, since the blocks of this allocator would then overlap the
+ * values handed out to others.
+ *
+ * The repositories share the one allocator, so next() reserves a block for every BLOCK_SIZE rows saved one at a time,
+ * and reserve() gives a bulk insert blocks of its own.
+ */
+@Component
+public class SequenceUIDAllocator implements UIDAllocator {
+    // The increment of every sequence in compound_db.sql
+    public static final int BLOCK_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // The block currently handing out the UIDs of each kind of entity, indexed by the kind's ordinal
+    private final AtomicReferenceArray<Block> blocks = new AtomicReferenceArray<>(Kind.values().length);
+    // The kinds whose sequences have been checked to increment by BLOCK_SIZE
+    private final Set<Kind> checked = ConcurrentHashMap.newKeySet();
+
+    public SequenceUIDAllocator() {
+        this.jdbcTemplate = new JdbcTemplate();
+    }
+
+    public SequenceUIDAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /*
+     * The values in [next, end) that have yet to be handed out.
+     */
+    private static class Block {
+        private final AtomicInteger next;
+        private final int end;
+
+        Block(int start) {
+            this.next = new AtomicInteger(start);
+            this.end = start + BLOCK_SIZE;
+        }
+    }
+
+    @Override
+    public int next(Kind kind) {
+        while (true) {
+            Block block = blocks.get(kind.ordinal());
+            if (block != null) {
+                int UID = block.next.getAndIncrement();
+                if (UID < block.end) {
+                    return UID;
+                }
+            }
+            refill(kind, block);
+        }
+    }
+
+    /*
+     * Replace the given exhausted block of the given kind with a new one, unless another thread already has.
+     */
+    private void refill(Kind kind, Block exhausted) {
+        synchronized (blocks) {
+            if (blocks.get(kind.ordinal()) == exhausted) {
+                blocks.set(kind.ordinal(), new Block(nextBlock(kind)));
+            }
+        }
+    }
+
+    /**
+     * Return the given number of new UIDs, taken from new blocks so that a bulk insert does not use up the block
+     * shared by other callers. This takes one query for every BLOCK_SIZE UIDs.
+     */
+    @Override
+    public int[] reserve(Kind kind, int count) {
+        int[] UIDs = new int[count];
+        for (int i = 0; i < count; i += BLOCK_SIZE) {
+            int start = nextBlock(kind);
+            for (int j = i; j < Math.min(count, i + BLOCK_SIZE); j++) {
+                UIDs[j] = start + j - i;
+            }
+        }
+        return UIDs;
+    }
+
+    /*
+     * Reserve a new block of the given kind and return its first value, checking the sequence's increment first if
+     * this is the first block of the kind.
+     */
+    private int nextBlock(Kind kind) {
+        String sequence = sequenceOf(kind);
+        if (!checked.contains(kind)) {
+            Long increment = JdbcUIDs.increment(jdbcTemplate, sequence);
+            if (increment == null) {
+                throw new IllegalStateException("No sequence " + sequence);
+            }
+            if (increment != BLOCK_SIZE) {
+                throw new IllegalStateException("Sequence " + sequence + " increments by " + increment +
+                        ", but SequenceUIDAllocator reserves blocks of " + BLOCK_SIZE);
+            }
+            checked.add(kind);
+        }
+        return JdbcUIDs.nextValue(jdbcTemplate, sequence);
+    }
+
+    private static String sequenceOf(Kind kind) {
+        switch (kind) {
+            case USER:
+                return "users_seq";
+            case EXPENSE:
+                return "expenses_seq";
+            case GROUP:
+                return "groups_seq";
+            case BUDGET:
+                return "budget_seq";
+            case ITEM:
+                return "items_seq";
+            default:
+                throw new IllegalArgumentException("No sequence for " + kind);
+        }
+    }
+}
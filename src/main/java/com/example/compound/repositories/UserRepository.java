@@ -2,16 +2,27 @@ package com.example.compound.repositories;
 
 import com.example.compound.entities.User;
 import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.use_cases.transfer_data.UserRegistration;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface UserRepository {
     Integer create(String firstName, String lastName, String email, String password) throws UserAuthException;
+    // Creates the given users, setting the UUID of each that is created and the error of each that is not, and returns
+    // the number created
+    int createAll(List<UserRegistration> users);
     User findByEmailAndPassword(String email, String password) throws UserAuthException;
     Integer getCountByEmail(String email);
     User findById(int id);
+    void update(User user);
     List<Map<String, Object>> listAllUsers();
+    // Returns at most limit users whose UUIDs are greater than afterUUID, in order of UUID
+    List<UserTransferData> findPage(int afterUUID, int limit);
+    // Passes every user to action in order of UUID, reading fetchSize rows from the database at a time
+    void forEachUser(int fetchSize, Consumer<UserTransferData> action);
 }
 
 
@@ -1,27 +1,56 @@
 package com.example.compound.repositories;
 
+import com.example.compound.entities.Money;
 import com.example.compound.entities.User;
 import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.use_cases.gateways.UIDAllocator;
+import com.example.compound.use_cases.transfer_data.UserRegistration;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.math.BigDecimal;
 import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
 
 
 @Repository
 public class UserRepositoryImpl implements UserRepository {
     @Autowired
     private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private UIDAllocator uidAllocator;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
 
     public UserRepositoryImpl() {
         this.jdbcTemplate = new JdbcTemplate();
+        this.uidAllocator = new SequenceUIDAllocator();
+    }
+
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        this.transactionTemplate = JdbcTransactions.templateFor(jdbcTemplate);
+    }
+
+    public UserRepositoryImpl(JdbcTemplate jdbcTemplate, UIDAllocator uidAllocator) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.uidAllocator = uidAllocator;
+        this.transactionTemplate = JdbcTransactions.templateFor(jdbcTemplate);
     }
 
 //    private static final String SQL_CREATE_USER = "INSERT INTO users(USER_ID, FIRST_NAME, LAST_NAME, EMAIL, PASSWORD) VALUES(NEXTVAL('ET_USERS_SEQ'), ?, ?, ?, ?)";
@@ -32,29 +61,117 @@ public class UserRepositoryImpl implements UserRepository {
 //            "FROM ET_USERS WHERE EMAIL = ?";
 
 
+    public static final int BATCH_SIZE = 1000;
+    // The widths of the columns of the users table
+    private static final int MAX_NAME_LENGTH = 40;
+    private static final int MAX_EMAIL_LENGTH = 50;
+    private static final int MAX_USERNAME_LENGTH = 40;
+
     private static final String SQL_CREATE_USER = "INSERT INTO users(uuid, name, email, username, password, expenses, " +
-            "balance) VALUES(NEXTVAL('users_seq'), ?, ?, ?, ?, '{}', 0)";
+            "balance) VALUES(?, ?, ?, ?, ?, '{}', 0)";
     private static final String SQL_GET_USER_BY_UUID = "SELECT * FROM users WHERE uuid = ?";
+    private static final String PUBLIC_USER_COLUMNS = "uuid, name, email, username, balance";
+    private static final String SQL_GET_USER_PAGE = "SELECT " + PUBLIC_USER_COLUMNS + " FROM users WHERE uuid > ? " +
+            "ORDER BY uuid LIMIT ?";
+    private static final String SQL_GET_USERS = "SELECT " + PUBLIC_USER_COLUMNS + " FROM users ORDER BY uuid";
+    private static final String SQL_UPDATE_USER = "UPDATE users SET name = ?, email = ?, username = ?, password = ?, " +
+            "balance = ? WHERE uuid = ?";
 
 
 
     @Override
     public Integer create(String name, String email, String username, String password) throws UserAuthException {
         try {
-            KeyHolder keyHolder = new GeneratedKeyHolder();
-            jdbcTemplate.update(connection -> {
-                PreparedStatement ps = connection.prepareStatement(SQL_CREATE_USER, Statement.RETURN_GENERATED_KEYS);
-                ps.setString(1, name);
-                ps.setString(2, email);
-                ps.setString(3, username);
-                ps.setString(4, password);
-                return ps;
-            }, keyHolder);
-            return (Integer) keyHolder.getKeys().get("uuid");
+            int uuid = uidAllocator.next(UIDAllocator.Kind.USER);
+            jdbcTemplate.update(SQL_CREATE_USER, uuid, name, email, username, password);
+            return uuid;
         } catch (Exception ignored) { }
         return 0;
     }
 
+    /**
+     * Create the given users, inserting them BATCH_SIZE at a time as one JDBC batch in one transaction, and set the UUID
+     * of each user that is created and the error of each user that is not. The UUIDs of all the users are reserved from
+     * the sequence at once. Users that would not fit the columns of the users table are not inserted. If a batch fails
+     * anyway, its transaction is rolled back and its users are inserted one at a time, so that only the users that
+     * cannot be inserted fail.
+     * @param users the users to create
+     * @return the number of users created
+     */
+    @Override
+    public int createAll(List<UserRegistration> users) {
+        List<UserRegistration> valid = new ArrayList<>(users.size());
+        for (UserRegistration user : users) {
+            String error = validate(user);
+            if (error == null) {
+                valid.add(user);
+            } else {
+                user.setError(error);
+            }
+        }
+        int[] UUIDs = uidAllocator.reserve(UIDAllocator.Kind.USER, valid.size());
+        int created = 0;
+        for (int start = 0; start < valid.size(); start += BATCH_SIZE) {
+            List<UserRegistration> batch = valid.subList(start, Math.min(valid.size(), start + BATCH_SIZE));
+            int first = start;
+            try {
+                transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(SQL_CREATE_USER,
+                        new BatchPreparedStatementSetter() {
+                            @Override
+                            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                                UserRegistration user = batch.get(i);
+                                ps.setInt(1, UUIDs[first + i]);
+                                ps.setString(2, user.getName());
+                                ps.setString(3, user.getEmail());
+                                ps.setString(4, user.getUsername());
+                                ps.setString(5, user.getPassword());
+                            }
+
+                            @Override
+                            public int getBatchSize() {
+                                return batch.size();
+                            }
+                        }));
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).setUUID(UUIDs[first + i]);
+                }
+                created += batch.size();
+            } catch (DataAccessException e) {
+                for (int i = 0; i < batch.size(); i++) {
+                    UserRegistration user = batch.get(i);
+                    try {
+                        jdbcTemplate.update(SQL_CREATE_USER, UUIDs[first + i], user.getName(), user.getEmail(),
+                                user.getUsername(), user.getPassword());
+                        user.setUUID(UUIDs[first + i]);
+                        created++;
+                    } catch (DataAccessException rowException) {
+                        user.setError(rowException.getMostSpecificCause().getMessage());
+                    }
+                }
+            }
+        }
+        return created;
+    }
+
+    /*
+     * Return why the given user cannot be inserted into the users table, or null if it can be.
+     */
+    private static String validate(UserRegistration user) {
+        if (user.getName() == null || user.getName().isEmpty() || user.getName().length() > MAX_NAME_LENGTH) {
+            return "name must have from 1 to " + MAX_NAME_LENGTH + " characters";
+        }
+        if (user.getEmail() == null || !user.getEmail().contains("@") || user.getEmail().length() > MAX_EMAIL_LENGTH) {
+            return "email must be an email address of at most " + MAX_EMAIL_LENGTH + " characters";
+        }
+        if (user.getUsername() != null && user.getUsername().length() > MAX_USERNAME_LENGTH) {
+            return "username must have at most " + MAX_USERNAME_LENGTH + " characters";
+        }
+        if (user.getPassword() == null || user.getPassword().isEmpty()) {
+            return "password must not be empty";
+        }
+        return null;
+    }
+
     @Override
     public User findByEmailAndPassword(String email, String password) throws UserAuthException {
         return null;
@@ -71,15 +188,56 @@ public class UserRepositoryImpl implements UserRepository {
 
     @Override
     public User findById(int id) {
-        System.out.println("I'm here" + id);
         return jdbcTemplate.queryForObject(SQL_GET_USER_BY_UUID, new Object[]{id}, userRowMapper);
     }
 
+    @Override
+    public void update(User user) {
+        jdbcTemplate.update(SQL_UPDATE_USER, new Object[]{user.getName(), user.getEmail(), user.getUsername(),
+                        user.getPassword(), Money.ofCents(user.getBalanceInCents()).toBigDecimal(), user.getUUID()},
+                new int[]{Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.INTEGER});
+    }
+
+    @Override
+    public List<UserTransferData> findPage(int afterUUID, int limit) {
+        return jdbcTemplate.query(SQL_GET_USER_PAGE, publicUserRowMapper, afterUUID, limit);
+    }
+
+    /**
+     * Pass every user to the given action in order of UUID, without holding more than fetchSize rows in memory at a
+     * time. The query runs in a read-only transaction, since PostgreSQL only reads a result set in batches of the
+     * fetch size, rather than all at once, when autocommit is off.
+     * @param fetchSize the number of rows to read from the database at a time
+     * @param action    the action
+     */
+    @Override
+    public void forEachUser(int fetchSize, Consumer<UserTransferData> action) {
+        TransactionTemplate transaction = new TransactionTemplate(
+                Objects.requireNonNull(transactionTemplate.getTransactionManager()));
+        transaction.setReadOnly(true);
+        transaction.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(SQL_GET_USERS, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) rs -> action.accept(publicUserRowMapper.mapRow(rs, rs.getRow()))));
+    }
+
+    private final RowMapper<UserTransferData> publicUserRowMapper = ((rs, rowNum) -> {
+        BigDecimal balance = rs.getBigDecimal("balance");
+        return new UserTransferData(
+                rs.getInt("uuid"),
+                rs.getString("name"),
+                rs.getString("email"),
+                rs.getString("username"),
+                balance == null ? Money.ofCents(0) : Money.of(balance));
+    });
+
     private final RowMapper<User> userRowMapper = ((rs, rowNum) -> new User(
             rs.getInt("uuid"),
             rs.getString("name"),
             rs.getString("email"),
             rs.getString("username"),
-            rs.getDouble("balance"),
+            Money.of(rs.getBigDecimal("balance")), // NUMERIC(20, 2), read exactly rather than as a double
             rs.getString("password")));
 }
@@ -1,7 +1,9 @@
 package com.example.compound.use_cases;
 
 import com.example.compound.entities.*;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
 import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
 import com.example.compound.use_cases.transfer_data.BudgetTransferData;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
@@ -11,14 +13,19 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+/*
+Budgets and groups are changed by reading them, changing them and saving them with compareAndSave, so a change made by
+one group member is never silently overwritten by another's. If someone else saved the same budget or group first, the
+change is made again on a fresh copy; see OptimisticUpdates.
+ */
 public class BudgetManager {
-    private final RepositoryGatewayI<BudgetTransferData> budgetRepositoryGateway;
-    private final RepositoryGatewayI<GroupTransferData> groupRepositoryGateway;
+    private final BudgetRepositoryGateway budgetRepositoryGateway;
+    private final VersionedRepositoryGateway<GroupTransferData> groupRepositoryGateway;
     private final RepositoryGatewayI<ItemTransferData> itemRepositoryGateway;
 //    private final RepositoryGateway repositoryGateway;
 
-    public BudgetManager(RepositoryGatewayI<BudgetTransferData> budgetRepositoryGateway,
-                         RepositoryGatewayI<GroupTransferData> groupRepositoryGateway,
+    public BudgetManager(BudgetRepositoryGateway budgetRepositoryGateway,
+                         VersionedRepositoryGateway<GroupTransferData> groupRepositoryGateway,
                          RepositoryGatewayI<ItemTransferData> itemRepositoryGateway
 //                         RepositoryGateway repositoryGateway
     ) {
@@ -36,21 +43,91 @@ public class BudgetManager {
      * @return whether the Budget was added successfully
      */
     public boolean create(String GUID, String name, double maxSpend) {
-        GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
+        return createBudget(GUID, name, maxSpend) != null;
+    }
+
+    /**
+     * Create a new Budget with the given name and limit on spending and associate it with the group with the given GUID.
+     * @param GUID the UID of the group with which the new Budget is to be associated
+     * @param name the name of the budget
+     * @param maxSpend the budget's limit on spending
+     * @return the BUID of the new Budget, or null if there is no group with the given GUID
+     */
+    public String createBudget(String GUID, String name, double maxSpend) {
 //        Group group = this.repositoryGateway.findByGUID(GUID);
-        if (group == null) {
-            return false;
+        if (this.groupRepositoryGateway.findByUID(GUID) == null) {
+            return null;
         }
 
 //        String BUID = Integer.toString(this.repositoryGateway.getNewBUID());
         Budget budget = new Budget("", name, maxSpend); // a new BUID will be generated by the repository
-        group.addBudget(budget);
 
 //        this.repositoryGateway.addBudget(budget);
 //        this.repositoryGateway.updateGroup(group);
-        this.budgetRepositoryGateway.save(new BudgetTransferData(budget));
-        this.groupRepositoryGateway.save(group);
-        return true;
+        budget.setBUID(this.budgetRepositoryGateway.save(new BudgetTransferData(budget)));
+        boolean added = OptimisticUpdates.retry(() -> {
+            GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
+            if (group == null) {
+                return false;
+            }
+            group.addBudget(budget);
+            this.groupRepositoryGateway.compareAndSave(group);
+            return true;
+        });
+        if (!added) {
+            this.budgetRepositoryGateway.deleteById(budget.getBUID());
+            return null;
+        }
+        return budget.getBUID();
+    }
+
+    /**
+     * Return the budget with the given BUID, with its items, if it belongs to the group with the given GUID.
+     * @param GUID the UID of the group
+     * @param BUID the UID of the budget
+     * @return the budget, or null if there is no budget with the given BUID in the group with the given GUID
+     */
+    public BudgetTransferData getBudget(String GUID, String BUID) {
+        if (this.budgetRepositoryGateway.findVersion(GUID, BUID) == null) {
+            return null;
+        }
+        return this.budgetRepositoryGateway.findByUID(BUID);
+    }
+
+    /**
+     * Return the budget with the given BUID, with its items, after its version has been read by getVersion. The read
+     * of the version showed that the budget belongs to its group, and budgets do not move between groups, so the group
+     * is not checked again.
+     * @param BUID the UID of the budget
+     * @return the budget, whose version is the one read by getVersion or a later one, or null if the budget has since
+     *         been removed
+     */
+    public BudgetTransferData getBudget(String BUID) {
+        return this.budgetRepositoryGateway.findByUID(BUID);
+    }
+
+    /**
+     * Return whether the item with the given IUID is in the budget with the given BUID, and that budget belongs to the
+     * group with the given GUID. Neither the budget nor its items are read.
+     * @param GUID the UID of the group
+     * @param BUID the UID of the budget
+     * @param IUID the UID of the item
+     * @return whether there is such an item
+     */
+    public boolean hasItem(String GUID, String BUID, String IUID) {
+        return this.budgetRepositoryGateway.containsItem(GUID, BUID, IUID);
+    }
+
+    /**
+     * Return the version of the budget with the given BUID, which changes every time the budget or its items are
+     * changed, if it belongs to the group with the given GUID. The budget's items are not read.
+     * @param GUID the UID of the group
+     * @param BUID the UID of the budget
+     * @return the version of the budget, or null if there is no budget with the given BUID in the group with the given
+     *         GUID
+     */
+    public Integer getVersion(String GUID, String BUID) {
+        return this.budgetRepositoryGateway.findVersion(GUID, BUID);
     }
 
     /**
@@ -76,12 +153,17 @@ public class BudgetManager {
      *         the given BUID
      */
     public List<String> getItems(String BUID) {
-        Budget budget = this.budgetRepositoryGateway.findByUID(BUID).toBudget();
+        BudgetTransferData budgetTransferData = this.budgetRepositoryGateway.findByUID(BUID);
 //        Budget budget = this.repositoryGateway.findByBUID(BUID);
-        if (budget == null) {
+        if (budgetTransferData == null) {
             return null;
         } else {
-            return new ArrayList<>(budget.getItems().keySet());
+            Budget budget = budgetTransferData.toBudget();
+            List<String> itemNames = new ArrayList<>();
+            for (Item item : budget.viewItems().values()) {
+                itemNames.add(item.getName());
+            }
+            return itemNames;
         }
     }
 
@@ -109,15 +191,15 @@ public class BudgetManager {
      *         budget with the given BUID
      */
     public List<Expense> toExpenses(String BUID, ExpenseManager expenseManager) {
-        Budget budget = this.budgetRepositoryGateway.findByUID(BUID).toBudget();
+        BudgetTransferData budgetTransferData = this.budgetRepositoryGateway.findByUID(BUID);
 //        Budget budget = this.repositoryGateway.findByBUID(BUID);
-        if (budget == null) {
+        if (budgetTransferData == null) {
             return null;
         }
+        Budget budget = budgetTransferData.toBudget();
 
         List<Expense> expenses = new ArrayList<>();
-        for (String itemName : budget.getItems().keySet()) {
-            Item item = budget.getItemByName(itemName);
+        for (Item item : budget.viewItems().values()) {
             Expense expense = expenseManager.createExpense(item);
             expenses.add(expense);
         }
@@ -130,23 +212,34 @@ public class BudgetManager {
      * @param name the name of the item
      * @param cost the cost of the item
      * @param quantity the quantity of the item
-     * @return the IUID of the new Item, or null if there is no budget with the given BUID
+     * @return the IUID of the new Item, or null if there is no budget with the given BUID or the item could not be
+     *         added to it
      */
     public String addItem(String BUID, String name, double cost, int quantity) {
-        Budget budget = this.budgetRepositoryGateway.findByUID(BUID).toBudget();
-//        Budget budget = this.repositoryGateway.findByBUID(BUID);
-        if (budget == null) {
-            return null;
-        }
+        return OptimisticUpdates.retry(() -> {
+            BudgetTransferData read = this.budgetRepositoryGateway.findByUID(BUID);
+//            Budget budget = this.repositoryGateway.findByBUID(BUID);
+            if (read == null) {
+                return null;
+            }
+            Budget budget = read.toBudget();
 
-//        String IUID = Integer.toString(this.repositoryGateway.getNewIUID());
-        Item newItem = new Item("", name, cost, quantity); // a new IUID will be generated by the repository
-        budget.addItem(newItem);
-        String IUID = this.itemRepositoryGateway.save(new ItemTransferData(newItem));
-//        String IUID = this.repositoryGateway.addItem(newItem);
-        this.budgetRepositoryGateway.save(new BudgetTransferData(budget));
-//        this.repositoryGateway.updateBudget(budget);
-        return IUID;
+//            String IUID = Integer.toString(this.repositoryGateway.getNewIUID());
+            Item newItem = new Item("", name, cost, quantity); // a new IUID will be generated by the repository
+            if (!budget.addItem(newItem)) {
+                return null;
+            }
+//            String IUID = this.repositoryGateway.addItem(newItem);
+            BudgetTransferData changed = changed(budget, read);
+            this.budgetRepositoryGateway.compareAndSave(changed);
+//            this.repositoryGateway.updateBudget(budget);
+            for (ItemTransferData item : changed.getBudget().values()) {
+                if (item.getName().equals(name)) {
+                    return item.getIUID();
+                }
+            }
+            return null;
+        });
     }
 
     /**
@@ -156,21 +249,20 @@ public class BudgetManager {
      * @return whether the item's quantity was changed
      */
     public boolean changeItemQuantity(String IUID, int newQuantity) {
-        List<BudgetTransferData> budgets = this.budgetRepositoryGateway.findAll();
-//        List<Budget> budgets = this.repositoryGateway.getBudgets();
-        for (BudgetTransferData budgetTransferData : budgets) {
-            Budget budget = budgetTransferData.toBudget();
-            Item item = budget.getItemByIUID(IUID);
-            if (item != null) {
-                boolean changed = budget.changeQuantity(IUID, newQuantity);
-                this.itemRepositoryGateway.save(new ItemTransferData(item));
-//                this.repositoryGateway.updateItem(item);
-                return changed;
-            } else {
+        return OptimisticUpdates.retry(() -> {
+            BudgetTransferData read = this.budgetRepositoryGateway.findBudgetByItemUID(IUID);
+//            List<Budget> budgets = this.repositoryGateway.getBudgets();
+            if (read == null) {
                 return false;
             }
-        }
-        return false;
+            Budget budget = read.toBudget();
+            if (!budget.getItemByIUID(IUID).setQuantity(newQuantity)) {
+                return false;
+            }
+            this.budgetRepositoryGateway.compareAndSave(changed(budget, read));
+//            this.repositoryGateway.updateItem(item);
+            return true;
+        });
     }
 
     /**
@@ -179,21 +271,19 @@ public class BudgetManager {
      * @return whether the item was removed
      */
     public boolean removeItem(String IUID) {
-        List<BudgetTransferData> budgets = this.budgetRepositoryGateway.findAll();
-//        List<Budget> budgets = this.repositoryGateway.getBudgets();
-        for (BudgetTransferData budgetTransferData : budgets) {
-            Budget budget = budgetTransferData.toBudget();
-            Item item = budget.getItemByIUID(IUID);
-            if (item != null) {
-                budget.removeItem(item.getIUID());
-                this.itemRepositoryGateway.deleteById(IUID);
-//                this.repositoryGateway.removeItem(item);
-                this.budgetRepositoryGateway.save(new BudgetTransferData(budget));
-//                this.repositoryGateway.updateBudget(budget);
+        return OptimisticUpdates.retry(() -> {
+            BudgetTransferData read = this.budgetRepositoryGateway.findBudgetByItemUID(IUID);
+//            List<Budget> budgets = this.repositoryGateway.getBudgets();
+            if (read == null) {
+                return false;
             }
+            Budget budget = read.toBudget();
+            budget.removeItem(IUID);
+//            this.repositoryGateway.removeItem(item);
+            this.budgetRepositoryGateway.compareAndSave(changed(budget, read)); // Deletes the item's row
+//            this.repositoryGateway.updateBudget(budget);
             return true;
-        }
-        return false;
+        });
     }
 
     /**
@@ -219,16 +309,17 @@ public class BudgetManager {
      *         with the given BUID.
      */
     public boolean setMaxSpend(String BUID, double newMaxSpend) {
-        Budget budget = this.budgetRepositoryGateway.findByUID(BUID).toBudget();
-//        Budget budget = this.repositoryGateway.findByBUID(BUID);
-        if (budget == null) {
-            return false;
-        }
-
-        budget.setMaxSpend(newMaxSpend);
-        this.budgetRepositoryGateway.save(new BudgetTransferData(budget));
-//        this.repositoryGateway.updateBudget(budget);
-        return true;
+        return OptimisticUpdates.retry(() -> {
+            BudgetTransferData read = this.budgetRepositoryGateway.findByUID(BUID);
+//            Budget budget = this.repositoryGateway.findByBUID(BUID);
+            if (read == null) {
+                return false;
+            }
+            read.setMaxSpend(newMaxSpend);
+            this.budgetRepositoryGateway.compareAndSave(read);
+//            this.repositoryGateway.updateBudget(budget);
+            return true;
+        });
     }
 
     /**
@@ -240,21 +331,21 @@ public class BudgetManager {
      *         group.
      */
     public boolean remove(String GUID, String BUID) {
-        GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
-//        Group group = this.repositoryGateway.findByGUID(GUID);
-        if (group == null) {
-            return false;
-        }
-
-        boolean removed = group.removeBudget(BUID);
-        if (!removed) {
-            return false;
+        boolean removed = OptimisticUpdates.retry(() -> {
+            GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
+//            Group group = this.repositoryGateway.findByGUID(GUID);
+            if (group == null || !group.removeBudget(BUID)) {
+                return false;
+            }
+            this.groupRepositoryGateway.compareAndSave(group);
+//            this.repositoryGateway.updateGroup(group);
+            return true;
+        });
+        if (removed) {
+            this.budgetRepositoryGateway.deleteById(BUID);
+//            this.repositoryGateway.removeBudget(BUID);
         }
-        this.budgetRepositoryGateway.deleteById(BUID); // TODO: What if BUID is invalid?
-//        this.repositoryGateway.removeBudget(BUID);
-        this.groupRepositoryGateway.save(group);
-//        this.repositoryGateway.updateGroup(group);
-        return true;
+        return removed;
     }
 
     /**
@@ -269,8 +360,7 @@ public class BudgetManager {
      */
     public boolean addExpensesToGroup(String GUID, String BUID, ExpenseManager expenseManager) {
 //        Group group = this.repositoryGateway.findByGUID(GUID);
-        GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
-        if (group == null) {
+        if (this.groupRepositoryGateway.findByUID(GUID) == null) {
             return false;
         }
 
@@ -280,12 +370,18 @@ public class BudgetManager {
         } catch (NullPointerException e) {
             return false;
         }
-        for (Expense expense : budgetExpenses) {
-            group.addExpense(expense);
-        }
-        this.groupRepositoryGateway.save(group);
-//        this.repositoryGateway.updateGroup(group);
-        return true;
+        return OptimisticUpdates.retry(() -> {
+            GroupTransferData group = this.groupRepositoryGateway.findByUID(GUID);
+            if (group == null) {
+                return false;
+            }
+            for (Expense expense : budgetExpenses) {
+                group.addExpense(expense);
+            }
+            this.groupRepositoryGateway.compareAndSave(group);
+//            this.repositoryGateway.updateGroup(group);
+            return true;
+        });
     }
 
     /**
@@ -308,4 +404,14 @@ public class BudgetManager {
         }
         return budgetNames;
     }
+
+    /*
+     * Return the transfer data with which to save the given budget, which was changed after being read as the given
+     * transfer data.
+     */
+    private static BudgetTransferData changed(Budget budget, BudgetTransferData read) {
+        BudgetTransferData budgetTransferData = new BudgetTransferData(budget);
+        budgetTransferData.setVersion(read.getVersion());
+        return budgetTransferData;
+    }
 }
@@ -33,7 +33,8 @@ public class ExpenseManager {
                                  UserManager userManager) {
         try {
             String EUID = Integer.toString(repositoryGateway.getNewEUID());
-            Expense expense = new Expense(EUID, expenseTitle, amount, whoPaid, whoBorrowed);
+            Expense expense = new Expense(EUID, expenseTitle, amount, whoPaid, whoBorrowed,
+                    repositoryGateway.getBalanceLedger());
             repositoryGateway.addExpense(expense);
 
             ArrayList<String> people = new ArrayList<>();
@@ -65,20 +66,17 @@ public class ExpenseManager {
     }
 
     public Expense createExpense(Item item) {
-        HashMap<Person, Double> whoPaid = new HashMap<>();
-        HashMap<Person, Double> whoBorrowed = new HashMap<>();
+        HashMap<Person, Money> whoPaid = new HashMap<>();
+        HashMap<Person, Money> whoBorrowed = new HashMap<>();
 
         String EUID = Integer.toString(repositoryGateway.getNewEUID());
-        return new Expense(EUID, item.getName(), item.getQuantity() * item.getCost(), whoPaid, whoBorrowed);
+        return new Expense(EUID, item.getName(), Money.ofCents(item.getQuantity() * item.getCostInCents()), whoPaid,
+                whoBorrowed, repositoryGateway.getBalanceLedger());
     }
 
     public Expense getExpense(String expenseUID) {
         try {
-            for (Expense expense: repositoryGateway.getExpenses()) {
-                if (expense.getEUID().equals(expenseUID)) {
-                    return expense;
-                }
-            }
+            return repositoryGateway.findByEUID(expenseUID);
         } catch (Exception ignored) { }
         return null;
     }
@@ -88,7 +86,7 @@ public class ExpenseManager {
      * @param payee - The person that pays the bill.
      * @param expenseUID - The unique identifier of expense
      */
-    public void payDebt(Person payee, String expenseUID, Double amount, boolean borrowed) {
+    public void payDebt(User payee, String expenseUID, Double amount, boolean borrowed) {
         Expense expense = getExpense(expenseUID);
         assert expense != null;
         if (borrowed) {
@@ -98,11 +96,19 @@ public class ExpenseManager {
         }
 
         // Get and set the balance of the payee.
-        if (borrowed) {
-            payee.updateBalance(-amount);
-        }
-        else {
-            payee.updateBalance(amount);
-        }
+        Money change = borrowed ? Money.of(-amount) : Money.of(amount);
+        repositoryGateway.getBalanceLedger().record(payee, change, BalanceEvent.Reason.DEBT_PAYMENT, expenseUID);
+        repositoryGateway.awaitBalances();
+    }
+
+    /**
+     * Record a share of an expense that was entered by hand, adding it to the user's balance.
+     * @param user   the user whose share it is
+     * @param amount the amount to be added to the user's balance
+     */
+    public void recordShare(User user, double amount) {
+        repositoryGateway.getBalanceLedger().record(user, Money.of(amount), BalanceEvent.Reason.EXPENSE_SHARE,
+                null);
+        repositoryGateway.awaitBalances();
     }
 }
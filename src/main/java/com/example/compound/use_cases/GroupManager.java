@@ -3,6 +3,7 @@ package com.example.compound.use_cases;
 import com.example.compound.entities.Expense;
 import com.example.compound.entities.Group;
 import com.example.compound.entities.Person;
+import com.example.compound.entities.Transfer;
 import com.example.compound.use_cases.gateways.RepositoryGateway;
 
 import java.util.ArrayList;
@@ -41,12 +42,10 @@ public class GroupManager {
     public StringBuilder showListOfGroup(Person p) {
         StringBuilder lst = new StringBuilder("List of groups:\n");
         int counter = 0;
-        for (Group g: repositoryGateway.getGroups()) {
-            if (g.getGroupMembers().contains(p.getEmail())) {
-                lst.append(g);
-                lst.append("\n");
-                counter++;
-            } //
+        for (Group g: repositoryGateway.findGroupsByMember(p.getEmail())) {
+            lst.append(g);
+            lst.append("\n");
+            counter++;
         }
 
         if (counter > 0) {
@@ -64,10 +63,8 @@ public class GroupManager {
      */
     public List<String> getListOfGroup(Person p){
         List<String> lst = new ArrayList<>();
-        for (Group g: repositoryGateway.getGroups()) {
-            if (g.getGroupMembers().contains(p.getEmail())) {
-                lst.add(g.getGroupName());
-            } //
+        for (Group g: repositoryGateway.findGroupsByMember(p.getEmail())) {
+            lst.add(g.getGroupName());
         }
         return lst;
     }
@@ -77,8 +74,8 @@ public class GroupManager {
      * @param g The group from which the member is to be removed.
      * @param oldEmail the email of the member that is to be removed from the group.
      */
-    public static void removeMember(Group g, String oldEmail) {
-        g.getGroupMembers().remove(oldEmail);
+    public void removeMember(Group g, String oldEmail) {
+        repositoryGateway.removeGroupMember(g, oldEmail);
     }
 
     /**
@@ -86,8 +83,8 @@ public class GroupManager {
      * @param g The group to which the member is to be added.
      * @param email the email of the member that is to be added to the group.
      */
-    public static void addMember(Group g, String email) {
-        g.getGroupMembers().add(email);
+    public void addMember(Group g, String email) {
+        repositoryGateway.addGroupMember(g, email);
     }
 
     /**
@@ -131,6 +128,28 @@ public class GroupManager {
         return null;
     }
 
+    /**
+     * Print the transfers between members that would settle every expense in the group.
+     * @param GUID The GUID of the group
+     * @return the list of transfers in a string, or null if there is no group with the given GUID.
+     *         Return "Everyone in the group is settled up.\n" if no transfers are needed.
+     */
+    public StringBuilder showSettlement(String GUID) {
+        Group group = repositoryGateway.findByGUID(GUID);
+        if (group == null) {
+            return null;
+        }
+        List<Transfer> transfers = group.getSettlement();
+        if (transfers.isEmpty()) {
+            return new StringBuilder("Everyone in the group is settled up.\n");
+        }
+        StringBuilder lst = new StringBuilder("To settle up:\n");
+        for (Transfer transfer : transfers) {
+            lst.append(transfer).append(".\n");
+        }
+        return lst;
+    }
+
     /**
      * Create a new group.
      * @param groupName The name of the group.
@@ -0,0 +1,43 @@
+package com.example.compound.use_cases;
+
+import com.example.compound.exceptions.ConcurrentUpdateException;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+/**
+ * Runs read-change-save updates that save with VersionedRepositoryGateway.compareAndSave, retrying them when another
+ * user saved the same object first.
+ *
+ * An update must read the objects it changes afresh every time it is run, since a retry is only useful if it sees the
+ * other user's change. Between attempts the update waits for a short random time, growing with each attempt, so that
+ * updates that keep colliding spread out instead of colliding again.
+ */
+public final class OptimisticUpdates {
+    public static final int MAX_ATTEMPTS = 10;
+    private static final long BASE_BACKOFF_NANOS = 50_000;
+
+    private OptimisticUpdates() {
+    }
+
+    /**
+     * Run the given update until it completes without a ConcurrentUpdateException, at most MAX_ATTEMPTS times.
+     * @param update the update, which reads, changes and saves the objects it updates
+     * @param <T>    the type of the update's result
+     * @return the result of the first attempt that completed
+     * @throws ConcurrentUpdateException if every attempt conflicted with another update
+     */
+    public static <T> T retry(Supplier<T> update) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return update.get();
+            } catch (ConcurrentUpdateException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    throw e;
+                }
+                LockSupport.parkNanos(ThreadLocalRandom.current().nextLong(BASE_BACKOFF_NANOS << Math.min(attempt, 6)));
+            }
+        }
+    }
+}
@@ -20,15 +20,9 @@ public class UserManager {
         lst.append("---------------------------------\n");
         int counter = 0;
 
-        for (String expenseUID: user.getExpenses()) {
-            try {
-                for (Expense expense: repositoryGateway.getExpenses()) {
-                    if (expense.getEUID().equals(expenseUID)) {
-                        lst.append(expense).append("\n");
-                        counter++;
-                    }
-                }
-            } catch (Exception ignored) { }
+        for (Expense expense: repositoryGateway.findAllByEUIDs(user.getExpenses())) {
+            lst.append(expense).append("\n");
+            counter++;
         }
 
         if (counter > 0) {
@@ -44,20 +38,11 @@ public class UserManager {
      * @return The user associated with the email if it exists in the databse, null otherwise.
      */
     public User getUser(String email) {
-        //TODO: fix non static usages
-        try {
-            for (User user : repositoryGateway.getUsers()) {
-                if (user.getEmail().equals((email))) {
-                    return user;
-                }
-            }
-        } catch (Exception ignored) {
-        }
-        return null;
+        return repositoryGateway.findByEmail(email);
     }
 
     public User createUser(String name, double balance, String email, String password) {
-        User user = new User(name, balance, email, password);
+        User user = new User(this.repositoryGateway.getNewUUID(), name, email, email, balance, password);
         this.repositoryGateway.addUser(user);
         return user;
     }
@@ -95,12 +80,10 @@ public class UserManager {
      */
     public void setEmail(User user, String email) {
         String oldEmail = user.getEmail();
-        for (Group g: repositoryGateway.getGroups()) {
-            if (g.getGroupMembers().contains(oldEmail)) {
-                GroupManager.removeMember(g, oldEmail);
-                GroupManager.addMember(g, email);
-            } //
+        for (Group g: repositoryGateway.findGroupsByMember(oldEmail)) {
+            repositoryGateway.removeGroupMember(g, oldEmail);
+            repositoryGateway.addGroupMember(g, email);
         }
-        user.setEmail(email);
+        repositoryGateway.changeEmail(user, email);
     }
 }
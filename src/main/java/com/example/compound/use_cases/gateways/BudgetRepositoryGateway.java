@@ -1,16 +1,14 @@
 package com.example.compound.use_cases.gateways;
 
-import com.example.compound.entities.Budget;
-
-import java.util.List;
-
-public interface BudgetRepositoryGateway extends RepositoryGatewayI<Budget> {
-    Budget findById(String BUID);
-
-    List<Budget> findAll();
-
-    // Returns a new BUID
-    String save(Budget budget); // TODO: Separate methods for saving a new object and updating an existing one?
-
-    void deleteById(String BUID);
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+
+public interface BudgetRepositoryGateway extends VersionedRepositoryGateway<BudgetTransferData> {
+    // Returns the budget containing the item with the given IUID, or null if no budget contains it
+    BudgetTransferData findBudgetByItemUID(String IUID);
+    // Returns the version of the budget with the given BUID if it belongs to the group with the given GUID, or null
+    // otherwise, without reading the budget's items
+    Integer findVersion(String GUID, String BUID);
+    // Returns whether the item with the given IUID is in the budget with the given BUID, and that budget belongs to the
+    // group with the given GUID, without reading the budget
+    boolean containsItem(String GUID, String BUID, String IUID);
 }
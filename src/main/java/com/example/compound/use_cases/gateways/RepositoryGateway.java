@@ -1,6 +1,7 @@
 package com.example.compound.use_cases.gateways;
 
 import com.example.compound.entities.*;
+import java.util.Collection;
 import java.util.List;
 
 public interface RepositoryGateway {
@@ -28,6 +29,11 @@ public interface RepositoryGateway {
 
     Group findByGUID(String GUID);
 
+    Expense findByEUID(String EUID);
+
+    // Returns the expenses with the given EUIDs, in the order of the EUIDs, skipping any EUID with no expense
+    List<Expense> findAllByEUIDs(Collection<String> EUIDs);
+
     void removeGroup(Group group);
 
     void removeExpense(Expense expense);
@@ -46,6 +52,7 @@ public interface RepositoryGateway {
 
     void updateItem(Item item);
 
+    // Each getNewXUID() method returns a UID that has not been returned before, even if entities have been removed
     int getNewGUID();
 
     int getNewEUID();
@@ -57,4 +64,25 @@ public interface RepositoryGateway {
     int getNewIUID();
 
     User findByUUID(String UUID);
+
+    User findByEmail(String email);
+
+    // Sets the user's email and keeps any lookups by email consistent with it
+    void changeEmail(User user, String email);
+
+    List<Group> findGroupsByMember(String email);
+
+    // Adds the member to the group and keeps any lookups by member consistent with it
+    void addGroupMember(Group group, String email);
+
+    // Removes the member from the group and keeps any lookups by member consistent with it
+    void removeGroupMember(Group group, String email);
+
+    // Returns the ledger in which changes to the balances of this repository's people are recorded
+    BalanceLedger getBalanceLedger();
+
+    // Blocks until every change the calling thread recorded in the balance ledger has been stored; repositories that
+    // store nothing outside the ledger return at once
+    default void awaitBalances() {
+    }
 }
@@ -0,0 +1,33 @@
+package com.example.compound.use_cases.gateways;
+
+/**
+ * Hands out new UIDs for each kind of entity.
+ *
+ * Each kind of entity has its own sequence of UIDs, and no UID of a kind is handed out twice, even after the entity
+ * given it is removed. UIDs are handed out in increasing order by each thread, but there may be gaps between them.
+ * Implementations must be safe to use from several threads at once without locking for every UID.
+ */
+public interface UIDAllocator {
+    /**
+     * The kinds of entity that are given UIDs.
+     */
+    enum Kind {
+        USER, EXPENSE, GROUP, BUDGET, ITEM
+    }
+
+    /**
+     * Return a new UID for the given kind of entity.
+     * @param kind the kind of entity
+     * @return a UID that has not been handed out before for the given kind of entity
+     */
+    int next(Kind kind);
+
+    /**
+     * Return the given number of new UIDs for the given kind of entity, such as for inserting many entities at once.
+     * @param kind  the kind of entity
+     * @param count the number of UIDs
+     * @return an array of count UIDs, in increasing order, that have not been handed out before for the given kind of
+     *         entity
+     */
+    int[] reserve(Kind kind, int count);
+}
@@ -0,0 +1,14 @@
+package com.example.compound.use_cases.gateways;
+
+/**
+ * A repository whose objects carry a version, which is increased every time they are saved, so that changes made
+ * concurrently by several users can be detected instead of silently overwriting each other.
+ *
+ * @param <T> the type of transfer data stored
+ */
+public interface VersionedRepositoryGateway<T> extends RepositoryGatewayI<T> {
+    // Saves t only if the stored copy still has t's version, then increases t's version to match the stored copy's.
+    // A t without a UID is inserted as in save. Returns the UID of t, or throws a ConcurrentUpdateException without
+    // saving anything if the stored copy was changed or deleted since t was read.
+    String compareAndSave(T t);
+}
@@ -2,35 +2,58 @@ package com.example.compound.use_cases.transfer_data;
 
 import com.example.compound.entities.Budget;
 import com.example.compound.entities.Item;
+import com.example.compound.entities.Money;
 
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * The data of a budget, for transfer between the use cases and the repositories.
+ *
+ * A BudgetTransferData constructed from a Budget is a copy of that Budget as it was when constructed: its name, spending
+ * limit and items are all read then, so later changes to the Budget are not seen.
+ *
+ * The total cost of the items is kept as they are added, like the running total of a Budget, so reading it does not
+ * walk the items. Items must be added with addItem or setBudget, not through the map returned by getBudget, for the
+ * total to be kept.
+ *
+ * The version is the number of times the budget had been saved when it was read, and is used to detect changes made by
+ * others since then; see VersionedRepositoryGateway.
+ */
 public class BudgetTransferData { // TODO: What should this be called?
     private String BUID;
     private String name;
     private Map<String, ItemTransferData> budget;
-    private double maxSpend;
+    private long maxSpend; // In cents
+    private long totalCost; // In cents
+    private int version; // The version read from the repository, or 0 if this budget was not read from one
 
     public BudgetTransferData(String BUID, String name, double maxSpend) {
+        this(BUID, name, Money.of(maxSpend));
+    }
+
+    public BudgetTransferData(String BUID, String name, Money maxSpend) {
         this.BUID = BUID;
         this.name = name;
-        this.maxSpend = maxSpend;
+        this.maxSpend = maxSpend.getCents();
         this.budget = new HashMap<>();
     }
 
     public BudgetTransferData(Budget budget) {
         this.BUID = budget.getBUID();
         this.name = budget.getName();
-        this.maxSpend = budget.getMaxSpend();
+        this.maxSpend = budget.getMaxSpendInCents();
+        this.totalCost = budget.getTotalCostInCents();
         this.budget = convertBudget(budget);
     }
 
     public Map<String, ItemTransferData> convertBudget(Budget budget) {
-        Map<String, ItemTransferData> map = new HashMap<>();
-        Map<String, Item> items = budget.getItems();
+        Map<String, Item> items = budget.viewItems();
+        Map<String, ItemTransferData> map = new HashMap<>(Math.max(16, (int) (items.size() / 0.75f) + 1));
         for (String IUID : items.keySet()) {
-            map.put(IUID, new ItemTransferData(items.get(IUID)));
+            ItemTransferData item = new ItemTransferData(items.get(IUID));
+            item.setBUID(budget.getBUID());
+            map.put(IUID, item);
         }
         return map;
     }
@@ -48,9 +71,25 @@ public class BudgetTransferData { // TODO: What should this be called?
     }
 
     public double getMaxSpend() {
+        return Money.toDollars(maxSpend);
+    }
+
+    public long getMaxSpendInCents() {
         return maxSpend;
     }
 
+    public double getTotalCost() {
+        return Money.toDollars(totalCost);
+    }
+
+    public long getTotalCostInCents() {
+        return totalCost;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
     public void setBUID(String BUID) {
         this.BUID = BUID;
     }
@@ -61,17 +100,53 @@ public class BudgetTransferData { // TODO: What should this be called?
 
     public void setBudget(Map<String, ItemTransferData> budget) {
         this.budget = budget;
+        this.totalCost = 0;
+        for (ItemTransferData item : budget.values()) {
+            this.totalCost += cost(item);
+        }
+    }
+
+    /**
+     * Add the given item to this budget, replacing any item with the same IUID, and update the total cost.
+     * @param item the item to add
+     */
+    public void addItem(ItemTransferData item) {
+        ItemTransferData replaced = budget.put(item.getIUID(), item);
+        if (replaced != null) {
+            totalCost -= cost(replaced);
+        }
+        totalCost += cost(item);
+    }
+
+    /*
+     * Return the cost in cents of the given item's whole quantity.
+     */
+    private static long cost(ItemTransferData item) {
+        return item.getCostInCents() * item.getQuantity();
     }
 
     public void setMaxSpend(double maxSpend) {
-        this.maxSpend = maxSpend;
+        this.maxSpend = Money.toCents(maxSpend);
     }
 
+    public void setMaxSpend(Money maxSpend) {
+        this.maxSpend = maxSpend.getCents();
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    /**
+     * Return a new Budget with this budget's data. The Budget is bulk-loaded, since the data is assumed to have been
+     * validated when it was saved, so this takes a single pass over the items.
+     * @return a new Budget with this budget's data
+     */
     public Budget toBudget() { // TODO: Objects of this class will be used by outer layers. This method returns an Entity object. Hypothetically, objects in outer layers could access Entities. Can this method be here?
-        Budget budget = new Budget(BUID, name, maxSpend);
-        for (String IUID : this.budget.keySet()) {
-            budget.addItem(this.budget.get(IUID).toItem());
+        Map<String, Item> items = new HashMap<>(Math.max(16, (int) (budget.size() / 0.75f) + 1));
+        for (ItemTransferData item : budget.values()) {
+            items.put(item.getIUID(), item.toItem());
         }
-        return budget;
+        return new Budget(BUID, name, Money.ofCents(maxSpend), items);
     }
 }
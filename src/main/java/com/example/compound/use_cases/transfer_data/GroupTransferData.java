@@ -15,6 +15,7 @@ public class GroupTransferData {
     private  String description;
     private  String GUID;
     private  List<Budget> budgets;
+    private  int version; // The version read from the repository, or 0 if this group was not read from one
 
     public GroupTransferData(String groupName, List<String> groupMembers,
                              List<Expense> expenseList, String description, String guid, List<Budget> budgets) {
@@ -31,6 +32,7 @@ public class GroupTransferData {
         this.groupMembers = groupMembers;
         this.expenseList = expenseList;
         this.description = description;
+        this.budgets = new ArrayList<>();
     }
 
     //Below two are methods that add budget/expense to the corresponding list.
@@ -53,14 +55,30 @@ public class GroupTransferData {
         return groupName;
     }
 
+    public List<String> getGroupMembers() {
+        return groupMembers;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
     public List<Expense> getExpenseList() {return expenseList;}
 
     public List<Budget> getBudgets() {
         return this.budgets;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
     public void setGUID(String GUID) {this.GUID = GUID;}
 
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
     /**
      * Remove budget from the budget list
      * @param BUID the unique identifier of the budget
@@ -1,24 +1,30 @@
 package com.example.compound.use_cases.transfer_data;
 
 import com.example.compound.entities.Item;
+import com.example.compound.entities.Money;
 
 public class ItemTransferData {
     private String IUID;
+    private String BUID; // The UID of the budget containing this item, if known
     private String name;
-    private double cost;
+    private long cost; // In cents
     private int quantity;
 
     public ItemTransferData(String IUID, String name, double cost, int quantity) {
+        this(IUID, name, Money.of(cost), quantity);
+    }
+
+    public ItemTransferData(String IUID, String name, Money cost, int quantity) {
         this.IUID = IUID;
         this.name = name;
-        this.cost = cost;
+        this.cost = cost.getCents();
         this.quantity = quantity;
     }
 
     public ItemTransferData(Item item) {
         this.IUID = item.getIUID();
         this.name = item.getName();
-        this.cost = item.getCost();
+        this.cost = item.getCostInCents();
         this.quantity = item.getQuantity();
     }
 
@@ -30,6 +36,14 @@ public class ItemTransferData {
         this.IUID = IUID;
     }
 
+    public String getBUID() {
+        return BUID;
+    }
+
+    public void setBUID(String BUID) {
+        this.BUID = BUID;
+    }
+
     public String getName() {
         return name;
     }
@@ -39,11 +53,19 @@ public class ItemTransferData {
     }
 
     public double getCost() {
+        return Money.toDollars(cost);
+    }
+
+    public long getCostInCents() {
         return cost;
     }
 
     public void setCost(double cost) {
-        this.cost = cost;
+        this.cost = Money.toCents(cost);
+    }
+
+    public void setCost(Money cost) {
+        this.cost = cost.getCents();
     }
 
     public int getQuantity() {
@@ -55,6 +77,6 @@ public class ItemTransferData {
     }
 
     public Item toItem() {
-        return new Item(IUID, name, cost, quantity);
+        return new Item(IUID, name, Money.ofCents(cost), quantity);
     }
 }
@@ -0,0 +1,59 @@
+package com.example.compound.use_cases.transfer_data;
+
+/**
+ * The data of a user to be created, and, once the repository has tried to create the user, the outcome: the UUID the
+ * user was given, or why the user could not be created.
+ */
+public class UserRegistration {
+    private final String name;
+    private final String email;
+    private final String username;
+    private final String password;
+    private Integer UUID; // Null unless the user was created
+    private String error; // Null unless the user could not be created
+
+    public UserRegistration(String name, String email, String username, String password) {
+        this.name = name;
+        this.email = email;
+        this.username = username;
+        this.password = password;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public Integer getUUID() {
+        return UUID;
+    }
+
+    public void setUUID(Integer UUID) {
+        this.UUID = UUID;
+        this.error = null;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+        this.UUID = null;
+    }
+
+    public boolean isCreated() {
+        return UUID != null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.compound.use_cases.transfer_data;
+
+import com.example.compound.entities.Money;
+import com.example.compound.entities.User;
+
+/**
+ * The public data of a user, for listing users. Unlike User, this does not hold the user's password.
+ */
+public class UserTransferData {
+    private final int UUID;
+    private final String name;
+    private final String email;
+    private final String username;
+    private final long balance; // In cents
+
+    public UserTransferData(int UUID, String name, String email, String username, Money balance) {
+        this.UUID = UUID;
+        this.name = name;
+        this.email = email;
+        this.username = username;
+        this.balance = balance.getCents();
+    }
+
+    public UserTransferData(User user) {
+        this(user.getUUID(), user.getName(), user.getEmail(), user.getUsername(),
+                Money.ofCents(user.getBalanceInCents()));
+    }
+
+    public int getUUID() {
+        return UUID;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public double getBalance() {
+        return Money.toDollars(balance);
+    }
+
+    public long getBalanceInCents() {
+        return balance;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the operations on a budget that the controllers call most, as the number of items in the budget grows:
+ * adding an item (which is then removed, so the budget keeps its size), finding an item by name, reading the total
+ * cost, and converting the budget to a BudgetTransferData and back.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BudgetBenchmark {
+    @Param({"10", "1000", "100000"})
+    public int size;
+
+    private Budget budget;
+    private String[] names;
+    private Item extra;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        budget = new Budget("0", "Budget", Double.MAX_VALUE);
+        names = new String[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = "Item " + i;
+            budget.addItem(new Item(Integer.toString(i), names[i], 1.25, 1 + i % 5));
+        }
+        extra = new Item(Integer.toString(size), "Extra", 2.5, 2);
+    }
+
+    @Benchmark
+    public boolean addItem() {
+        boolean added = budget.addItem(extra);
+        budget.removeItem(extra.getIUID());
+        return added;
+    }
+
+    @Benchmark
+    public Item getItemByName() {
+        next = next + 1 == size ? 0 : next + 1;
+        return budget.getItemByName(names[next]);
+    }
+
+    @Benchmark
+    public double getTotalCost() {
+        return budget.getTotalCost();
+    }
+
+    @Benchmark
+    public Budget transferDataRoundTrip() {
+        return new BudgetTransferData(budget).toBudget();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BudgetBenchmark.class.getSimpleName()).build()).run();
+    }
+}
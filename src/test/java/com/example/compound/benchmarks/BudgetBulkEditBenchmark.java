@@ -0,0 +1,53 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures editing the quantity of every item in a budget once. Since each accepted change updates the budget's running
+ * total instead of re-summing every item, the time per pass should grow linearly with the number of items.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BudgetBulkEditBenchmark {
+    @Param({"500", "5000", "50000"})
+    public int size;
+
+    private Budget budget;
+    private Item[] items;
+    private int quantity;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        budget = new Budget("0", "Bulk", Double.MAX_VALUE);
+        items = new Item[size];
+        for (int i = 0; i < size; i++) {
+            items[i] = new Item(Integer.toString(i), "Item " + i, 1.25, 1);
+            budget.addItem(items[i]);
+        }
+        quantity = 1;
+    }
+
+    @Benchmark
+    public double setQuantityOfEveryItem() {
+        quantity = quantity == 1 ? 2 : 1;
+        for (Item item : items) {
+            item.setQuantity(quantity);
+        }
+        return budget.getTotalCost();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(BudgetBulkEditBenchmark.class.getSimpleName()).build()).run();
+    }
+}
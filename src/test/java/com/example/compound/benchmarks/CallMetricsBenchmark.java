@@ -0,0 +1,101 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.data.IndexedData;
+import com.example.compound.entities.Expense;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.User;
+import com.example.compound.metrics.CallMetrics;
+import com.example.compound.use_cases.GroupManager;
+import com.example.compound.use_cases.UserManager;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of CallMetrics by making the same manager calls on plain managers and on managers instrumented
+ * with a Prometheus registry, as the Actuator endpoint would use. The calls range from a hash lookup in IndexedData to
+ * formatting a user's expenses, so the overhead can be compared with the cost of the call. As in the application, the
+ * managers are instrumented but the in-memory gateway they use is not.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CallMetricsBenchmark {
+    private static final int USERS = 1000;
+    private static final int GROUPS = 2000;
+    private static final int EXPENSES_PER_USER = 40;
+
+    @Param({"false", "true"})
+    public boolean instrumented;
+
+    private GroupManager groupManager;
+    private UserManager userManager;
+    private User[] users;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        IndexedData indexedData = new IndexedData();
+        users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new User(i, "User " + i, "user" + i + "@example.com", "user" + i, 0.0, "password");
+            indexedData.addUser(users[i]);
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < USERS * EXPENSES_PER_USER; i++) {
+            User payer = users[i % USERS];
+            Expense expense = new Expense(Integer.toString(i), "Expense " + i, Money.of(10.0),
+                    Map.of(payer, Money.of(10.0)), Map.of(), indexedData.getBalanceLedger());
+            payer.addExpense(expense);
+            indexedData.addExpense(expense);
+        }
+        for (int g = 0; g < GROUPS; g++) {
+            List<String> members = new ArrayList<>();
+            for (int m = 0; m < 5; m++) {
+                members.add(users[random.nextInt(USERS)].getEmail());
+            }
+            indexedData.addGroup(new com.example.compound.entities.Group("Group " + g, members, new ArrayList<>(), ""));
+        }
+
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        groupManager = new GroupManager(indexedData);
+        userManager = new UserManager(indexedData);
+        if (instrumented) {
+            groupManager = CallMetrics.manager(groupManager, registry);
+            userManager = CallMetrics.manager(userManager, registry);
+        }
+    }
+
+    private User nextUser() {
+        next = next + 1 == USERS ? 0 : next + 1;
+        return users[next];
+    }
+
+    @Benchmark
+    public User getUser() {
+        return userManager.getUser(nextUser().getEmail());
+    }
+
+    @Benchmark
+    public List<String> getListOfGroup() {
+        return groupManager.getListOfGroup(nextUser());
+    }
+
+    @Benchmark
+    public StringBuilder getExpenses() {
+        return userManager.getExpenses(nextUser());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CallMetricsBenchmark.class.getSimpleName()).build()).run();
+    }
+}
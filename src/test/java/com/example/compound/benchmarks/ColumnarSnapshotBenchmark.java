@@ -0,0 +1,76 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.data.ColumnarSnapshot;
+import com.example.compound.data.IndexedData;
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading an export written by ColumnarSnapshot: opening it and reading one budget, and adding up the total
+ * cost of every budget from the columns. Each budget has ITEMS items.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ColumnarSnapshotBenchmark {
+    private static final int ITEMS = 10;
+
+    @Param({"1000", "10000"})
+    public int budgets;
+
+    private Path file;
+    private String BUID;
+    private ColumnarSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        IndexedData data = new IndexedData();
+        data.initializeData();
+        for (int i = 0; i < budgets; i++) {
+            Budget budget = new Budget("", "Budget " + i, 1000.0);
+            for (int j = 0; j < ITEMS; j++) {
+                budget.addItem(new Item(Integer.toString(i * ITEMS + j), "Item " + j, 1.0 + j, 1 + j % 3));
+            }
+            BUID = data.addBudget(budget);
+        }
+        file = Files.createTempFile("columns", null);
+        ColumnarSnapshot.write(file, data);
+        snapshot = ColumnarSnapshot.open(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.delete(file);
+    }
+
+    @Benchmark
+    public BudgetTransferData openAndFindBudget() throws IOException {
+        return ColumnarSnapshot.open(file).findBudget(BUID);
+    }
+
+    @Benchmark
+    public long totalCostOfAllBudgets() {
+        long total = 0;
+        for (int i = 0; i < snapshot.getBudgetCount(); i++) {
+            total += snapshot.getBudgetTotalCostInCents(i);
+        }
+        return total;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ColumnarSnapshotBenchmark.class.getSimpleName()).build()).run();
+    }
+}
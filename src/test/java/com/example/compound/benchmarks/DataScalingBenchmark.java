@@ -0,0 +1,98 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.data.Data;
+import com.example.compound.data.IndexedData;
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Expense;
+import com.example.compound.entities.Group;
+import com.example.compound.entities.Money;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares point lookups and updates on the list-backed Data against the hash-indexed IndexedData as the number of
+ * groups, budgets and expenses grows.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DataScalingBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int size;
+
+    @Param({"Data", "IndexedData"})
+    public String implementation;
+
+    // The number of expenses of the user whose expenses are looked up
+    private static final int USER_EXPENSES = 20;
+
+    private RepositoryGateway repositoryGateway;
+    private List<String> userExpenses;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repositoryGateway = implementation.equals("Data") ? new Data() : new IndexedData();
+        for (int i = 0; i < size; i++) {
+            repositoryGateway.addGroup(new Group("Group " + i, new ArrayList<>(), new ArrayList<>(), ""));
+            repositoryGateway.addBudget(new Budget("", "Budget " + i, 100.0));
+            repositoryGateway.addExpense(Expense.restore(Integer.toString(i), "Expense " + i, Money.ZERO,
+                    new HashMap<>(), new HashMap<>()));
+        }
+        userExpenses = new ArrayList<>();
+        for (int i = 0; i < USER_EXPENSES; i++) {
+            userExpenses.add(randomUID());
+        }
+    }
+
+    private String randomUID() {
+        return Integer.toString(ThreadLocalRandom.current().nextInt(size));
+    }
+
+    @Benchmark
+    public Group findByGUID() {
+        return repositoryGateway.findByGUID(randomUID());
+    }
+
+    @Benchmark
+    public Budget findByBUID() {
+        return repositoryGateway.findByBUID(randomUID());
+    }
+
+    @Benchmark
+    public Expense findByEUID() {
+        return repositoryGateway.findByEUID(randomUID());
+    }
+
+    @Benchmark
+    public List<Expense> findAllByEUIDs() {
+        return repositoryGateway.findAllByEUIDs(userExpenses);
+    }
+
+    @Benchmark
+    public void updateGroup() {
+        Group group = new Group("Updated", new ArrayList<>(), new ArrayList<>(), "");
+        group.setGUID(randomUID());
+        repositoryGateway.updateGroup(group);
+    }
+
+    @Benchmark
+    public void updateBudget() {
+        repositoryGateway.updateBudget(new Budget(randomUID(), "Updated", 100.0));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DataScalingBenchmark.class.getSimpleName()).build()).run();
+    }
+}
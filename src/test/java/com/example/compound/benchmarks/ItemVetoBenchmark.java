@@ -0,0 +1,53 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many quantity changes a budget can veto and accept per microsecond, with the budget either listening to
+ * its item as an ItemConstraintListener, as Budget.addItem makes it, or observing it as a VetoableChangeListener, which
+ * vetoes by throwing a PropertyVetoException.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ItemVetoBenchmark {
+    @Param({"constraint", "observer"})
+    public String listener;
+
+    private Item item;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Budget budget = new Budget("0", "Budget", 100.0);
+        item = new Item("0", "Item", 10.0, 1);
+        budget.addItem(item);
+        if (listener.equals("observer")) {
+            item.removeConstraintListener(budget);
+            item.addObserver(budget);
+        }
+    }
+
+    @Benchmark
+    public boolean setQuantityVetoed() {
+        return item.setQuantity(11);
+    }
+
+    @Benchmark
+    public boolean setQuantityAccepted() {
+        return item.setQuantity(item.getQuantity() == 1 ? 2 : 1);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ItemVetoBenchmark.class.getSimpleName()).build()).run();
+    }
+}
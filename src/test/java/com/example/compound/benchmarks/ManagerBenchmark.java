@@ -0,0 +1,99 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.data.Data;
+import com.example.compound.data.IndexedData;
+import com.example.compound.entities.Expense;
+import com.example.compound.entities.Group;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.User;
+import com.example.compound.use_cases.GroupManager;
+import com.example.compound.use_cases.UserManager;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures listing a user's groups with GroupManager.getListOfGroup and their expenses with UserManager.getExpenses,
+ * on the list-backed Data and the hash-indexed IndexedData. There are USERS users and the given number of groups, each
+ * with MEMBERS members and EXPENSES_PER_GROUP expenses, so each user is in about groups * MEMBERS / USERS groups.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ManagerBenchmark {
+    private static final int USERS = 1000;
+    private static final int MEMBERS = 5;
+    private static final int EXPENSES_PER_GROUP = 20;
+
+    @Param({"Data", "IndexedData"})
+    public String repository;
+
+    @Param({"100", "2000"})
+    public int groups;
+
+    private User[] users;
+    private GroupManager groupManager;
+    private UserManager userManager;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RepositoryGateway data = repository.equals("Data") ? new Data() : new IndexedData();
+        Random random = new Random(42);
+        users = new User[USERS];
+        for (int i = 0; i < USERS; i++) {
+            users[i] = new User(i, "User " + i, "user" + i + "@example.com", "user" + i, 0.0, "password");
+            data.addUser(users[i]);
+        }
+        int EUID = 0;
+        for (int g = 0; g < groups; g++) {
+            Set<User> members = new LinkedHashSet<>();
+            while (members.size() < MEMBERS) {
+                members.add(users[random.nextInt(USERS)]);
+            }
+            List<String> emails = new ArrayList<>();
+            for (User member : members) {
+                emails.add(member.getEmail());
+            }
+            List<Expense> expenses = new ArrayList<>();
+            for (int e = 0; e < EXPENSES_PER_GROUP; e++) {
+                User payer = users[random.nextInt(USERS)];
+                Expense expense = new Expense(Integer.toString(EUID++), "Expense " + e, Money.of(10.0),
+                        Map.of(payer, Money.of(10.0)), Map.of(), data.getBalanceLedger());
+                payer.addExpense(expense);
+                data.addExpense(expense);
+                expenses.add(expense);
+            }
+            data.addGroup(new Group("Group " + g, emails, expenses, ""));
+        }
+        groupManager = new GroupManager(data);
+        userManager = new UserManager(data);
+    }
+
+    private User nextUser() {
+        next = next + 1 == USERS ? 0 : next + 1;
+        return users[next];
+    }
+
+    @Benchmark
+    public List<String> getListOfGroup() {
+        return groupManager.getListOfGroup(nextUser());
+    }
+
+    @Benchmark
+    public StringBuilder getExpenses() {
+        return userManager.getExpenses(nextUser());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ManagerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
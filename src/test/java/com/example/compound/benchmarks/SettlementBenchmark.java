@@ -0,0 +1,88 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.entities.Expense;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.Person;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares settling every borrower's share of an expense using Expense, which keeps amounts as cents, against the
+ * boxed-Double maps Expense used before Money was introduced. Run with -prof gc to compare allocation per settlement.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SettlementBenchmark {
+    @Param({"4", "64"})
+    public int borrowers;
+
+    private static final Money PAYMENT = Money.of(0.01);
+
+    private Person[] people;
+    private Expense expense;
+    private BoxedExpense boxedExpense;
+
+    /*
+     * The settlement logic of Expense as it was with amounts stored as doubles and boxed Doubles.
+     */
+    private static final class BoxedExpense {
+        private double amount;
+        private final Map<Person, Double> whoBorrowed;
+
+        private BoxedExpense(double amount, Map<Person, Double> whoBorrowed) {
+            this.amount = amount;
+            this.whoBorrowed = whoBorrowed;
+        }
+
+        private void settleExpenseBorrowed(Person p, Double amountPaid) {
+            this.amount -= amountPaid;
+            Double amount = this.whoBorrowed.get(p);
+            this.whoBorrowed.replace(p, amount - amountPaid);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        people = new Person[borrowers];
+        Map<Person, Money> whoBorrowed = new HashMap<>();
+        Map<Person, Double> boxedWhoBorrowed = new HashMap<>();
+        for (int i = 0; i < borrowers; i++) {
+            people[i] = new Person("Person " + i, 0.0, "person" + i + "@example.com");
+            whoBorrowed.put(people[i], Money.of(1_000_000.0));
+            boxedWhoBorrowed.put(people[i], 1_000_000.0);
+        }
+        double amount = borrowers * 1_000_000.0;
+        expense = Expense.restore("0", "Expense", Money.of(amount), new HashMap<>(), whoBorrowed);
+        boxedExpense = new BoxedExpense(amount, boxedWhoBorrowed);
+    }
+
+    @Benchmark
+    public long settleMoney() {
+        for (Person person : people) {
+            expense.settleExpenseBorrowed(person, PAYMENT);
+        }
+        return expense.getAmountInCents();
+    }
+
+    @Benchmark
+    public double settleBoxedDouble() {
+        for (Person person : people) {
+            boxedExpense.settleExpenseBorrowed(person, 0.01);
+        }
+        return boxedExpense.amount;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SettlementBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.compound.benchmarks;
+
+import com.example.compound.entities.DebtSimplifier;
+import com.example.compound.entities.Expense;
+import com.example.compound.entities.Group;
+import com.example.compound.entities.GroupBalances;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.Person;
+import com.example.compound.entities.Transfer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures planning the transfers that settle a group: greedy against exact DebtSimplifier plans as the number of
+ * members grows, which bounds DebtSimplifier.EXACT_LIMIT, and adding one expense to a group whose balances are kept up
+ * to date against recomputing the balances from every expense in the group.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SettlementPlanBenchmark {
+    @Param({"4", "8", "12", "14"})
+    public int members;
+
+    @Param({"10000", "50000"})
+    public int expenses;
+
+    private String[] emails;
+    private long[] balances;
+    private Person[] people;
+    private List<Expense> expenseList;
+    private Group group;
+    private Expense next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        emails = new String[members];
+        people = new Person[members];
+        for (int i = 0; i < members; i++) {
+            emails[i] = "member" + i + "@example.com";
+            people[i] = new Person("Member " + i, 0.0, emails[i]);
+        }
+        expenseList = new ArrayList<>(expenses);
+        for (int i = 0; i < expenses; i++) {
+            expenseList.add(randomExpense(random, i));
+        }
+        group = new Group("Group", List.of(emails), new ArrayList<>(expenseList), "");
+        next = randomExpense(random, expenses);
+        balances = new long[members];
+        for (int i = 0; i < members; i++) {
+            balances[i] = group.getBalances().getBalanceInCents(emails[i]);
+        }
+    }
+
+    private Expense randomExpense(Random random, int EUID) {
+        Person payer = people[random.nextInt(members)];
+        Person borrower = people[random.nextInt(members)];
+        Money amount = Money.ofCents(1 + random.nextInt(10_000));
+        Map<Person, Money> whoPaid = new HashMap<>();
+        whoPaid.put(payer, amount);
+        Map<Person, Money> whoBorrowed = new HashMap<>();
+        whoBorrowed.put(borrower, amount);
+        return Expense.restore(Integer.toString(EUID), "Expense " + EUID, amount, whoPaid, whoBorrowed);
+    }
+
+    @Benchmark
+    public List<Transfer> greedy() {
+        return DebtSimplifier.greedy(emails, balances);
+    }
+
+    @Benchmark
+    public List<Transfer> exact() {
+        return DebtSimplifier.exact(emails, balances);
+    }
+
+    @Benchmark
+    public List<Transfer> addExpenseIncrementally() {
+        // Update the balances as Group.addExpense does, without growing the group's expense list on every call
+        group.getBalances().add(next);
+        return group.getSettlement();
+    }
+
+    @Benchmark
+    public List<Transfer> rebuildFromExpenses() {
+        GroupBalances rebuilt = new GroupBalances();
+        for (Expense expense : expenseList) {
+            rebuilt.add(expense);
+        }
+        rebuilt.add(next);
+        return rebuilt.getSettlement();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(SettlementPlanBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.compound.controller;
+
+import com.example.compound.repositories.BudgetRepository;
+import com.example.compound.repositories.EmbeddedDatabases;
+import com.example.compound.repositories.GroupRepository;
+import com.example.compound.repositories.ItemRepository;
+import com.example.compound.use_cases.transfer_data.GroupTransferData;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class BudgetApiControllerTest {
+    final ObjectMapper objectMapper = new ObjectMapper();
+    MockMvc mvc;
+    String GUID;
+    String budgets;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = EmbeddedDatabases.create();
+        GroupRepository groupRepository = new GroupRepository(jdbcTemplate);
+        GUID = groupRepository.save(new GroupTransferData("Trip", new ArrayList<>(), new ArrayList<>(), ""));
+        budgets = "/api/groups/" + GUID + "/budgets";
+        mvc = MockMvcBuilders.standaloneSetup(new BudgetApiController(new BudgetRepository(jdbcTemplate),
+                groupRepository, new ItemRepository(jdbcTemplate))).build();
+    }
+
+    private JsonNode postJson(String path, String body, int status) throws Exception {
+        MvcResult result = mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON)
+                .content(body)).andExpect(status().is(status)).andReturn();
+        String content = result.getResponse().getContentAsString();
+        return content.isEmpty() ? null : objectMapper.readTree(content);
+    }
+
+    private String createBudget(double maxSpend) throws Exception {
+        return postJson(budgets, "{\"name\": \"Food\", \"maxSpend\": " + maxSpend + "}", 201).get("buid").asText();
+    }
+
+    private String addItem(String BUID, String name, double cost, int quantity) throws Exception {
+        return postJson(budgets + "/" + BUID + "/items", "{\"name\": \"" + name + "\", \"cost\": " + cost +
+                ", \"quantity\": " + quantity + "}", 201).get("iuid").asText();
+    }
+
+    @Test
+    void unchangedBudgetIsNotModified() throws Exception {
+        String BUID = createBudget(100.0);
+        addItem(BUID, "Bread", 2.5, 2);
+
+        MvcResult first = mvc.perform(get(budgets + "/" + BUID + "/items"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Bread"))
+                .andReturn();
+        String eTag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(eTag);
+
+        mvc.perform(get(budgets + "/" + BUID + "/items").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+        mvc.perform(get(budgets + "/" + BUID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void changedBudgetHasNewETag() throws Exception {
+        String BUID = createBudget(100.0);
+        String IUID = addItem(BUID, "Bread", 2.5, 2);
+        String eTag = mvc.perform(get(budgets + "/" + BUID)).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(patch(budgets + "/" + BUID + "/items/" + IUID).contentType(MediaType.APPLICATION_JSON)
+                .content("{\"quantity\": 4}")).andExpect(status().isNoContent());
+
+        MvcResult changed = mvc.perform(get(budgets + "/" + BUID).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalCost").value(10.0))
+                .andExpect(jsonPath("$.items[0].quantity").value(4))
+                .andReturn();
+        assertNotEquals(eTag, changed.getResponse().getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void setsMaxSpendAndRemovesItems() throws Exception {
+        String BUID = createBudget(100.0);
+        String IUID = addItem(BUID, "Bread", 2.5, 2);
+
+        mvc.perform(put(budgets + "/" + BUID + "/max-spend").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"maxSpend\": 20}")).andExpect(status().isNoContent());
+        mvc.perform(delete(budgets + "/" + BUID + "/items/" + IUID)).andExpect(status().isNoContent());
+        mvc.perform(delete(budgets + "/" + BUID + "/items/" + IUID)).andExpect(status().isNotFound());
+
+        mvc.perform(get(budgets + "/" + BUID))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.maxSpend").value(20.0))
+                .andExpect(jsonPath("$.items").isEmpty());
+    }
+
+    @Test
+    void rejectsItemOverSpendingLimit() throws Exception {
+        String BUID = createBudget(10.0);
+        postJson(budgets + "/" + BUID + "/items", "{\"name\": \"Wine\", \"cost\": 20, \"quantity\": 1}", 409);
+    }
+
+    @Test
+    void rejectsBadRequests() throws Exception {
+        String BUID = createBudget(100.0);
+        postJson(budgets, "{\"name\": \"Food\"}", 400);
+        postJson(budgets + "/" + BUID + "/items", "{\"name\": \"Bread\", \"cost\": 2.5}", 400);
+        postJson(budgets + "/" + BUID + "/items", "{\"name\": \"Bread\", \"cost\": -1, \"quantity\": 1}", 400);
+    }
+
+    @Test
+    void budgetsAreOnlyReachableThroughTheirGroup() throws Exception {
+        String BUID = createBudget(100.0);
+        postJson("/api/groups/404/budgets", "{\"name\": \"Food\", \"maxSpend\": 1}", 404);
+        mvc.perform(get("/api/groups/404/budgets/" + BUID)).andExpect(status().isNotFound());
+        mvc.perform(get(budgets + "/404/items")).andExpect(status().isNotFound());
+        postJson("/api/groups/404/budgets/" + BUID + "/items", "{\"name\": \"Bread\", \"cost\": 1, \"quantity\": 1}",
+                404);
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.compound.controller;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestExecutorTest {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    RequestExecutor executor;
+
+    @AfterEach
+    void tearDown() {
+        executor.destroy();
+    }
+
+    @Test
+    void runsOnRequestThreadWhenNotAsync() {
+        executor = new RequestExecutor(new MockEnvironment().withProperty("compound.async.enabled", "false"), registry);
+        Thread caller = Thread.currentThread();
+        CompletableFuture<Thread> thread = executor.submit("test", Thread::currentThread);
+        assertTrue(thread.isDone());
+        assertSame(caller, thread.join());
+    }
+
+    @Test
+    void runsOffRequestThread() {
+        executor = new RequestExecutor(new MockEnvironment(), registry);
+        assertNotSame(Thread.currentThread(), executor.submit("test", Thread::currentThread).join());
+    }
+
+    @Test
+    void completesExceptionallyWhenCallThrows() {
+        executor = new RequestExecutor(new MockEnvironment(), registry);
+        CompletableFuture<Object> result = executor.submit("test", () -> {
+            throw new IllegalStateException("failed");
+        });
+        CompletionException e = assertThrows(CompletionException.class, result::join);
+        assertTrue(e.getCause() instanceof IllegalStateException);
+    }
+
+    @Test
+    void limitsConcurrencyAndQueuesTheRest() throws InterruptedException {
+        executor = new RequestExecutor(new MockEnvironment()
+                .withProperty("compound.async.endpoint.slow.concurrency", "2"), registry);
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<CompletableFuture<Integer>> results = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            int n = i;
+            results.add(executor.submit("slow", () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                started.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                return n;
+            }));
+        }
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        // Other endpoints have their own limits
+        assertEquals("other", executor.submit("other", () -> "other").join());
+        assertEquals(2, running.get());
+        release.countDown();
+        for (int i = 0; i < 6; i++) {
+            assertEquals(i, results.get(i).join());
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() {
+        executor = new RequestExecutor(new MockEnvironment()
+                .withProperty("compound.async.concurrency", "1")
+                .withProperty("compound.async.queue-capacity", "1"), registry);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Boolean> running = executor.submit("slow", () -> awaitQuietly(release));
+        CompletableFuture<Boolean> waiting = executor.submit("slow", () -> awaitQuietly(release));
+
+        ResponseStatusException e = assertThrows(ResponseStatusException.class,
+                () -> executor.submit("slow", () -> true));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(1, registry.get("compound.requests.rejected").tag("endpoint", "slow").counter().count());
+
+        release.countDown();
+        assertTrue(running.join());
+        assertTrue(waiting.join());
+        // Once the calls have finished there is room again
+        assertTrue(executor.submit("slow", () -> true).join());
+    }
+
+    @Test
+    void rejectsNonPositiveConcurrency() {
+        executor = new RequestExecutor(new MockEnvironment(), registry);
+        assertThrows(IllegalArgumentException.class, () -> new RequestExecutor(
+                new MockEnvironment().withProperty("compound.async.concurrency", "0"), registry));
+    }
+
+    private static boolean awaitQuietly(CountDownLatch latch) {
+        try {
+            return latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
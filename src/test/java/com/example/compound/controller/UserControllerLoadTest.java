@@ -0,0 +1,132 @@
+package com.example.compound.controller;
+
+import com.example.compound.entities.User;
+import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.repositories.EmbeddedDatabases;
+import com.example.compound.repositories.UserRepository;
+import com.example.compound.repositories.UserRepositoryImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load tests of UserController against a database that takes LATENCY_MILLIS to answer each query, with a pool of
+ * SERVLET_THREADS threads standing in for the servlet container's. Each checks how many queries were in flight at
+ * once, rather than how long the requests took, so that they do not depend on the speed of the machine.
+ */
+class UserControllerLoadTest {
+    static final int SERVLET_THREADS = 8;
+    static final int CLIENTS = 256;
+    static final int LATENCY_MILLIS = 20;
+
+    UserRepository repository;
+    RequestExecutor requests;
+    UserController controller;
+    ExecutorService servlet;
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    int UUID;
+
+    @BeforeEach
+    void setUp() throws UserAuthException {
+        repository = new UserRepositoryImpl(EmbeddedDatabases.create()) {
+            @Override
+            public User findById(int id) {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(LATENCY_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+                return super.findById(id);
+            }
+        };
+        UUID = repository.create("User", "user@example.com", "user", "secret");
+        servlet = Executors.newFixedThreadPool(SERVLET_THREADS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        servlet.shutdownNow();
+        requests.destroy();
+    }
+
+    private void start(MockEnvironment properties, MeterRegistry registry) {
+        requests = new RequestExecutor(properties, registry);
+        controller = new UserController(requests);
+        controller.repository = repository;
+    }
+
+    /*
+     * Send CLIENTS requests for the user at once, each handled on a servlet thread, and wait for all of them to be
+     * answered.
+     */
+    private void load() {
+        List<CompletableFuture<User>> responses = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            // As Spring MVC does, the servlet thread returns once the handler has returned its future
+            responses.add(CompletableFuture.supplyAsync(() -> controller.getUserByUuid(UUID), servlet)
+                    .thenCompose(response -> response));
+        }
+        for (CompletableFuture<User> response : responses) {
+            assertEquals("User", response.join().getName());
+        }
+    }
+
+    @Test
+    void blockingRequestsAreLimitedByServletThreads() {
+        start(new MockEnvironment().withProperty("compound.async.enabled", "false"), new SimpleMeterRegistry());
+        load();
+        assertTrue(maxInFlight.get() <= SERVLET_THREADS);
+    }
+
+    @Test
+    void asyncRequestsAreNotLimitedByServletThreads() {
+        start(new MockEnvironment().withProperty("compound.async.endpoint.users.id.concurrency", "64"),
+                new SimpleMeterRegistry());
+        load();
+        assertTrue(maxInFlight.get() > SERVLET_THREADS);
+        assertTrue(maxInFlight.get() <= 64);
+    }
+
+    @Test
+    void overloadIsRejectedRatherThanQueuedWithoutBound() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        start(new MockEnvironment()
+                .withProperty("compound.async.endpoint.users.id.concurrency", "4")
+                .withProperty("compound.async.endpoint.users.id.queue-capacity", "8"), registry);
+        int answered = 0;
+        int rejected = 0;
+        List<CompletableFuture<User>> responses = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) {
+            try {
+                responses.add(controller.getUserByUuid(UUID));
+            } catch (ResponseStatusException e) {
+                rejected++;
+            }
+        }
+        for (CompletableFuture<User> response : responses) {
+            assertEquals("User", response.join().getName());
+            answered++;
+        }
+        assertEquals(CLIENTS, answered + rejected);
+        assertTrue(rejected > 0);
+        assertEquals(rejected, registry.get("compound.requests.rejected").tag("endpoint", "users.id").counter().count());
+        assertTrue(maxInFlight.get() <= 4);
+    }
+}
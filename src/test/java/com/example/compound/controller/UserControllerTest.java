@@ -0,0 +1,106 @@
+package com.example.compound.controller;
+
+import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.repositories.EmbeddedDatabases;
+import com.example.compound.repositories.UserRepositoryImpl;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserControllerTest {
+    UserController controller;
+
+    @BeforeEach
+    void setUp() throws UserAuthException {
+        controller = new UserController(new RequestExecutor(new MockEnvironment()
+                .withProperty("compound.async.enabled", "false"), new SimpleMeterRegistry()));
+        controller.repository = new UserRepositoryImpl(EmbeddedDatabases.create());
+        for (int i = 0; i < 5; i++) {
+            controller.repository.create("User " + i, "user" + i + "@example.com", "user" + i, "secret");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UserTransferData> users(Map<String, Object> page) {
+        return (List<UserTransferData>) page.get("users");
+    }
+
+    @Test
+    void pagesThroughUsers() {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            Map<String, Object> page = controller.all(2, cursor).join();
+            for (UserTransferData user : users(page)) {
+                names.add(user.getName());
+            }
+            cursor = (String) page.get("next");
+            pages++;
+        } while (cursor != null);
+        assertEquals(3, pages);
+        assertEquals(List.of("User 0", "User 1", "User 2", "User 3", "User 4"), names);
+    }
+
+    @Test
+    void lastFullPageHasNoCursor() {
+        Map<String, Object> page = controller.all(5, null).join();
+        assertEquals(5, users(page).size());
+        assertNull(page.get("next"));
+    }
+
+    @Test
+    void rejectsBadParameters() {
+        assertThrows(ResponseStatusException.class, () -> controller.all(0, null));
+        assertThrows(ResponseStatusException.class, () -> controller.all(UserController.MAX_PAGE_SIZE + 1, null));
+        assertThrows(ResponseStatusException.class, () -> controller.all(10, "not a cursor"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkCreateReportsEachUserInOrder() {
+        List<Map<String, Object>> request = List.of(
+                Map.of("name", "Bulk 0", "email", "bulk0@example.com", "username", "bulk0", "password", "secret"),
+                Map.of("name", "Bulk 1", "email", "not an email", "username", "bulk1", "password", "secret"),
+                Map.of("name", "Bulk 2", "email", "bulk2@example.com", "username", "bulk2", "password", "secret"));
+        Map<String, Object> response = controller.createUsers(request).join();
+        assertEquals(2, response.get("created"));
+
+        List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+        assertEquals(3, results.size());
+        assertEquals("Bulk 0", controller.repository.findById((Integer) results.get(0).get("uuid")).getName());
+        assertNull(results.get(1).get("uuid"));
+        assertNotNull(results.get(1).get("error"));
+        assertEquals("Bulk 2", controller.repository.findById((Integer) results.get(2).get("uuid")).getName());
+        assertFalse(response.toString().contains("secret"));
+    }
+
+    @Test
+    void bulkCreateRejectsEmptyRequest() {
+        assertThrows(ResponseStatusException.class, () -> controller.createUsers(List.of()));
+    }
+
+    @Test
+    void exportsOneLinePerUserWithoutPasswords() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        controller.export().writeTo(out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(5, lines.length);
+        assertTrue(lines[0].startsWith("{"));
+        assertTrue(lines[0].contains("\"name\":\"User 0\""));
+        assertTrue(lines[4].contains("\"email\":\"user4@example.com\""));
+        assertFalse(out.toString(StandardCharsets.UTF_8).contains("secret"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.compound.data;
+
+import com.example.compound.use_cases.gateways.UIDAllocator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AtomicUIDAllocatorTest {
+    @Test
+    void kindsHaveSeparateCounters() {
+        AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+        assertEquals(0, uidAllocator.next(UIDAllocator.Kind.USER));
+        assertEquals(1, uidAllocator.next(UIDAllocator.Kind.USER));
+        assertEquals(0, uidAllocator.next(UIDAllocator.Kind.EXPENSE));
+    }
+
+    @Test
+    void reserveIsContiguous() {
+        AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+        uidAllocator.next(UIDAllocator.Kind.ITEM);
+        assertArrayEquals(new int[]{1, 2, 3}, uidAllocator.reserve(UIDAllocator.Kind.ITEM, 3));
+        assertEquals(4, uidAllocator.next(UIDAllocator.Kind.ITEM));
+    }
+
+    @Test
+    void markUsedSkipsUID() {
+        AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+        uidAllocator.markUsed(UIDAllocator.Kind.USER, 5);
+        uidAllocator.markUsed(UIDAllocator.Kind.USER, 2);
+        assertEquals(6, uidAllocator.next(UIDAllocator.Kind.USER));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctUIDs() throws Exception {
+        AtomicUIDAllocator uidAllocator = new AtomicUIDAllocator();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Integer> UIDs = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1000; j++) {
+                    UIDs.add(uidAllocator.next(UIDAllocator.Kind.EXPENSE));
+                    for (int UID : uidAllocator.reserve(UIDAllocator.Kind.EXPENSE, 3)) {
+                        UIDs.add(UID);
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(32000, UIDs.size());
+    }
+}
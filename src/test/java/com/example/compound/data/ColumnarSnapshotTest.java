@@ -0,0 +1,113 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarSnapshotTest {
+    @TempDir
+    Path directory;
+
+    private static IndexedData makeData() {
+        IndexedData data = new IndexedData();
+        data.initializeData();
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+        User johny = data.findByEmail("johny@example.com");
+        data.addExpense(new Expense("40", "Lunch", Money.of(20.0), Map.of(rohan, Money.of(20.0)),
+                Map.of(johny, Money.of(10.0)), data.getBalanceLedger()));
+        data.addExpense(new Expense("12", "Lunch", Money.of(7.5), Map.of(johny, Money.of(7.5)),
+                Map.of(rohan, Money.of(7.5)), data.getBalanceLedger()));
+
+        Budget groceries = new Budget("", "Groceries", 50.0);
+        groceries.addItem(new Item("7", "Carrot", 2.5, 4));
+        groceries.addItem(new Item("8", "Bread", 3.0, 1));
+        data.addBudget(groceries);
+        data.addBudget(new Budget("", "Nothing", 0.0));
+        Budget party = new Budget("", "Party", 100.0);
+        party.addItem(new Item("9", "Cake", 40.0, 1));
+        data.addBudget(party);
+        return data;
+    }
+
+    @Test
+    void readsWhatWasWritten() throws IOException {
+        IndexedData data = makeData();
+        Path file = directory.resolve("columns");
+        ColumnarSnapshot.write(file, data);
+        ColumnarSnapshot snapshot = ColumnarSnapshot.open(file);
+
+        assertEquals(data.getUsers().size(), snapshot.getUserCount());
+        int johny = snapshot.findUserByEmail("johny@example.com");
+        User user = data.findByEmail("johny@example.com");
+        assertEquals(user.getName(), snapshot.getUserName(johny));
+        assertEquals(user.getUUID(), snapshot.getUserUUID(johny));
+        assertEquals(user.getBalanceInCents(), snapshot.getUserBalanceInCents(johny));
+
+        assertEquals(3, snapshot.getBudgetCount());
+        assertEquals(3, snapshot.getItemCount());
+        for (Budget budget : data.getBudgets()) {
+            BudgetTransferData read = snapshot.findBudget(budget.getBUID());
+            assertEquals(budget.getName(), read.getName());
+            assertEquals(budget.getMaxSpendInCents(), read.getMaxSpendInCents());
+            assertEquals(budget.viewItems().keySet(), read.getBudget().keySet());
+        }
+        BudgetTransferData groceries = snapshot.findBudget(data.getBudgets().get(0).getBUID());
+        ItemTransferData carrot = groceries.getBudget().get("7");
+        assertEquals("Carrot", carrot.getName());
+        assertEquals(250, carrot.getCostInCents());
+        assertEquals(4, carrot.getQuantity());
+        assertEquals(groceries.getBUID(), carrot.getBUID());
+        assertEquals(1300, snapshot.getBudgetTotalCostInCents(0));
+        assertEquals(0, snapshot.getBudgetTotalCostInCents(1));
+
+        int lunch = snapshot.findExpense("12");
+        assertEquals("Lunch", snapshot.getExpenseTitle(lunch));
+        assertEquals(750, snapshot.getExpenseAmountInCents(lunch));
+        assertEquals("40", snapshot.getExpenseEUID(snapshot.findExpense("40")));
+    }
+
+    @Test
+    void findsNothingForMissingUIDs() throws IOException {
+        Path file = directory.resolve("columns");
+        ColumnarSnapshot.write(file, makeData());
+        ColumnarSnapshot snapshot = ColumnarSnapshot.open(file);
+        assertNull(snapshot.findBudget("1000"));
+        assertNull(snapshot.findBudget(null));
+        assertEquals(-1, snapshot.findExpense("13"));
+        assertEquals(-1, snapshot.findUserByEmail("nobody@example.com"));
+        assertThrows(IndexOutOfBoundsException.class, () -> snapshot.getBudget(3));
+    }
+
+    @Test
+    void writesEmptyRepository() throws IOException {
+        Path file = directory.resolve("columns");
+        ColumnarSnapshot.write(file, new IndexedData());
+        ColumnarSnapshot snapshot = ColumnarSnapshot.open(file);
+        assertEquals(0, snapshot.getUserCount());
+        assertEquals(0, snapshot.getBudgetCount());
+        assertNull(snapshot.findBudget("1"));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = directory.resolve("columns");
+        Files.write(file, new byte[]{1, 2, 3});
+        assertThrows(IOException.class, () -> ColumnarSnapshot.open(file));
+
+        ColumnarSnapshot.write(file, makeData());
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(4, ColumnarSnapshot.VERSION + 1);
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> ColumnarSnapshot.open(file));
+    }
+}
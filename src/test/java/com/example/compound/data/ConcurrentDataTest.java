@@ -0,0 +1,107 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentDataTest {
+    static final int THREADS = 16;
+    static final int OPERATIONS = 2000;
+    static final int BUDGETS = 32;
+
+    ConcurrentData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new ConcurrentData();
+        data.initializeData();
+    }
+
+    @Test
+    void initializeDataMatchesData() {
+        Data listData = new Data();
+        listData.initializeData();
+        assertEquals(listData.getGroups().toString(), data.getGroups().toString());
+        assertEquals("Johny", data.findByEmail("johny@example.com").getName());
+        assertEquals(2, data.getNewUUID());
+    }
+
+    @Test
+    void listingIsSnapshot() {
+        List<Group> groups = data.getGroups();
+        data.addGroup(new Group("New", new ArrayList<>(), new ArrayList<>(), ""));
+        assertEquals(3, groups.size());
+        assertEquals(4, data.getGroups().size());
+    }
+
+    @Test
+    void concurrentAddsAndUpdatesAreNotLost() throws Exception {
+        for (int i = 0; i < BUDGETS; i++) {
+            data.addBudget(new Budget("", "Budget " + i, 10.0));
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    switch (i % 4) {
+                        case 0:
+                            data.addExpense(Expense.restore(Integer.toString(data.getNewEUID()), "Expense", Money.ZERO,
+                                    new HashMap<>(), new HashMap<>()));
+                            break;
+                        case 1:
+                            data.addGroup(new Group("Group", new ArrayList<>(List.of("t" + thread + "@example.com")),
+                                    new ArrayList<>(), ""));
+                            break;
+                        case 2:
+                            String BUID = Integer.toString((thread + i) % BUDGETS);
+                            data.updateBudget(new Budget(BUID, "Thread " + thread, 10.0));
+                            break;
+                        default:
+                            // Listings must never fail or contain a half-added entity while others write
+                            for (Group group : data.getGroups()) {
+                                assertNotNull(group.getGUID());
+                            }
+                            assertEquals(BUDGETS, data.getBudgets().size());
+                            data.getExpenses().size();
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        int perKind = THREADS * OPERATIONS / 4;
+        List<Expense> expenses = data.getExpenses();
+        assertEquals(perKind, expenses.size());
+        Set<String> EUIDs = new HashSet<>();
+        for (Expense expense : expenses) {
+            assertTrue(EUIDs.add(expense.getEUID()));
+        }
+
+        List<Group> groups = data.getGroups();
+        assertEquals(3 + perKind, groups.size());
+        Set<String> GUIDs = new HashSet<>();
+        for (Group group : groups) {
+            assertTrue(GUIDs.add(group.getGUID()));
+            assertSame(group, data.findByGUID(group.getGUID()));
+        }
+        assertEquals(OPERATIONS / 4, data.findGroupsByMember("t0@example.com").size());
+
+        assertEquals(BUDGETS, data.getBudgets().size());
+        for (int i = 0; i < BUDGETS; i++) {
+            assertTrue(data.findByBUID(Integer.toString(i)).getName().startsWith("Thread "));
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DurableDataTest {
+    @TempDir
+    Path directory;
+
+    // Make changes of every kind, returning the EUID of the added expense
+    private static String makeChanges(DurableData data) {
+        data.initializeData();
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+        User johny = data.findByEmail("johny@example.com");
+        String EUID = Integer.toString(data.getNewEUID());
+        Expense lunch = new Expense(EUID, "Lunch", Money.of(20.0), Map.of(rohan, Money.of(20.0)),
+                Map.of(johny, Money.of(10.0)), data.getBalanceLedger());
+        data.addExpense(lunch);
+
+        Budget budget = new Budget("", "Groceries", 50.0);
+        budget.addItem(new Item("7", "Carrot", 2.5, 4));
+        data.addBudget(budget);
+        data.addItem(new Item("", "Pickle", 1.0, 1));
+
+        Group avengers = data.findByGUID("1");
+        Group renamed = new Group("Renamed", avengers.getGroupMembers(), new ArrayList<>(List.of(lunch)), "");
+        renamed.setGUID("1");
+        renamed.addBudget(budget);
+        data.updateGroup(renamed);
+        data.addGroupMember(renamed, "johny@example.com");
+        data.removeGroup(data.findByGUID("2"));
+        data.changeEmail(johny, "john@example.com");
+        return EUID;
+    }
+
+    private static void assertChanged(DurableData data, String EUID) {
+        assertEquals(2, data.getUsers().size());
+        assertNull(data.findByEmail("johny@example.com"));
+        User john = data.findByEmail("john@example.com");
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+        assertEquals(8000, rohan.getBalanceInCents());
+        assertEquals(10000, john.getBalanceInCents());
+
+        Expense lunch = data.findByEUID(EUID);
+        assertEquals("Lunch", lunch.getTitle());
+        assertEquals(2000, lunch.getAmountInCents());
+        assertSame(rohan, lunch.getWhoPaid().keySet().iterator().next());
+        assertEquals(10.0, lunch.getWhoBorrowed().get(john));
+
+        assertEquals("[One Direction, Renamed]", data.getGroups().toString());
+        Group renamed = data.findByGUID("1");
+        assertSame(lunch, renamed.getExpenseList().get(0));
+        assertEquals(List.of("rohan.tinna@mail.utoronto.ca", "johny@example.com"),
+                new ArrayList<>(renamed.getGroupMembers()));
+        // The group's balances are keyed by the emails its members had when it was built
+        assertEquals(1000, renamed.getSettlement().get(0).getAmountInCents());
+
+        Budget budget = data.getBudgets().get(0);
+        assertSame(budget, renamed.getBudgets().get(0));
+        assertSame(budget, data.findByBUID(budget.getBUID()));
+        assertEquals(1000, budget.getTotalCostInCents());
+        assertEquals("Carrot", budget.getItemByIUID("7").getName());
+        assertEquals("Pickle", data.getItems().get(0).getName());
+    }
+
+    @Test
+    void replaysLogAfterCrash() throws IOException {
+        DurableData data = DurableData.open(directory);
+        String EUID = makeChanges(data);
+        // Reopen without closing, as after a crash
+        DurableData reopened = DurableData.open(directory);
+        assertChanged(reopened, EUID);
+        assertFalse(Files.exists(directory.resolve("snapshot")));
+    }
+
+    @Test
+    void replaysItemRemovals() throws IOException {
+        DurableData data = DurableData.open(directory);
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Item item = new Item("", "Item " + i, 1.0, 1);
+            data.addItem(item);
+            items.add(item);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            data.removeItem(items.get(i));
+        }
+        List<Item> replayed = DurableData.open(directory).getItems();
+        assertEquals(50, replayed.size());
+        assertEquals("Item 1", replayed.get(0).getName());
+        assertEquals("Item 99", replayed.get(49).getName());
+    }
+
+    @Test
+    void readsSnapshotAfterClose() throws IOException {
+        String EUID;
+        try (DurableData data = DurableData.open(directory)) {
+            EUID = makeChanges(data);
+        }
+        assertEquals(0, Files.size(directory.resolve("wal-1")));
+        assertFalse(Files.exists(directory.resolve("wal-0")));
+        try (DurableData reopened = DurableData.open(directory)) {
+            assertChanged(reopened, EUID);
+            assertTrue(Integer.parseInt(EUID) < reopened.getNewEUID());
+            assertTrue(reopened.getNewGUID() > 2);
+        }
+    }
+
+    @Test
+    void snapshotsPeriodically() throws IOException {
+        DurableData data = DurableData.open(directory, 5);
+        String EUID = makeChanges(data);
+        assertTrue(Files.exists(directory.resolve("snapshot")));
+        long snapshotted = Files.list(directory).filter(file -> file.getFileName().toString().startsWith("wal-"))
+                .count();
+        assertEquals(1, snapshotted);
+        assertChanged(DurableData.open(directory), EUID);
+    }
+
+    @Test
+    void discardsTornRecord() throws IOException {
+        DurableData data = DurableData.open(directory);
+        data.addUser(new User(5, "Alice", "alice@example.com", "alice", 1.0, "password"));
+        Path log = directory.resolve("wal-0");
+        long size = Files.size(log);
+        // Half of a record written before a crash
+        Files.write(log, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        DurableData reopened = DurableData.open(directory);
+        assertEquals(size, Files.size(log));
+        assertEquals("Alice", reopened.findByUUID("5").getName());
+        reopened.addUser(new User(6, "Bob", "bob@example.com", "bob", 1.0, "password"));
+        assertEquals(2, DurableData.open(directory).getUsers().size());
+    }
+
+    @Test
+    void replaysRecordsSpanningChunks() throws IOException {
+        Path file = directory.resolve("wal-test");
+        List<byte[]> records = new ArrayList<>();
+        try (WriteAheadLog log = new WriteAheadLog(file)) {
+            for (int length : new int[]{3, 20, 0, 7, 100, 5}) {
+                byte[] record = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    record[i] = (byte) (length + i);
+                }
+                records.add(record);
+                log.append(record);
+            }
+        }
+        long size = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        List<byte[]> replayed = new ArrayList<>();
+        assertEquals(records.size(), WriteAheadLog.replay(file, record -> {
+            byte[] contents = new byte[record.remaining()];
+            record.get(contents);
+            replayed.add(contents);
+        }, 16));
+        for (int i = 0; i < records.size(); i++) {
+            assertArrayEquals(records.get(i), replayed.get(i));
+        }
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    void balanceChangesAreForcedOutsideTheLedgerLock() throws IOException {
+        DurableData data = DurableData.open(directory);
+        data.initializeData();
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+        long syncs = data.getSyncCount();
+        long balance = rohan.getBalanceInCents();
+        data.getBalanceLedger().record(rohan, Money.of(5.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        // Recording only appends the change; it is forced when the recording thread waits for it
+        assertEquals(syncs, data.getSyncCount());
+        data.awaitBalances();
+        assertEquals(syncs + 1, data.getSyncCount());
+        data.awaitBalances();
+        assertEquals(syncs + 1, data.getSyncCount());
+
+        assertEquals(balance + 500, DurableData.open(directory).findByEmail("rohan.tinna@mail.utoronto.ca")
+                .getBalanceInCents());
+    }
+
+    @Test
+    void concurrentWritesShareFsyncs() throws Exception {
+        DurableData data = DurableData.open(directory);
+        int threads = 16;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < perThread; i++) {
+                    int UUID = thread * perThread + i;
+                    data.addUser(new User(UUID, "User " + UUID, UUID + "@example.com", "", 0.0, ""));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertTrue(data.getSyncCount() < threads * perThread);
+        assertEquals(threads * perThread, DurableData.open(directory).getUsers().size());
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.compound.data;
+
+import com.example.compound.entities.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedDataTest {
+    IndexedData data;
+
+    @BeforeEach
+    void setUp() {
+        data = new IndexedData();
+        data.initializeData();
+    }
+
+    @Test
+    void initializeDataMatchesData() {
+        Data listData = new Data();
+        listData.initializeData();
+        assertEquals(listData.getUsers().size(), data.getUsers().size());
+        assertEquals(listData.getGroups().toString(), data.getGroups().toString());
+        assertEquals("Johny", data.findByUUID("1").getName());
+    }
+
+    @Test
+    void findByGUID() {
+        Group group = new Group("New", new ArrayList<>(), new ArrayList<>(), "");
+        data.addGroup(group);
+        assertSame(group, data.findByGUID(group.getGUID()));
+        assertNull(data.findByGUID("does not exist"));
+    }
+
+    @Test
+    void updateGroupReplacesAndMovesToEnd() {
+        Group replacement = new Group("Renamed", new ArrayList<>(), new ArrayList<>(), "");
+        replacement.setGUID("0");
+        data.updateGroup(replacement);
+        assertSame(replacement, data.findByGUID("0"));
+        List<Group> groups = data.getGroups();
+        assertEquals(3, groups.size());
+        assertSame(replacement, groups.get(groups.size() - 1));
+    }
+
+    @Test
+    void updateBudgetReplacesBudget() {
+        String BUID = data.addBudget(new Budget("", "Old", 10.0));
+        Budget replacement = new Budget(BUID, "New", 20.0);
+        data.updateBudget(replacement);
+        assertSame(replacement, data.findByBUID(BUID));
+        assertEquals(1, data.getBudgets().size());
+    }
+
+    @Test
+    void removeBudgetByBUID() {
+        String BUID = data.addBudget(new Budget("", "Budget", 10.0));
+        data.removeBudget(BUID);
+        assertNull(data.findByBUID(BUID));
+        assertTrue(data.getBudgets().isEmpty());
+    }
+
+    @Test
+    void updateAndRemoveItem() {
+        Item item = new Item("", "Carrot", 2.0, 1);
+        String IUID = data.addItem(item);
+        Item replacement = new Item(IUID, "Pickle", 3.0, 1);
+        data.updateItem(replacement);
+        assertEquals(List.of(replacement), data.getItems());
+        assertSame(replacement, data.findByIUID(IUID));
+        data.removeItem(item);
+        assertEquals(1, data.getItems().size());
+        data.removeItem(replacement);
+        assertTrue(data.getItems().isEmpty());
+        assertNull(data.findByIUID(IUID));
+    }
+
+    @Test
+    void duplicateUUIDsReturnEarliestUser() {
+        User first = new User("first", 0.0, "first@example.com", "password");
+        User second = new User("second", 0.0, "second@example.com", "password");
+        IndexedData empty = new IndexedData();
+        empty.addUser(first);
+        empty.addUser(second);
+        assertSame(first, empty.findByUUID("0"));
+        empty.removeUser(first);
+        assertSame(second, empty.findByUUID("0"));
+        empty.removeUser(second);
+        assertNull(empty.findByUUID("0"));
+    }
+
+    @Test
+    void removeWhileIteratingOverSnapshot() {
+        for (Group group : data.getGroups()) {
+            data.removeGroup(group);
+        }
+        assertTrue(data.getGroups().isEmpty());
+    }
+
+    @Test
+    void findByEmailFollowsChangeEmail() {
+        User user = data.findByEmail("johny@example.com");
+        assertEquals("Johny", user.getName());
+        data.changeEmail(user, "john@example.com");
+        assertNull(data.findByEmail("johny@example.com"));
+        assertSame(user, data.findByEmail("john@example.com"));
+        data.removeUser(user);
+        assertNull(data.findByEmail("john@example.com"));
+    }
+
+    @Test
+    void findGroupsByMemberFollowsMembershipChanges() {
+        assertEquals("[One Direction, Avengers]",
+                data.findGroupsByMember("rohan.tinna@mail.utoronto.ca").toString());
+        Group avengers = data.findByGUID("1");
+        data.removeGroupMember(avengers, "rohan.tinna@mail.utoronto.ca");
+        data.addGroupMember(data.findByGUID("2"), "rohan.tinna@mail.utoronto.ca");
+        assertEquals("[One Direction, Impossible Group]",
+                data.findGroupsByMember("rohan.tinna@mail.utoronto.ca").toString());
+
+        Group replacement = new Group("Replacement", List.of("new@example.com"), new ArrayList<>(), "");
+        replacement.setGUID("0");
+        data.updateGroup(replacement);
+        assertEquals(List.of(replacement), data.findGroupsByMember("new@example.com"));
+        assertTrue(data.findGroupsByMember("johny@example.com").isEmpty());
+
+        data.removeGroup(replacement);
+        assertTrue(data.findGroupsByMember("new@example.com").isEmpty());
+    }
+
+    @Test
+    void newUIDsAreNotReusedAfterRemoval() {
+        assertEquals(2, data.getNewUUID());
+        Expense expense = Expense.restore(Integer.toString(data.getNewEUID()), "Lunch", Money.ZERO, new HashMap<>(),
+                new HashMap<>());
+        data.addExpense(expense);
+        data.removeExpense(expense);
+        assertNotEquals(expense.getEUID(), Integer.toString(data.getNewEUID()));
+    }
+
+    @Test
+    void findExpensesByEUID() {
+        Expense lunch = Expense.restore("10", "Lunch", Money.ZERO, new HashMap<>(), new HashMap<>());
+        Expense dinner = Expense.restore("11", "Dinner", Money.ZERO, new HashMap<>(), new HashMap<>());
+        data.addExpense(lunch);
+        data.addExpense(dinner);
+        assertSame(dinner, data.findByEUID("11"));
+        assertNull(data.findByEUID("12"));
+        assertEquals(List.of(dinner, lunch, dinner), data.findAllByEUIDs(List.of("11", "12", "10", "11")));
+
+        Data listData = new Data();
+        listData.addExpense(lunch);
+        listData.addExpense(dinner);
+        assertEquals(List.of(dinner, lunch, dinner), listData.findAllByEUIDs(List.of("11", "12", "10", "11")));
+    }
+}
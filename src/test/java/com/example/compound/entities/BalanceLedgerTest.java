@@ -0,0 +1,167 @@
+package com.example.compound.entities;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceLedgerTest {
+    private static final Instant START = Instant.parse("2022-01-01T00:00:00Z");
+    private static final int ALICE = 1;
+    private static final int BOB = 2;
+
+    private Instant now;
+    private BalanceLedger ledger;
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setUp() {
+        now = START;
+        ledger = new BalanceLedger(new Clock() {
+            @Override
+            public ZoneOffset getZone() {
+                return ZoneOffset.UTC;
+            }
+
+            @Override
+            public Clock withZone(ZoneId zone) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Instant instant() {
+                return now;
+            }
+        });
+        alice = new User(ALICE, "Alice", "alice@example.com", "alice", 10.0, "password");
+        bob = new User(BOB, "Bob", "bob@example.com", "bob", 0.0, "password");
+    }
+
+    @Test
+    void recordUpdatesViewAndPerson() {
+        ledger.record(alice, Money.of(-2.5), BalanceEvent.Reason.EXPENSE_PAID, "7");
+        ledger.record(bob, Money.of(2.5), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        assertEquals(750, alice.getBalanceInCents());
+        assertEquals(750, ledger.getBalanceInCents(ALICE));
+        assertEquals(250, ledger.getBalanceInCents(BOB));
+        assertEquals(0, ledger.getBalanceInCents(3));
+
+        List<BalanceEvent> events = ledger.getEvents();
+        assertEquals(new BalanceEvent(0, START, ALICE, 1000, BalanceEvent.Reason.OPENING, null),
+                events.get(0));
+        assertEquals(new BalanceEvent(1, START, ALICE, -250, BalanceEvent.Reason.EXPENSE_PAID, "7"),
+                events.get(1));
+        // Bob had no balance, so no opening event is recorded for him
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    void expenseRecordsPayments() {
+        Expense expense = new Expense("3", "Dinner", Money.of(30.0), Map.of(alice, Money.of(30.0)),
+                Map.of(bob, Money.of(30.0)), ledger);
+        assertEquals(-2000, alice.getBalanceInCents());
+        assertEquals(-2000, ledger.getBalanceInCents(ALICE));
+        assertEquals(expense.getEUID(), ledger.getEvents().get(1).getEUID());
+    }
+
+    @Test
+    void expenseRejectsPayersWithoutAccounts() {
+        Person carol = new Person("Carol", 0.0, "carol@example.com");
+        assertThrows(IllegalArgumentException.class, () -> new Expense("3", "Dinner", Money.of(30.0),
+                Map.of(carol, Money.of(30.0)), Map.of(bob, Money.of(30.0)), ledger));
+        assertEquals(0, ledger.size());
+    }
+
+    @Test
+    void historyIsKeptAcrossChangeOfEmail() {
+        ledger.record(alice, Money.of(1.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        alice.setEmail("alicia@example.com");
+        ledger.record(alice, Money.of(2.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        assertEquals(1300, ledger.getBalanceInCents(ALICE));
+        assertEquals(1100, ledger.getBalanceInCentsAfter(ALICE, 2));
+    }
+
+    @Test
+    void balancesAfterEarlierEventsUseCheckpoints() {
+        Random random = new Random(1);
+        int count = BalanceLedger.CHECKPOINT_INTERVAL * 3 + 17;
+        long[] aliceAfter = new long[count + 1];
+        while (ledger.size() < count) {
+            User user = random.nextBoolean() ? alice : bob;
+            ledger.record(user, Money.ofCents(random.nextInt(201) - 100), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        }
+        long balance = 0;
+        List<BalanceEvent> events = ledger.getEvents();
+        for (int i = 0; i < events.size() && i < count; i++) {
+            if (events.get(i).getUUID() == ALICE) {
+                balance += events.get(i).getCents();
+            }
+            aliceAfter[i + 1] = balance;
+        }
+        for (int i = 0; i <= count; i++) {
+            assertEquals(aliceAfter[i], ledger.getBalanceInCentsAfter(ALICE, i));
+        }
+        assertEquals(alice.getBalanceInCents(), ledger.getBalanceInCentsAfter(ALICE, ledger.size()));
+        assertThrows(IndexOutOfBoundsException.class,
+                () -> ledger.getBalanceInCentsAfter(ALICE, ledger.size() + 1));
+    }
+
+    @Test
+    void balancesUnchangedSinceEarlierCheckpoints() {
+        ledger.record(alice, Money.of(1.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        while (ledger.size() < BalanceLedger.CHECKPOINT_INTERVAL * 3) {
+            ledger.record(bob, Money.ofCents(1), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        }
+        ledger.record(alice, Money.of(2.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        assertEquals(1100,
+                ledger.getBalanceInCentsAfter(ALICE, BalanceLedger.CHECKPOINT_INTERVAL * 2 + 3));
+        assertEquals(1100, ledger.getBalanceInCentsAfter(ALICE, BalanceLedger.CHECKPOINT_INTERVAL * 3));
+        assertEquals(1300, ledger.getBalanceInCentsAfter(ALICE, ledger.size()));
+        assertEquals(0, ledger.getBalanceInCentsAfter(BOB, 2));
+        assertEquals(BalanceLedger.CHECKPOINT_INTERVAL * 2 - 2,
+                ledger.getBalanceInCentsAfter(BOB, BalanceLedger.CHECKPOINT_INTERVAL * 2));
+    }
+
+    @Test
+    void balancesAtEarlierTimes() {
+        ledger.record(bob, Money.of(1.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        now = START.plusSeconds(60);
+        ledger.record(bob, Money.of(2.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        // A clock that goes backwards does not put events out of order
+        now = START.plusSeconds(30);
+        ledger.record(bob, Money.of(4.0), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        assertEquals(START.plusSeconds(60), ledger.getEvents().get(2).getTime());
+
+        assertEquals(0, ledger.getBalanceInCentsAt(BOB, START.minusSeconds(1)));
+        assertEquals(100, ledger.getBalanceInCentsAt(BOB, START));
+        assertEquals(100, ledger.getBalanceInCentsAt(BOB, START.plusSeconds(59)));
+        assertEquals(700, ledger.getBalanceInCentsAt(BOB, START.plusSeconds(60)));
+    }
+
+    @Test
+    void rebuildFromLog() {
+        for (int i = 0; i < BalanceLedger.CHECKPOINT_INTERVAL + 5; i++) {
+            ledger.record(i % 2 == 0 ? alice : bob, Money.ofCents(i), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        }
+        BalanceLedger copy = new BalanceLedger(Clock.systemUTC(), ledger.getEvents());
+        ledger.rebuild();
+        for (BalanceLedger rebuilt : List.of(ledger, copy)) {
+            assertEquals(alice.getBalanceInCents(), rebuilt.getBalanceInCents(ALICE));
+            assertEquals(bob.getBalanceInCents(), rebuilt.getBalanceInCents(BOB));
+            assertEquals(ledger.getBalanceInCentsAfter(BOB, 100),
+                    rebuilt.getBalanceInCentsAfter(BOB, 100));
+        }
+
+        List<BalanceEvent> gap = List.of(ledger.getEvents().get(1));
+        assertThrows(IllegalArgumentException.class, () -> new BalanceLedger(Clock.systemUTC(), gap));
+    }
+}
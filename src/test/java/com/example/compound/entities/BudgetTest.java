@@ -149,4 +149,117 @@ public class BudgetTest {
         }
         fail();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testTotalCostFollowsItemChanges() {
+        b.addItem(i1);
+        assertTrue(i1.setQuantity(3));
+        assertTrue(i1.setCost(4.00));
+        assertEquals(12.00, b.getTotalCost(), 0.01);
+        assertEquals(b.auditTotalCost(), b.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testVetoedChangeLeavesTotalCost() {
+        b.addItem(i1);
+        assertFalse(i1.setQuantity(5000));
+        assertEquals(2.00, b.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testTotalCostRevertedWhenAnotherObserverVetoes() {
+        b.addItem(i1);
+        i1.addObserver(evt -> {
+            if (evt.getNewValue().equals(10)) {
+                throw new PropertyVetoException("", evt);
+            }
+        });
+        assertFalse(i1.setQuantity(10));
+        assertEquals(2.00, b.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testRemovedItemNoLongerAffectsTotalCost() {
+        b.addItem(i1);
+        b.removeItem(i1.getIUID());
+        assertEquals(0.0, b.getTotalCost(), 0.01);
+        assertTrue(i1.setQuantity(5000));
+        assertEquals(0.0, b.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testRenamedItemFoundByNewName() {
+        b.addItem(i1);
+        assertTrue(i1.setName("Parsnip"));
+        assertNull(b.getItemByName("Carrot"));
+        assertEquals(i1, b.getItemByName("Parsnip"));
+        assertTrue(b.changeQuantity("Parsnip", 2));
+    }
+
+    @Test
+    public void testRenameToExistingNameVetoed() {
+        Item i3 = new Item("3", "Parsnip", 1.00, 1);
+        b.addItem(i1);
+        b.addItem(i3);
+        assertFalse(i3.setName("Carrot"));
+        assertEquals("Parsnip", i3.getName());
+        assertEquals(i1, b.getItemByName("Carrot"));
+        assertEquals(i3, b.getItemByName("Parsnip"));
+    }
+
+    @Test
+    public void testAddItemWithDuplicateName() {
+        b.addItem(i1);
+        assertFalse(b.addItem(new Item("3", "Carrot", 1.00, 1)));
+    }
+
+    @Test
+    public void testChangeRejectedByOneBudgetLeavesOtherBudgetTotal() {
+        Budget small = new Budget("2", "Small", 5.0);
+        b.addItem(i1);
+        small.addItem(i1);
+        assertFalse(i1.setQuantity(3));
+        assertEquals(1, i1.getQuantity());
+        assertEquals(2.00, b.getTotalCost(), 0.01);
+        assertEquals(2.00, small.getTotalCost(), 0.01);
+        assertTrue(i1.setQuantity(2));
+        assertEquals(4.00, b.getTotalCost(), 0.01);
+        assertEquals(4.00, small.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testAllowsChangeDoesNotUpdateTotalCost() {
+        b.addItem(i1);
+        assertTrue(b.allowsQuantityChange(i1, 1, 250));
+        assertFalse(b.allowsQuantityChange(i1, 1, 251));
+        assertFalse(b.allowsCostChange(i1, 200, 50100));
+        assertEquals(2.00, b.getTotalCost(), 0.01);
+    }
+
+    @Test
+    public void testBulkLoadedBudget() {
+        Map<String, Item> items = new HashMap<>();
+        items.put(i1.getIUID(), i1);
+        items.put(i2.getIUID(), i2);
+        Budget loaded = new Budget("3", "Loaded", Money.of(5000000.0), items);
+        assertEquals(2500002.00, loaded.getTotalCost(), 0.01);
+        assertEquals(i2, loaded.viewItems().get("2"));
+        assertFalse(i1.hasConstraintListener(loaded));
+        assertEquals(i1, loaded.getItemByName("Carrot"));
+        assertTrue(i1.hasConstraintListener(loaded));
+        assertFalse(i2.hasConstraintListener(loaded));
+    }
+
+    @Test
+    public void testBulkLoadedItemCheckedOnceHandedOut() {
+        Map<String, Item> items = new HashMap<>();
+        items.put(i1.getIUID(), i1);
+        Budget loaded = new Budget("3", "Loaded", Money.of(10.0), items);
+        assertFalse(loaded.getItemByIUID("1").setQuantity(6));
+        assertTrue(loaded.changeQuantity("Carrot", 5));
+        assertEquals(10.00, loaded.getTotalCost(), 0.01);
+        loaded.getItems();
+        assertTrue(loaded.removeItem("1"));
+        assertFalse(i1.hasConstraintListener(loaded));
+    }
+}
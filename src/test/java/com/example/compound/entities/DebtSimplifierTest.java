@@ -0,0 +1,94 @@
+package com.example.compound.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DebtSimplifierTest {
+    private static String[] members(int count) {
+        String[] members = new String[count];
+        for (int i = 0; i < count; i++) {
+            members[i] = "member" + i + "@example.com";
+        }
+        return members;
+    }
+
+    private static long[] randomBalances(Random random, int count) {
+        long[] balances = new long[count];
+        long total = 0;
+        for (int i = 0; i < count - 1; i++) {
+            balances[i] = random.nextInt(2001) - 1000;
+            total += balances[i];
+        }
+        balances[count - 1] = -total;
+        return balances;
+    }
+
+    private static void assertSettles(String[] members, long[] balances, List<Transfer> transfers) {
+        long[] remaining = balances.clone();
+        List<String> memberList = List.of(members);
+        for (Transfer transfer : transfers) {
+            assertTrue(transfer.getAmountInCents() > 0);
+            remaining[memberList.indexOf(transfer.getFrom())] += transfer.getAmountInCents();
+            remaining[memberList.indexOf(transfer.getTo())] -= transfer.getAmountInCents();
+        }
+        assertArrayEquals(new long[balances.length], remaining);
+    }
+
+    @Test
+    void exactBeatsGreedyWhenBalancesSplitIntoZeroGroups() {
+        String[] members = members(5);
+        long[] balances = {500, 800, -400, -500, -400};
+        List<Transfer> greedy = DebtSimplifier.greedy(members, balances);
+        List<Transfer> exact = DebtSimplifier.exact(members, balances);
+        assertEquals(4, greedy.size());
+        assertEquals(3, exact.size());
+        assertSettles(members, balances, greedy);
+        assertSettles(members, balances, exact);
+        assertArrayEquals(new long[]{500, 800, -400, -500, -400}, balances);
+    }
+
+    @Test
+    void exactIsNeverWorseThanGreedy() {
+        Random random = new Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            String[] members = members(2 + random.nextInt(9));
+            long[] balances = randomBalances(random, members.length);
+            List<Transfer> greedy = DebtSimplifier.greedy(members, balances);
+            List<Transfer> exact = DebtSimplifier.exact(members, balances);
+            assertSettles(members, balances, greedy);
+            assertSettles(members, balances, exact);
+            assertTrue(exact.size() <= greedy.size());
+        }
+    }
+
+    @Test
+    void settledBalancesNeedNoTransfers() {
+        String[] members = members(3);
+        assertTrue(DebtSimplifier.simplify(members, new long[3]).isEmpty());
+        assertTrue(DebtSimplifier.simplify(new String[0], new long[0]).isEmpty());
+    }
+
+    @Test
+    void simplifyFallsBackToGreedyForLargeGroups() {
+        Random random = new Random(7);
+        String[] members = members(DebtSimplifier.EXACT_LIMIT + 10);
+        long[] balances = randomBalances(random, members.length);
+        List<Transfer> transfers = DebtSimplifier.simplify(members, balances);
+        assertSettles(members, balances, transfers);
+        assertEquals(DebtSimplifier.greedy(members, balances), transfers);
+        assertThrows(IllegalArgumentException.class, () -> DebtSimplifier.exact(members, balances));
+    }
+
+    @Test
+    void exactRejectsBalancesThatDoNotSumToZero() {
+        String[] members = members(2);
+        long[] balances = {100, -50};
+        assertThrows(IllegalArgumentException.class, () -> DebtSimplifier.exact(members, balances));
+        assertEquals(List.of(new Transfer(members[1], members[0], Money.ofCents(50))),
+                DebtSimplifier.simplify(members, balances));
+    }
+}
@@ -15,7 +15,7 @@ public class ExpenseTest {
 
     @Before
     public void TestSetUp() {
-        p = new Person("name", 100.01, "email");
+        p = new User(1, "name", "email", "email", 100.01, "password");
         u = new User("name", 100.01, "email", "password");
 
         HashMap<Person, Double> whoPaid = new HashMap<>();
@@ -23,7 +23,7 @@ public class ExpenseTest {
         HashMap<Person, Double> whoBorrowed = new HashMap<>();
         whoPaid.put(u, 10.05);
 
-        e = new Expense("0", "title", 20.01, whoPaid, whoBorrowed);
+        e = new Expense("0", "title", 20.01, whoPaid, whoBorrowed, new BalanceLedger());
     }
 
     @Test
@@ -5,7 +5,9 @@ import org.junit.*;
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class GroupTest {
     // emptyGroup and simpleGroup shouldn't be mutated.
@@ -41,4 +43,51 @@ public class GroupTest {
         assertTrue(emptyGroup.getExpenseList().isEmpty());
         assertTrue(simpleGroup.getExpenseList().isEmpty());
     }
+
+    private static Expense expense(String EUID, Person payer, Map<Person, Money> whoBorrowed) {
+        Money amount = Money.ZERO;
+        for (Money share : whoBorrowed.values()) {
+            amount = amount.plus(share);
+        }
+        Map<Person, Money> whoPaid = new LinkedHashMap<>();
+        whoPaid.put(payer, amount);
+        return Expense.restore(EUID, "Expense " + EUID, amount, whoPaid, new LinkedHashMap<>(whoBorrowed));
+    }
+
+    @Test
+    public void testEmptyGroupIsSettled() {
+        assertTrue(emptyGroup.getSettlement().isEmpty());
+        assertEquals(0, emptyGroup.getBalances().getBalanceInCents("alice@example.com"));
+    }
+
+    @Test
+    public void testAddExpenseUpdatesBalancesAndSettlement() {
+        Person alice = new Person("Alice", 0.0, "alice@example.com");
+        Person bob = new Person("Bob", 0.0, "bob@example.com");
+        Person carol = new Person("Carol", 0.0, "carol@example.com");
+        Group group = new Group("G", List.of("alice@example.com", "bob@example.com", "carol@example.com"),
+                new ArrayList<>(), "");
+
+        group.addExpense(expense("1", alice, Map.of(bob, Money.of(30.0), carol, Money.of(30.0))));
+        assertEquals(6000, group.getBalances().getBalanceInCents("alice@example.com"));
+        assertEquals(-3000, group.getBalances().getBalanceInCents("bob@example.com"));
+        assertEquals(2, group.getSettlement().size());
+
+        group.addExpense(expense("2", bob, Map.of(alice, Money.of(30.0))));
+        assertEquals(3000, group.getBalances().getBalanceInCents("alice@example.com"));
+        assertEquals(0, group.getBalances().getBalanceInCents("bob@example.com"));
+        assertEquals(List.of(new Transfer("carol@example.com", "alice@example.com", Money.of(30.0))),
+                group.getSettlement());
+    }
+
+    @Test
+    public void testBalancesIncludeExpensesGivenToConstructor() {
+        Person alice = new Person("Alice", 0.0, "alice@example.com");
+        Person bob = new Person("Bob", 0.0, "bob@example.com");
+        List<Expense> expenses = new ArrayList<>();
+        expenses.add(expense("1", alice, Map.of(bob, Money.of(12.5))));
+        Group group = new Group("G", List.of("alice@example.com", "bob@example.com"), expenses, "");
+        assertEquals(List.of(new Transfer("bob@example.com", "alice@example.com", Money.of(12.5))),
+                group.getSettlement());
+    }
 }
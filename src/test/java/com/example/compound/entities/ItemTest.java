@@ -47,6 +47,16 @@ public class ItemTest {
         assertFalse(i.setQuantity(5));
     }
 
+    @Test
+    public void testRemoveConstraintListener() {
+        Budget budget = new Budget("0", "Budget", 2.0);
+        budget.addItem(i);
+        assertFalse(i.setQuantity(5));
+        i.removeConstraintListener(budget);
+        assertTrue(i.setQuantity(5));
+        assertEquals(2.00, budget.getTotalCost(), 0.01);
+    }
+
     @Test
     public void testSetName() {
         i.setName("Pickle");
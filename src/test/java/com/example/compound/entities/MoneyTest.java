@@ -0,0 +1,62 @@
+package com.example.compound.entities;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoneyTest {
+    @Test
+    void ofRoundsToNearestCent() {
+        assertEquals(29, Money.of(0.29).getCents());
+        assertEquals(10001, Money.of(100.01).getCents());
+        assertEquals(-505, Money.of(-5.05).getCents());
+        assertEquals(100.01, Money.of(100.01).toDouble(), 0);
+    }
+
+    @Test
+    void ofBigDecimalMatchesNumericColumn() {
+        assertEquals(Money.ofCents(123456789012345678L), Money.of(new BigDecimal("1234567890123456.78")));
+        assertEquals(Money.ofCents(101), Money.of(new BigDecimal("1.005")));
+        assertEquals(Money.ZERO, Money.of((BigDecimal) null));
+        assertEquals(new BigDecimal("-0.05"), Money.ofCents(-5).toBigDecimal());
+    }
+
+    @Test
+    void arithmeticIsExact() {
+        Money total = Money.ZERO;
+        for (int i = 0; i < 10; i++) {
+            total = total.plus(Money.of(0.1));
+        }
+        assertEquals(Money.of(1.0), total);
+        assertEquals(Money.of(0.3), Money.of(0.5).minus(Money.of(0.2)));
+        assertEquals("7.50", Money.of(2.5).times(3).toString());
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+    }
+
+    @Test
+    void budgetTotalIsExact() {
+        Budget budget = new Budget("0", "Budget", 1.0);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(budget.addItem(new Item(Integer.toString(i), "Item " + i, 0.1, 1)));
+        }
+        assertEquals(100, budget.getTotalCostInCents());
+        assertFalse(budget.addItem(new Item("10", "Item 10", 0.01, 1)));
+    }
+
+    @Test
+    void settlingExpenseUpdatesShares() {
+        User payer = new User(1, "payer", "payer@example.com", "payer", 0.0, "password");
+        User borrower = new User(2, "borrower", "borrower@example.com", "borrower", 0.0, "password");
+        Expense expense = new Expense("0", "Dinner", Money.of(30.0),
+                Map.of(payer, Money.of(30.0)), Map.of(borrower, Money.of(15.0)), new BalanceLedger());
+        assertEquals(-3000, payer.getBalanceInCents());
+        for (int i = 0; i < 3; i++) {
+            expense.settleExpenseBorrowed(borrower, Money.of(0.1));
+        }
+        assertEquals(2970, expense.getAmountInCents());
+        assertEquals(14.7, expense.getWhoBorrowed().get(borrower), 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.compound.metrics;
+
+import com.example.compound.data.IndexedData;
+import com.example.compound.entities.User;
+import com.example.compound.use_cases.GroupManager;
+import com.example.compound.use_cases.gateways.RepositoryGateway;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CallMetricsTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RepositoryGateway makeData() {
+        IndexedData data = new IndexedData();
+        data.initializeData();
+        return CallMetrics.gateway(RepositoryGateway.class, data, registry, 1);
+    }
+
+    private Timer timer(String layer, String className, String method) {
+        return registry.find(CallMetrics.CALLS).tags("layer", layer, "class", className, "method", method).timer();
+    }
+
+    @Test
+    void timesManagerAndGatewayCalls() {
+        RepositoryGateway data = makeData();
+        GroupManager groupManager = CallMetrics.manager(new GroupManager(data), registry, 1);
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+
+        assertEquals(2, groupManager.getListOfGroup(rohan).size());
+        groupManager.getListOfGroup(rohan);
+
+        assertEquals(2, timer("manager", "GroupManager", "getListOfGroup").count());
+        assertEquals(2, timer("gateway", "IndexedData", "findGroupsByMember").count());
+        assertEquals(1, timer("gateway", "IndexedData", "findByEmail").count());
+        assertTrue(timer("manager", "GroupManager", "getListOfGroup").totalTime(TimeUnit.NANOSECONDS) > 0);
+    }
+
+    @Test
+    void countsFailures() {
+        GroupManager groupManager = CallMetrics.manager(new GroupManager(makeData()), registry, 1);
+
+        assertThrows(NullPointerException.class, () -> groupManager.getListOfGroup(null));
+        assertThrows(NullPointerException.class, () -> groupManager.getListOfGroup(null));
+
+        assertEquals(2, timer("manager", "GroupManager", "getListOfGroup").count());
+        assertEquals(2, registry.find(CallMetrics.FAILURES)
+                .tags("class", "GroupManager", "method", "getListOfGroup", "exception", "NullPointerException")
+                .counter().count());
+    }
+
+    @Test
+    void timesASampleOfCalls() {
+        RepositoryGateway data = makeData();
+        GroupManager groupManager = CallMetrics.manager(new GroupManager(data), registry, 4);
+        User rohan = data.findByEmail("rohan.tinna@mail.utoronto.ca");
+        for (int i = 0; i < 1000; i++) {
+            groupManager.getListOfGroup(rohan);
+        }
+
+        assertEquals(1000, registry.find(CallMetrics.CALL_COUNT)
+                .tags("layer", "manager", "class", "GroupManager", "method", "getListOfGroup").counter().count());
+        long timed = timer("manager", "GroupManager", "getListOfGroup").count();
+        assertTrue(timed > 100 && timed < 500, "timed " + timed + " of 1000 calls");
+        assertThrows(IllegalArgumentException.class, () -> CallMetrics.manager(groupManager, registry, 3));
+    }
+
+    @Test
+    void publishesHistograms() {
+        PrometheusMeterRegistry prometheus = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        RepositoryGateway data = makeData();
+        CallMetrics.manager(new GroupManager(data), prometheus, 1)
+                .getListOfGroup(data.findByEmail("rohan.tinna@mail.utoronto.ca"));
+        assertTrue(prometheus.scrape().contains("compound_calls_seconds_bucket{"));
+    }
+
+    @Test
+    void doesNotWrapWhenDisabled() {
+        GroupManager groupManager = new GroupManager(new IndexedData());
+        System.setProperty(CallMetrics.ENABLED_PROPERTY, "false");
+        try {
+            assertSame(groupManager, CallMetrics.manager(groupManager));
+        } finally {
+            System.clearProperty(CallMetrics.ENABLED_PROPERTY);
+        }
+        assertNotSame(groupManager, CallMetrics.manager(groupManager));
+    }
+}
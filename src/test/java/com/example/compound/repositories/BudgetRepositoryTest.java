@@ -0,0 +1,160 @@
+package com.example.compound.repositories;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import com.example.compound.exceptions.ConcurrentUpdateException;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.GroupTransferData;
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetRepositoryTest {
+    JdbcTemplate jdbcTemplate;
+    BudgetRepository budgetRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedDatabases.create();
+        budgetRepository = new BudgetRepository(jdbcTemplate);
+    }
+
+    // A budget whose items have not been saved, and so have no IUIDs yet
+    private BudgetTransferData budgetWithItems(int items) {
+        BudgetTransferData budget = new BudgetTransferData("", "Groceries", 1000.0);
+        for (int i = 0; i < items; i++) {
+            budget.getBudget().put("new " + i, new ItemTransferData("", "Item " + i, 1.25, 1));
+        }
+        return budget;
+    }
+
+    @Test
+    void saveAndFindBudgetWithItems() {
+        Budget budget = new Budget("", "Groceries", 100.0);
+        budget.addItem(new Item("", "Carrot", 0.29, 3));
+        BudgetTransferData budgetTransferData = new BudgetTransferData(budget);
+        String BUID = budgetRepository.save(budgetTransferData);
+        assertEquals(BUID, budgetTransferData.getBUID());
+
+        Budget found = budgetRepository.findByUID(BUID).toBudget();
+        assertEquals("Groceries", found.getName());
+        assertEquals(10000, found.getMaxSpendInCents());
+        Item carrot = found.getItemByName("Carrot");
+        assertNotNull(found.getItemByIUID(carrot.getIUID()));
+        assertEquals(87, found.getTotalCostInCents());
+    }
+
+    @Test
+    void saveReplacesItems() {
+        BudgetTransferData budgetTransferData = budgetWithItems(50);
+        String BUID = budgetRepository.save(budgetTransferData);
+        assertEquals(50, budgetRepository.findByUID(BUID).getBudget().size());
+
+        Budget budget = budgetRepository.findByUID(BUID).toBudget();
+        String removed = budget.getItemByName("Item 0").getIUID();
+        budget.removeItem(removed);
+        budget.changeQuantity("Item 1", 4);
+        budgetRepository.save(new BudgetTransferData(budget));
+
+        BudgetTransferData found = budgetRepository.findByUID(BUID);
+        assertEquals(49, found.getBudget().size());
+        assertNull(found.getBudget().get(removed));
+        assertEquals(4, found.toBudget().getItemByName("Item 1").getQuantity());
+        assertEquals(49, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+    }
+
+    @Test
+    void findAllReadsItemsOfEveryBudget() {
+        budgetRepository.save(budgetWithItems(2));
+        budgetRepository.save(budgetWithItems(3));
+        assertEquals(2, budgetRepository.findAll().size());
+        assertEquals(2, budgetRepository.findAll().get(0).getBudget().size());
+        assertEquals(3, budgetRepository.findAll().get(1).getBudget().size());
+    }
+
+    @Test
+    void deleteByIdDeletesItems() {
+        String BUID = budgetRepository.save(budgetWithItems(3));
+        budgetRepository.deleteById(BUID);
+        assertNull(budgetRepository.findByUID(BUID));
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM items", Integer.class));
+    }
+
+    @Test
+    void findBudgetByItemUID() {
+        budgetRepository.save(budgetWithItems(2));
+        BudgetTransferData owner = budgetWithItems(3);
+        String BUID = budgetRepository.save(owner);
+        String IUID = owner.getBudget().keySet().iterator().next();
+
+        BudgetTransferData found = budgetRepository.findBudgetByItemUID(IUID);
+        assertEquals(BUID, found.getBUID());
+        assertEquals(3, found.getBudget().size());
+        assertNull(budgetRepository.findBudgetByItemUID("404"));
+    }
+
+    @Test
+    void compareAndSaveRejectsStaleVersion() {
+        String BUID = budgetRepository.save(budgetWithItems(2));
+        BudgetTransferData first = budgetRepository.findByUID(BUID);
+        BudgetTransferData second = budgetRepository.findByUID(BUID);
+        assertEquals(1, first.getVersion());
+
+        first.setMaxSpend(50.0);
+        budgetRepository.compareAndSave(first);
+        assertEquals(2, first.getVersion());
+
+        second.getBudget().clear();
+        assertThrows(ConcurrentUpdateException.class, () -> budgetRepository.compareAndSave(second));
+        BudgetTransferData found = budgetRepository.findByUID(BUID);
+        assertEquals(2, found.getVersion());
+        assertEquals(5000, found.getMaxSpendInCents());
+        assertEquals(2, found.getBudget().size());
+
+        budgetRepository.deleteById(BUID);
+        assertThrows(ConcurrentUpdateException.class, () -> budgetRepository.compareAndSave(found));
+    }
+
+    @Test
+    void findVersionReadsVersionOfBudgetInGroup() {
+        GroupTransferData group = new GroupTransferData("Trip", new ArrayList<>(), new ArrayList<>(), "");
+        String GUID = new GroupRepository(jdbcTemplate).save(group);
+        BudgetTransferData budgetTransferData = budgetWithItems(2);
+        String BUID = budgetRepository.save(budgetTransferData);
+        assertNull(budgetRepository.findVersion(GUID, BUID));
+
+        group.addBudget(budgetTransferData.toBudget());
+        new GroupRepository(jdbcTemplate).save(group);
+        assertEquals(1, budgetRepository.findVersion(GUID, BUID));
+
+        BudgetTransferData found = budgetRepository.findByUID(BUID);
+        found.getBudget().clear();
+        budgetRepository.compareAndSave(found);
+        assertEquals(2, budgetRepository.findVersion(GUID, BUID));
+        assertNull(budgetRepository.findVersion(GUID, "404"));
+        assertNull(budgetRepository.findVersion("not a GUID", BUID));
+    }
+
+    @Test
+    void containsItemChecksBudgetAndGroup() {
+        GroupTransferData group = new GroupTransferData("Trip", new ArrayList<>(), new ArrayList<>(), "");
+        String GUID = new GroupRepository(jdbcTemplate).save(group);
+        BudgetTransferData budgetTransferData = budgetWithItems(2);
+        String BUID = budgetRepository.save(budgetTransferData);
+        String IUID = budgetRepository.findByUID(BUID).getBudget().keySet().iterator().next();
+        assertFalse(budgetRepository.containsItem(GUID, BUID, IUID));
+
+        group.addBudget(budgetTransferData.toBudget());
+        new GroupRepository(jdbcTemplate).save(group);
+        assertTrue(budgetRepository.containsItem(GUID, BUID, IUID));
+        String otherBUID = budgetRepository.save(budgetWithItems(0));
+        assertFalse(budgetRepository.containsItem(GUID, otherBUID, IUID));
+        assertFalse(budgetRepository.containsItem(GUID, BUID, "404"));
+        assertFalse(budgetRepository.containsItem("not a GUID", BUID, IUID));
+    }
+}
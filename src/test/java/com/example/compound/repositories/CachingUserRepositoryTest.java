@@ -0,0 +1,156 @@
+package com.example.compound.repositories;
+
+import com.example.compound.entities.BalanceEvent;
+import com.example.compound.entities.BalanceLedger;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.User;
+import com.example.compound.exceptions.UserAuthException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.EmptyResultDataAccessException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingUserRepositoryTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final TestClock clock = new TestClock();
+    private CachingUserRepository repository;
+    // Run by the underlying repository in the middle of each read, standing in for another request
+    private Runnable duringRead = () -> { };
+
+    private static final class TestClock extends Clock {
+        private Instant now = Instant.EPOCH;
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        repository = new CachingUserRepository(new UserRepositoryImpl(EmbeddedDatabases.create()) {
+            @Override
+            public User findById(int id) {
+                User user = super.findById(id);
+                duringRead.run();
+                return user;
+            }
+        }, 2, Duration.ofSeconds(30), clock, registry);
+    }
+
+    private double count(String result) {
+        return registry.find("compound.user.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void cachesCreatedUsersOnceRead() throws UserAuthException {
+        int uuid = repository.create("Alice", "alice@example.com", "alice", "password");
+        assertEquals(0, repository.size());
+        User alice = repository.findById(uuid);
+        assertEquals("Alice", alice.getName());
+        assertEquals("alice@example.com", alice.getEmail());
+        assertEquals(0, alice.getBalanceInCents());
+        assertSame(alice, repository.findById(uuid));
+        assertEquals(1, count("hit"));
+        assertEquals(1, count("miss"));
+    }
+
+    @Test
+    void readsThroughAndExpires() throws UserAuthException {
+        int uuid = repository.create("Alice", "alice@example.com", "alice", "password");
+
+        User alice = repository.findById(uuid);
+        assertSame(alice, repository.findById(uuid));
+        assertEquals(1, count("miss"));
+        assertEquals(1, count("hit"));
+
+        clock.advance(Duration.ofSeconds(30));
+        User reread = repository.findById(uuid);
+        assertNotSame(alice, reread);
+        assertEquals("Alice", reread.getName());
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void invalidatesOnUpdate() throws UserAuthException {
+        int uuid = repository.create("Alice", "alice@example.com", "alice", "password");
+        User alice = repository.findById(uuid);
+        alice.setName("Alicia");
+        new BalanceLedger().record(alice, Money.of(12.5), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        repository.update(alice);
+
+        User updated = repository.findById(uuid);
+        assertNotSame(alice, updated);
+        assertEquals("Alicia", updated.getName());
+        assertEquals(1250, updated.getBalanceInCents());
+        assertEquals(2, count("miss"));
+    }
+
+    @Test
+    void readsOverlappingAnInvalidationAreOnlyDroppedForThatUser() throws UserAuthException {
+        int alice = repository.create("Alice", "alice@example.com", "alice", "password");
+        int bob = repository.create("Bob", "bob@example.com", "bob", "password");
+
+        // Bob is changed while Alice is being read, so Alice is cached
+        duringRead = () -> repository.invalidate(bob);
+        repository.findById(alice);
+        assertEquals(1, repository.size());
+        // Alice is changed while she is being read, so the user read may be out of date and is not cached
+        repository.invalidate(alice);
+        duringRead = () -> repository.invalidate(alice);
+        repository.findById(alice);
+        assertEquals(0, repository.size());
+
+        duringRead = () -> { };
+        repository.findById(alice);
+        repository.findById(alice);
+        assertEquals(3, count("miss"));
+        assertEquals(1, count("hit"));
+    }
+
+    @Test
+    void evictsLeastRecentlyRead() throws UserAuthException {
+        int alice = repository.create("Alice", "alice@example.com", "alice", "password");
+        int bob = repository.create("Bob", "bob@example.com", "bob", "password");
+        int carol = repository.create("Carol", "carol@example.com", "carol", "password");
+        repository.findById(alice);
+        repository.findById(bob);
+        repository.findById(alice);
+        repository.findById(carol);
+
+        assertEquals(2, repository.size());
+        assertEquals(1, registry.find("compound.user.cache.evictions").counter().count());
+        repository.findById(alice);
+        assertEquals(3, count("miss"));
+        repository.findById(bob);
+        assertEquals(4, count("miss"));
+    }
+
+    @Test
+    void doesNotCacheMissingUsers() {
+        assertThrows(EmptyResultDataAccessException.class, () -> repository.findById(1000));
+        assertEquals(0, repository.size());
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.compound.repositories;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates empty in-memory H2 databases, in PostgreSQL mode, with the tables used by the JDBC repositories.
+ */
+public final class EmbeddedDatabases {
+    private static final AtomicInteger databaseCounter = new AtomicInteger();
+
+    private EmbeddedDatabases() {
+    }
+
+    /**
+     * Return a JdbcTemplate for a new, empty database.
+     * @return a JdbcTemplate for a new, empty database
+     */
+    public static JdbcTemplate create() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource("jdbc:h2:mem:compound"
+                + databaseCounter.getAndIncrement() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("db/schema.sql")).execute(dataSource);
+        return new JdbcTemplate(dataSource);
+    }
+}
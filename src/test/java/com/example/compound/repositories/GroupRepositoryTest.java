@@ -0,0 +1,123 @@
+package com.example.compound.repositories;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import com.example.compound.exceptions.ConcurrentUpdateException;
+import com.example.compound.use_cases.transfer_data.BudgetTransferData;
+import com.example.compound.use_cases.transfer_data.GroupTransferData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupRepositoryTest {
+    GroupRepository groupRepository;
+    BudgetRepository budgetRepository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = EmbeddedDatabases.create();
+        groupRepository = new GroupRepository(jdbcTemplate);
+        budgetRepository = new BudgetRepository(jdbcTemplate);
+    }
+
+    @Test
+    void saveAndFindGroup() {
+        GroupTransferData group = new GroupTransferData("Flat", new ArrayList<>(List.of("b@example.com",
+                "a@example.com")), new ArrayList<>(), "Shared flat");
+        String GUID = groupRepository.save(group);
+        assertEquals(GUID, group.getGUID());
+
+        GroupTransferData found = groupRepository.findByUID(GUID);
+        assertEquals("Flat", found.getName());
+        assertEquals("Shared flat", found.getDescription());
+        assertEquals(List.of("b@example.com", "a@example.com"), found.getGroupMembers());
+        assertTrue(found.getBudgets().isEmpty());
+        assertNull(groupRepository.findByUID("404"));
+    }
+
+    @Test
+    void saveLinksBudgets() {
+        GroupTransferData group = new GroupTransferData("Flat", new ArrayList<>(), new ArrayList<>(), "");
+        groupRepository.save(group);
+        Budget budget = new Budget("", "Groceries", 100.0);
+        budget.setBUID(budgetRepository.save(new BudgetTransferData(budget)));
+        group.addBudget(budget);
+        groupRepository.save(group);
+
+        GroupTransferData found = groupRepository.findByUID(group.getGUID());
+        assertEquals(1, found.getBudgets().size());
+        assertEquals(budget.getBUID(), found.getBudgets().get(0).getBUID());
+
+        found.removeBudget(budget.getBUID());
+        groupRepository.save(found);
+        assertTrue(groupRepository.findByUID(group.getGUID()).getBudgets().isEmpty());
+        assertNotNull(budgetRepository.findByUID(budget.getBUID()));
+    }
+
+    @Test
+    void findAllAndDelete() {
+        GroupTransferData first = new GroupTransferData("One", new ArrayList<>(List.of("a@example.com")),
+                new ArrayList<>(), "");
+        GroupTransferData second = new GroupTransferData("Two", new ArrayList<>(), new ArrayList<>(), "");
+        groupRepository.save(first);
+        groupRepository.save(second);
+        assertEquals(2, groupRepository.findAll().size());
+        assertEquals(List.of("a@example.com"), groupRepository.findAll().get(0).getGroupMembers());
+
+        groupRepository.deleteById(first.getGUID());
+        assertEquals(1, groupRepository.findAll().size());
+        assertEquals("Two", groupRepository.findAll().get(0).getName());
+    }
+
+    @Test
+    void findAllReadsBudgetsOfEveryGroup() {
+        GroupTransferData first = new GroupTransferData("One", new ArrayList<>(), new ArrayList<>(), "");
+        GroupTransferData second = new GroupTransferData("Two", new ArrayList<>(), new ArrayList<>(), "");
+        for (GroupTransferData group : List.of(first, second)) {
+            groupRepository.save(group);
+            for (int i = 0; i < 2; i++) {
+                Budget budget = new Budget("", group.getName() + " " + i, 100.0);
+                budget.addItem(new Item("", "Item", 1.0, 1));
+                budget.setBUID(budgetRepository.save(new BudgetTransferData(budget)));
+                group.addBudget(budget);
+            }
+            groupRepository.save(group);
+        }
+        // A budget in no group
+        budgetRepository.save(new BudgetTransferData("", "Loose", 1.0));
+
+        List<GroupTransferData> groups = groupRepository.findAll();
+        assertEquals(2, groups.size());
+        for (GroupTransferData group : groups) {
+            assertEquals(2, group.getBudgets().size());
+            for (Budget budget : group.getBudgets()) {
+                assertTrue(budget.getName().startsWith(group.getName()));
+                assertEquals(1, budget.viewItems().size());
+            }
+        }
+    }
+
+    @Test
+    void compareAndSaveRejectsStaleVersion() {
+        String GUID = groupRepository.save(new GroupTransferData("Flat", new ArrayList<>(), new ArrayList<>(), ""));
+        GroupTransferData first = groupRepository.findByUID(GUID);
+        GroupTransferData second = groupRepository.findByUID(GUID);
+
+        first.getGroupMembers().add("a@example.com");
+        groupRepository.compareAndSave(first);
+        second.getGroupMembers().add("b@example.com");
+        assertThrows(ConcurrentUpdateException.class, () -> groupRepository.compareAndSave(second));
+        assertEquals(List.of("a@example.com"), groupRepository.findByUID(GUID).getGroupMembers());
+
+        GroupTransferData reread = groupRepository.findByUID(GUID);
+        reread.getGroupMembers().add("b@example.com");
+        groupRepository.compareAndSave(reread);
+        assertEquals(3, reread.getVersion());
+        assertEquals(List.of("a@example.com", "b@example.com"), groupRepository.findByUID(GUID).getGroupMembers());
+    }
+}
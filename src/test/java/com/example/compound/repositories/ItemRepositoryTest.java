@@ -0,0 +1,58 @@
+package com.example.compound.repositories;
+
+import com.example.compound.use_cases.transfer_data.ItemTransferData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ItemRepositoryTest {
+    JdbcTemplate jdbcTemplate;
+    ItemRepository itemRepository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedDatabases.create();
+        itemRepository = new ItemRepository(jdbcTemplate);
+    }
+
+    @Test
+    void saveAssignsIUIDAndFindsItem() {
+        ItemTransferData item = new ItemTransferData("", "Carrot", 0.29, 3);
+        String IUID = itemRepository.save(item);
+        assertEquals(IUID, item.getIUID());
+
+        ItemTransferData found = itemRepository.findByUID(IUID);
+        assertEquals("Carrot", found.getName());
+        assertEquals(29, found.getCostInCents());
+        assertEquals(3, found.getQuantity());
+        assertNull(found.getBUID());
+    }
+
+    @Test
+    void saveUpdatesExistingItem() {
+        ItemTransferData item = new ItemTransferData("", "Carrot", 0.29, 3);
+        String IUID = itemRepository.save(item);
+        item.setQuantity(5);
+        assertEquals(IUID, itemRepository.save(item));
+        assertEquals(1, itemRepository.findAll().size());
+        assertEquals(5, itemRepository.findByUID(IUID).getQuantity());
+    }
+
+    @Test
+    void deleteById() {
+        String IUID = itemRepository.save(new ItemTransferData("", "Carrot", 0.29, 3));
+        itemRepository.deleteById(IUID);
+        assertNull(itemRepository.findByUID(IUID));
+        assertNull(itemRepository.findByUID("not a UID"));
+    }
+
+    @Test
+    void savesDrawIUIDsFromOneBlock() {
+        for (int i = 0; i < SequenceUIDAllocator.BLOCK_SIZE; i++) {
+            itemRepository.save(new ItemTransferData("", "Carrot", 0.29, 3));
+        }
+        assertEquals(1 + SequenceUIDAllocator.BLOCK_SIZE, JdbcUIDs.nextValue(jdbcTemplate, "items_seq"));
+    }
+}
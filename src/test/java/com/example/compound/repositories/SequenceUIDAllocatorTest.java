@@ -0,0 +1,87 @@
+package com.example.compound.repositories;
+
+import com.example.compound.use_cases.gateways.UIDAllocator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SequenceUIDAllocatorTest {
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = EmbeddedDatabases.create();
+    }
+
+    @Test
+    void nextHandsOutBlockBeforeQueryingAgain() {
+        SequenceUIDAllocator uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        for (int i = 0; i < SequenceUIDAllocator.BLOCK_SIZE; i++) {
+            assertEquals(1 + i, uidAllocator.next(UIDAllocator.Kind.USER));
+        }
+        assertEquals(1 + SequenceUIDAllocator.BLOCK_SIZE, JdbcUIDs.nextValue(jdbcTemplate, "users_seq"));
+        assertEquals(1 + 2 * SequenceUIDAllocator.BLOCK_SIZE, uidAllocator.next(UIDAllocator.Kind.USER));
+        assertEquals(1000, uidAllocator.next(UIDAllocator.Kind.EXPENSE));
+    }
+
+    @Test
+    void allocatorsSharingSequenceDoNotCollide() {
+        SequenceUIDAllocator first = new SequenceUIDAllocator(jdbcTemplate);
+        SequenceUIDAllocator second = new SequenceUIDAllocator(jdbcTemplate);
+        Set<Integer> UIDs = new ConcurrentSkipListSet<>();
+        for (int i = 0; i < 120; i++) {
+            assertTrue(UIDs.add(first.next(UIDAllocator.Kind.ITEM)));
+            assertTrue(UIDs.add(second.next(UIDAllocator.Kind.ITEM)));
+        }
+    }
+
+    @Test
+    void reserveSpansBlocks() {
+        SequenceUIDAllocator uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        int first = uidAllocator.next(UIDAllocator.Kind.BUDGET);
+        int[] UIDs = uidAllocator.reserve(UIDAllocator.Kind.BUDGET, 120);
+        assertEquals(120, UIDs.length);
+        for (int i = 1; i < UIDs.length; i++) {
+            assertTrue(UIDs[i] > UIDs[i - 1]);
+        }
+        assertTrue(UIDs[0] > first);
+        assertEquals(first + 1, uidAllocator.next(UIDAllocator.Kind.BUDGET));
+    }
+
+    @Test
+    void sequenceWithOtherIncrementIsRejected() {
+        jdbcTemplate.execute("ALTER SEQUENCE users_seq INCREMENT BY 1");
+        SequenceUIDAllocator uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        assertThrows(IllegalStateException.class, () -> uidAllocator.next(UIDAllocator.Kind.USER));
+        assertThrows(IllegalStateException.class, () -> uidAllocator.reserve(UIDAllocator.Kind.USER, 10));
+        assertEquals(1000, uidAllocator.next(UIDAllocator.Kind.EXPENSE));
+    }
+
+    @Test
+    void concurrentCallersGetDistinctUIDs() throws Exception {
+        SequenceUIDAllocator uidAllocator = new SequenceUIDAllocator(jdbcTemplate);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<Integer> UIDs = ConcurrentHashMap.newKeySet();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    UIDs.add(uidAllocator.next(UIDAllocator.Kind.GROUP));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(4000, UIDs.size());
+        assertTrue(JdbcUIDs.nextValue(jdbcTemplate, "groups_seq") <= 1 + 81 * SequenceUIDAllocator.BLOCK_SIZE);
+    }
+}
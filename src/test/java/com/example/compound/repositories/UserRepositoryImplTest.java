@@ -0,0 +1,118 @@
+package com.example.compound.repositories;
+
+import com.example.compound.data.AtomicUIDAllocator;
+import com.example.compound.entities.BalanceEvent;
+import com.example.compound.entities.BalanceLedger;
+import com.example.compound.entities.Money;
+import com.example.compound.entities.User;
+import com.example.compound.exceptions.UserAuthException;
+import com.example.compound.use_cases.transfer_data.UserRegistration;
+import com.example.compound.use_cases.transfer_data.UserTransferData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserRepositoryImplTest {
+    UserRepositoryImpl userRepository;
+    List<Integer> UUIDs;
+
+    @BeforeEach
+    void setUp() throws UserAuthException {
+        userRepository = new UserRepositoryImpl(EmbeddedDatabases.create());
+        UUIDs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            UUIDs.add(userRepository.create("User " + i, "user" + i + "@example.com", "user" + i, "password"));
+        }
+    }
+
+    @Test
+    void updateChangesUser() {
+        User user = userRepository.findById(UUIDs.get(0));
+        user.setEmail("new@example.com");
+        new BalanceLedger().record(user, Money.of(-2.5), BalanceEvent.Reason.EXPENSE_SHARE, null);
+        userRepository.update(user);
+
+        User found = userRepository.findById(UUIDs.get(0));
+        assertEquals("new@example.com", found.getEmail());
+        assertEquals(-250, found.getBalanceInCents());
+    }
+
+    @Test
+    void findPageReadsAfterUUID() {
+        List<UserTransferData> first = userRepository.findPage(Integer.MIN_VALUE, 2);
+        assertEquals(UUIDs.subList(0, 2), List.of(first.get(0).getUUID(), first.get(1).getUUID()));
+        assertEquals("User 1", first.get(1).getName());
+        assertEquals("user1@example.com", first.get(1).getEmail());
+
+        List<UserTransferData> rest = userRepository.findPage(first.get(1).getUUID(), 10);
+        assertEquals(3, rest.size());
+        assertEquals(UUIDs.get(2), rest.get(0).getUUID());
+        assertTrue(userRepository.findPage(UUIDs.get(4), 10).isEmpty());
+    }
+
+    @Test
+    void createAllReturnsUUIDsInOrder() {
+        List<UserRegistration> users = new ArrayList<>();
+        for (int i = 0; i < UserRepositoryImpl.BATCH_SIZE + 3; i++) {
+            users.add(new UserRegistration("Bulk " + i, "bulk" + i + "@example.com", "bulk" + i, "password"));
+        }
+        assertEquals(users.size(), userRepository.createAll(users));
+
+        for (int i = 0; i < users.size(); i += 250) {
+            UserRegistration user = users.get(i);
+            assertTrue(user.isCreated());
+            assertNull(user.getError());
+            assertEquals("Bulk " + i, userRepository.findById(user.getUUID()).getName());
+        }
+        assertEquals(UUIDs.size() + users.size(), userRepository.findPage(Integer.MIN_VALUE, 5000).size());
+    }
+
+    @Test
+    void createAllReportsEachFailure() {
+        List<UserRegistration> users = List.of(
+                new UserRegistration("Fine", "fine@example.com", "fine", "password"),
+                new UserRegistration("x".repeat(41), "long@example.com", "long", "password"),
+                new UserRegistration("No email", "not an email", "none", "password"),
+                new UserRegistration("Also fine", "also@example.com", null, "password"));
+        assertEquals(2, userRepository.createAll(users));
+
+        assertTrue(users.get(0).isCreated());
+        assertTrue(users.get(1).getError().contains("name"));
+        assertTrue(users.get(2).getError().contains("email"));
+        assertTrue(users.get(3).isCreated());
+        assertEquals("Also fine", userRepository.findById(users.get(3).getUUID()).getName());
+    }
+
+    @Test
+    void createAllFallsBackToSingleRowsWhenABatchFails() {
+        JdbcTemplate jdbcTemplate = EmbeddedDatabases.create();
+        UserRepositoryImpl repository = new UserRepositoryImpl(jdbcTemplate, new AtomicUIDAllocator());
+        // Take the UUID the allocator will hand out second, so that the batch fails on its second row
+        jdbcTemplate.update("INSERT INTO users(uuid, name, email, username, password) VALUES(1, 'Taken', " +
+                "'taken@example.com', 'taken', 'password')");
+        List<UserRegistration> users = List.of(
+                new UserRegistration("First", "first@example.com", "first", "password"),
+                new UserRegistration("Second", "second@example.com", "second", "password"),
+                new UserRegistration("Third", "third@example.com", "third", "password"));
+        assertEquals(2, repository.createAll(users));
+
+        assertEquals(0, users.get(0).getUUID());
+        assertFalse(users.get(1).isCreated());
+        assertNotNull(users.get(1).getError());
+        assertEquals(2, users.get(2).getUUID());
+        assertEquals("Third", repository.findById(2).getName());
+        assertEquals("Taken", repository.findById(1).getName());
+    }
+
+    @Test
+    void forEachUserReadsInOrder() {
+        List<Integer> read = new ArrayList<>();
+        userRepository.forEachUser(2, user -> read.add(user.getUUID()));
+        assertEquals(UUIDs, read);
+    }
+}
@@ -3,6 +3,7 @@ package com.example.compound.use_cases;
 import com.example.compound.data.Data;
 import com.example.compound.entities.Group;
 import com.example.compound.repositories.BudgetRepository;
+import com.example.compound.repositories.EmbeddedDatabases;
 import com.example.compound.repositories.GroupRepository;
 import com.example.compound.repositories.ItemRepository;
 import com.example.compound.use_cases.gateways.*;
@@ -10,17 +11,23 @@ import com.example.compound.use_cases.transfer_data.BudgetTransferData;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
 import org.junit.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A test class for BudgetManager. The tests in this class should pass when the repository gateways are implemented.
+ * A test class for BudgetManager. The repository gateways are backed by an embedded database.
  */
 public class BudgetManagerTest {
-    RepositoryGatewayI<BudgetTransferData> budgetRepositoryGateway;
-    RepositoryGatewayI<GroupTransferData> groupRepositoryGateway;
+    BudgetRepositoryGateway budgetRepositoryGateway;
+    VersionedRepositoryGateway<GroupTransferData> groupRepositoryGateway;
     RepositoryGatewayI<ItemTransferData> itemRepositoryGateway;
     BudgetManager budgetManager;
     ExpenseManager expenseManager;
@@ -30,10 +37,10 @@ public class BudgetManagerTest {
 
     @Before
     public void setUp() {
-        // TODO: Implement the gateways
-        budgetRepositoryGateway = new BudgetRepository();
-        groupRepositoryGateway = new GroupRepository();
-        itemRepositoryGateway = new ItemRepository();
+        JdbcTemplate jdbcTemplate = EmbeddedDatabases.create();
+        budgetRepositoryGateway = new BudgetRepository(jdbcTemplate);
+        groupRepositoryGateway = new GroupRepository(jdbcTemplate);
+        itemRepositoryGateway = new ItemRepository(jdbcTemplate);
         repositoryGateway = new Data();
 
         g = new GroupTransferData("A", new ArrayList<>(), new ArrayList<>(), "New group");
@@ -55,6 +62,24 @@ public class BudgetManagerTest {
         assertTrue(budgetManager.create(g.getGUID(), "name2", 5.0));
     }
 
+    @Test
+    public void testCreateBudget() {
+        String newBUID = budgetManager.createBudget(g.getGUID(), "name2", 5.0);
+        assertNotNull(newBUID);
+        assertEquals("name2", budgetManager.getBudget(g.getGUID(), newBUID).getName());
+        assertNull(budgetManager.createBudget("404", "name3", 5.0));
+    }
+
+    @Test
+    public void testGetVersion() {
+        int version = budgetManager.getVersion(g.getGUID(), BUID);
+        budgetManager.addItem(BUID, "itemName", 5.00, 6);
+        assertEquals(version + 1, (int) budgetManager.getVersion(g.getGUID(), BUID));
+        assertNull(budgetManager.getVersion("404", BUID));
+        assertNull(budgetManager.getBudget("404", BUID));
+        assertEquals(version + 1, budgetManager.getBudget(BUID).getVersion());
+    }
+
     @Test
     public void testGetBUIDFromName() {
         assertNotNull(budgetManager.getBUIDFromName("name"));
@@ -91,7 +116,10 @@ public class BudgetManagerTest {
     @Test
     public void testRemoveItem() {
         String IUID = budgetManager.addItem(BUID, "itemName", 5.00, 6);
+        assertTrue(budgetManager.hasItem(g.getGUID(), BUID, IUID));
+        assertFalse(budgetManager.hasItem("404", BUID, IUID));
         assertTrue(budgetManager.removeItem(IUID));
+        assertFalse(budgetManager.hasItem(g.getGUID(), BUID, IUID));
     }
 
     @Test
@@ -120,4 +148,31 @@ public class BudgetManagerTest {
     public void testGetBudgetNameList() {
         assertEquals("name", budgetManager.getBudgetNameList(g.getGUID()).get(0));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testChangeItemQuantityInLaterBudget() {
+        budgetManager.create(g.getGUID(), "name2", 100.0);
+        String laterBUID = budgetManager.getBUIDFromName("name2");
+        String IUID = budgetManager.addItem(laterBUID, "itemName", 5.00, 6);
+        assertTrue(budgetManager.changeItemQuantity(IUID, 20));
+        assertFalse(budgetManager.changeItemQuantity(IUID, 21));
+        assertTrue(budgetManager.removeItem(IUID));
+        assertFalse(budgetManager.removeItem(IUID));
+        assertTrue(budgetManager.getItems(laterBUID).isEmpty());
+    }
+
+    @Test
+    public void testConcurrentAddItemsAreNotLost() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> IUIDs = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String name = "item" + i;
+            IUIDs.add(executor.submit(() -> budgetManager.addItem(BUID, name, 1.00, 1)));
+        }
+        for (Future<String> IUID : IUIDs) {
+            assertNotNull(IUID.get(60, TimeUnit.SECONDS));
+        }
+        executor.shutdown();
+        assertEquals(20, budgetManager.getItems(BUID).size());
+    }
+}
@@ -3,26 +3,28 @@ package com.example.compound.use_cases;
 //import com.example.compound.data.Data;
 import com.example.compound.entities.Group;
 import com.example.compound.repositories.BudgetRepository;
+import com.example.compound.repositories.EmbeddedDatabases;
 import com.example.compound.repositories.GroupRepository;
 import com.example.compound.repositories.ItemRepository;
+import com.example.compound.use_cases.gateways.BudgetRepositoryGateway;
 import com.example.compound.use_cases.gateways.RepositoryGatewayI;
+import com.example.compound.use_cases.gateways.VersionedRepositoryGateway;
 //import com.example.compound.use_cases.gateways.RepositoryGateway;
-import com.example.compound.use_cases.transfer_data.BudgetTransferData;
 import com.example.compound.use_cases.transfer_data.GroupTransferData;
 import com.example.compound.use_cases.transfer_data.ItemTransferData;
 import org.junit.*;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import static org.junit.Assert.*;
 
 import java.util.ArrayList;
 
 /**
- * A test class for CurrentBudgetManager. The tests in this class should pass when the repository gateways are
- * implemented.
+ * A test class for CurrentBudgetManager. The repository gateways are backed by an embedded database.
  */
 public class CurrentBudgetManagerTest {
-    RepositoryGatewayI<BudgetTransferData> budgetRepositoryGateway;
-    RepositoryGatewayI<GroupTransferData> groupRepositoryGateway;
+    BudgetRepositoryGateway budgetRepositoryGateway;
+    VersionedRepositoryGateway<GroupTransferData> groupRepositoryGateway;
     RepositoryGatewayI<ItemTransferData> itemRepositoryGateway;
 //    RepositoryGateway repositoryGateway;
     BudgetManager budgetManager;
@@ -32,9 +34,10 @@ public class CurrentBudgetManagerTest {
 
     @Before
     public void setUp() {
-        budgetRepositoryGateway = new BudgetRepository();
-        groupRepositoryGateway = new GroupRepository();
-        itemRepositoryGateway = new ItemRepository();
+        JdbcTemplate jdbcTemplate = EmbeddedDatabases.create();
+        budgetRepositoryGateway = new BudgetRepository(jdbcTemplate);
+        groupRepositoryGateway = new GroupRepository(jdbcTemplate);
+        itemRepositoryGateway = new ItemRepository(jdbcTemplate);
 //        repositoryGateway = new Data();
 
         g = new GroupTransferData("A", new ArrayList<>(), new ArrayList<>(), "New group");
@@ -1,6 +1,8 @@
 package com.example.compound.use_cases;
 
 import com.example.compound.data.Data;
+import com.example.compound.entities.BalanceEvent;
+import com.example.compound.entities.BalanceLedger;
 import com.example.compound.entities.Expense;
 import com.example.compound.entities.Item;
 import com.example.compound.entities.Person;
@@ -9,6 +11,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
 
 public class ExpenseManagerTest {
     User u;
@@ -24,8 +29,8 @@ public class ExpenseManagerTest {
         d = new Data();
         i = new Item("0", "title", 10.0, 2);
 
-        u = new User("name", 100.0, "email@email.com", "password");
-        u2 = new User("name2", 100.0, "email2@email.com", "password2");
+        u = new User(1, "name", "email@email.com", "email@email.com", 100.0, "password");
+        u2 = new User(2, "name2", "email2@email.com", "email2@email.com", 100.0, "password2");
         d.addUser(u);
         d.addUser(u2);
 
@@ -35,7 +40,8 @@ public class ExpenseManagerTest {
         whoPaid.put(u, 10.0);
         whoBorrowed.put(u2, 10.0);
 
-        e = new Expense("0", "expense", 100.0, whoPaid, whoBorrowed);
+        // Recorded in a ledger of its own, so that the tests see only the changes they make
+        e = new Expense("0", "expense", 100.0, whoPaid, whoBorrowed, new BalanceLedger());
         d.addExpense(e);
 
         em = new ExpenseManager(d);
@@ -84,4 +90,23 @@ public class ExpenseManagerTest {
         em.payDebt(u, "0", 5.0, false);
         assert u.getBalance() == 95.0;
     }
+
+    @Test
+    public void testBalanceChangesAreRecorded(){
+        HashMap<Person, Double> whoPaid = new HashMap<>();
+        whoPaid.put(u, 10.0);
+        Expense expense = em.createExpense("expense", 10.0, whoPaid, new HashMap<>(), um);
+        em.payDebt(u2, "0", 5.0, true);
+
+        BalanceLedger ledger = d.getBalanceLedger();
+        List<BalanceEvent> events = ledger.getEvents();
+        assertEquals(4, events.size());
+        assertEquals(BalanceEvent.Reason.OPENING, events.get(0).getReason());
+        assertEquals(BalanceEvent.Reason.EXPENSE_PAID, events.get(1).getReason());
+        assertEquals(expense.getEUID(), events.get(1).getEUID());
+        assertEquals(BalanceEvent.Reason.DEBT_PAYMENT, events.get(3).getReason());
+        assertEquals(u.getBalanceInCents(), ledger.getBalanceInCents(u.getUUID()));
+        assertEquals(u2.getBalanceInCents(), ledger.getBalanceInCents(u2.getUUID()));
+        assertEquals(9500, ledger.getBalanceInCents(u2.getUUID()));
+    }
 }
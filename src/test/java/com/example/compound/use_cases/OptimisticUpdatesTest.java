@@ -0,0 +1,43 @@
+package com.example.compound.use_cases;
+
+import com.example.compound.exceptions.ConcurrentUpdateException;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OptimisticUpdatesTest {
+    @Test
+    void retriesUntilNoConflict() {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = OptimisticUpdates.retry(() -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ConcurrentUpdateException("conflict");
+            }
+            return "saved";
+        });
+        assertEquals("saved", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(ConcurrentUpdateException.class, () -> OptimisticUpdates.retry(() -> {
+            attempts.incrementAndGet();
+            throw new ConcurrentUpdateException("conflict");
+        }));
+        assertEquals(OptimisticUpdates.MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryOtherExceptions() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(IllegalStateException.class, () -> OptimisticUpdates.retry(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, attempts.get());
+    }
+}
@@ -96,4 +96,13 @@ class UserManagerTest {
         user2.setName("Hello@example.com");
         assertEquals("Hello@example.com", user2.getName());
     }
-}
\ No newline at end of file
+
+    @Test
+    void setEmailUpdatesGetUser() {
+        User user = u.getUser("johny@example.com");
+        u.setEmail(user, "john@example.com");
+        assertNull(u.getUser("johny@example.com"));
+        assertSame(user, u.getUser("john@example.com"));
+        assertTrue(data.findByGUID("0").getGroupMembers().contains("john@example.com"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.compound.use_cases.transfer_data;
+
+import com.example.compound.entities.Budget;
+import com.example.compound.entities.Item;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetTransferDataTest {
+    Budget budget;
+    Item carrot;
+
+    @BeforeEach
+    void setUp() {
+        budget = new Budget("0", "Groceries", 10.0);
+        carrot = new Item("1", "Carrot", 0.29, 3);
+        budget.addItem(carrot);
+    }
+
+    @Test
+    void copiesItemsWhenConstructed() {
+        BudgetTransferData budgetTransferData = new BudgetTransferData(budget);
+        assertTrue(carrot.setQuantity(4));
+        budget.addItem(new Item("2", "Pickle", 0.50, 1));
+        budget.setMaxSpend(20.0);
+        ItemTransferData item = budgetTransferData.getBudget().get("1");
+        assertEquals(3, item.getQuantity());
+        assertEquals("0", item.getBUID());
+        assertEquals(1, budgetTransferData.getBudget().size());
+        assertEquals(10.0, budgetTransferData.getMaxSpend());
+        assertEquals(87, budgetTransferData.toBudget().getTotalCostInCents());
+    }
+
+    @Test
+    void toBudgetCopiesItems() {
+        Budget copy = new BudgetTransferData(budget).toBudget();
+        Item copied = copy.getItemByIUID("1");
+        assertNotSame(carrot, copied);
+        assertEquals(87, copy.getTotalCostInCents());
+        assertTrue(copied.setQuantity(10));
+        assertEquals(3, carrot.getQuantity());
+        assertEquals(290, copy.getTotalCostInCents());
+        assertFalse(copied.setQuantity(100));
+    }
+
+    @Test
+    void toBudgetKeepsItemsOverLimit() {
+        BudgetTransferData budgetTransferData = new BudgetTransferData("0", "Groceries", 1.0);
+        budgetTransferData.getBudget().put("1", new ItemTransferData("1", "Carrot", 0.29, 3));
+        budgetTransferData.getBudget().put("2", new ItemTransferData("2", "Pickle", 0.50, 1));
+        Budget loaded = budgetTransferData.toBudget();
+        assertEquals(2, loaded.getItems().size());
+        assertEquals(137, loaded.getTotalCostInCents());
+        assertFalse(loaded.getItemByName("Pickle").setQuantity(2));
+    }
+
+    @Test
+    void keepsTotalCostOfItems() {
+        Budget budget = new Budget("0", "Groceries", 10.0);
+        budget.addItem(new Item("1", "Carrot", 0.29, 3));
+        assertEquals(87, new BudgetTransferData(budget).getTotalCostInCents());
+
+        BudgetTransferData budgetTransferData = new BudgetTransferData("0", "Groceries", 10.0);
+        budgetTransferData.addItem(new ItemTransferData("1", "Carrot", 0.29, 3));
+        budgetTransferData.addItem(new ItemTransferData("2", "Pickle", 0.50, 1));
+        budgetTransferData.addItem(new ItemTransferData("1", "Carrot", 0.29, 1));
+        assertEquals(79, budgetTransferData.getTotalCostInCents());
+        assertEquals(0.79, budgetTransferData.getTotalCost());
+
+        budgetTransferData.setBudget(new HashMap<>(Map.of("2", new ItemTransferData("2", "Pickle", 0.50, 4))));
+        assertEquals(200, budgetTransferData.getTotalCostInCents());
+    }
+}
@@ -0,0 +1,59 @@
+-- The tables from compound_db.sql used by the JDBC repositories, for an embedded H2 database in PostgreSQL mode.
+
+CREATE TABLE users(
+    uuid INTEGER PRIMARY KEY NOT NULL,
+    name VARCHAR(40) NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    username VARCHAR(40),
+    password TEXT NOT NULL,
+    expenses ARRAY,
+    balance NUMERIC(20, 2)
+);
+
+CREATE TABLE groups(
+    guid INTEGER PRIMARY KEY NOT NULL,
+    name VARCHAR(20) NOT NULL,
+    description TEXT,
+    version INTEGER NOT NULL DEFAULT 1
+);
+
+CREATE TABLE group_members(
+    guid INTEGER NOT NULL,
+    email VARCHAR(50) NOT NULL,
+    position INTEGER NOT NULL,
+    PRIMARY KEY (guid, email)
+);
+
+ALTER TABLE group_members ADD CONSTRAINT group_members_foreign_key
+FOREIGN KEY (guid) REFERENCES groups(guid) ON DELETE CASCADE;
+
+CREATE SEQUENCE users_seq INCREMENT BY 50 START WITH 1;
+CREATE SEQUENCE expenses_seq INCREMENT BY 50 START WITH 1000;
+CREATE SEQUENCE groups_seq INCREMENT BY 50 START WITH 1;
+CREATE SEQUENCE budget_seq INCREMENT BY 50 START WITH 1;
+CREATE SEQUENCE items_seq INCREMENT BY 50 START WITH 1;
+
+CREATE TABLE budget(
+    buid INTEGER PRIMARY KEY NOT NULL,
+    guid INTEGER,
+    name VARCHAR(40) NOT NULL,
+    max_spend NUMERIC(20, 2) NOT NULL,
+    version INTEGER NOT NULL DEFAULT 1
+);
+
+ALTER TABLE budget ADD CONSTRAINT budget_foreign_key
+FOREIGN KEY (guid) REFERENCES groups(guid) ON DELETE CASCADE;
+
+CREATE TABLE items(
+    iuid INTEGER PRIMARY KEY NOT NULL,
+    buid INTEGER,
+    name VARCHAR(40) NOT NULL,
+    cost NUMERIC(20, 2) NOT NULL,
+    quantity INTEGER NOT NULL
+);
+
+ALTER TABLE items ADD CONSTRAINT items_foreign_key
+FOREIGN KEY (buid) REFERENCES budget(buid) ON DELETE CASCADE;
+
+CREATE INDEX budget_guid_index ON budget(guid);
+CREATE INDEX items_buid_index ON items(buid);